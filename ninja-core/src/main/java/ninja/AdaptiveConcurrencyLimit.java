@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit of concurrent requests that adapts to the latency of the requests.
+ * 
+ * Compares a short term average of the latency with a long term one. While
+ * they are about the same the limit grows by roughly its square root, which
+ * lets requests queue up a little. When the short term latency rises (a
+ * database or remote service slows down) the limit shrinks by up to a half
+ * per sample until latencies recover. Every change is smoothed.
+ * 
+ * Neither acquiring nor releasing a permit blocks: requests beyond the limit
+ * are rejected right away and samples are applied by compare-and-set, so
+ * routes sharing a limit do not serialize on a lock.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    // weight of a new limit compared to the current one
+    static final double SMOOTHING = 0.2;
+    // short term latency may exceed the long term one by this factor
+    static final double TOLERANCE = 1.5;
+    // number of samples the short and long term averages roughly cover
+    static final double SHORT_WINDOW = 10;
+    static final double LONG_WINDOW = 600;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight;
+    private final LongAdder rejected;
+    private final AtomicReference<Estimate> estimate;
+
+    /**
+     * @param name The name of the route or group this limit belongs to
+     * @param initialLimit The limit before any latency is known
+     * @param minLimit The lower bound of the limit
+     * @param maxLimit The upper bound of the limit
+     */
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Concurrency limit needs 1 <= min <= max (min: " + minLimit + ", max: " + maxLimit + ")");
+        }
+
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.inFlight = new AtomicInteger();
+        this.rejected = new LongAdder();
+        double estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.estimate = new AtomicReference<>(new Estimate(estimatedLimit, 0, 0));
+    }
+
+    /**
+     * @return A permit that must be released once the request is done or
+     *      null if the limit is reached
+     */
+    public ConcurrencyLimiter.Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= getLimit()) {
+                rejected.increment();
+                return null;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The current limit of concurrent requests
+     */
+    public int getLimit() {
+        return (int) estimate.get().limit;
+    }
+
+    /**
+     * @return The number of requests holding a permit
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The number of requests rejected so far
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Adjusts the limit to the latency of a finished request.
+     * 
+     * @param rttNanos The time the request held its permit
+     * @param inFlightAtStart The requests in flight when it was admitted
+     */
+    void onSample(long rttNanos, int inFlightAtStart) {
+        while (true) {
+            Estimate current = estimate.get();
+
+            if (estimate.compareAndSet(current, next(current, rttNanos, inFlightAtStart))) {
+                return;
+            }
+        }
+    }
+
+    private Estimate next(Estimate current, long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1L, rttNanos);
+        double estimatedLimit = current.limit;
+
+        double shortRtt = (current.shortRtt == 0
+                ? rtt : current.shortRtt + (rtt - current.shortRtt) / SHORT_WINDOW);
+        double longRtt = (current.longRtt == 0
+                ? rtt : current.longRtt + (rtt - current.longRtt) / LONG_WINDOW);
+
+        // after a longer period of high latency the long term average
+        // would stay high for too long: let it catch up faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // the application does not use the limit: latency tells nothing
+        // about whether it is too low
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return new Estimate(estimatedLimit, shortRtt, longRtt);
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+
+        return new Estimate(Math.max(minLimit, Math.min(maxLimit, newLimit)), shortRtt, longRtt);
+    }
+
+    // the limit and latencies a sample updates together
+    static private class Estimate {
+
+        private final double limit;
+        private final double shortRtt;
+        private final double longRtt;
+
+        Estimate(double limit, double shortRtt, double longRtt) {
+            this.limit = limit;
+            this.shortRtt = shortRtt;
+            this.longRtt = longRtt;
+        }
+
+    }
+
+    private class Permit implements ConcurrencyLimiter.Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void release() {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startNanos, inFlightAtStart);
+        }
+
+    }
+
+}
@@ -29,8 +29,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import ninja.utils.HttpCacheToolkit;
+import ninja.utils.HttpHeaderConstants;
 import ninja.utils.MimeTypes;
 import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseCompression;
 import ninja.utils.ResponseStreams;
 
 import org.slf4j.Logger;
@@ -54,6 +56,8 @@ public class AssetsController {
     public final static String ASSETS_DIR = "assets";
     
     public final static String FILENAME_PATH_PARAM = "fileName";
+    
+    final static String GZIP_SUFFIX = ".gz";
 
     private final MimeTypes mimeTypes;
 
@@ -96,7 +100,8 @@ public class AssetsController {
             public void render(Context context, Result result) {
                 String fileName = getFileNameFromPathOrReturnRequestPath(context);
                 URL url = getStaticFileFromAssetsDir(fileName);
-                streamOutUrlEntity(url, context, result);
+                URL gzipUrl = (url != null ? getStaticFileFromAssetsDir(fileName + GZIP_SUFFIX) : null);
+                streamOutUrlEntity(url, gzipUrl, context, result);
             }
         };
         return Results.ok().render(renderable);
@@ -117,13 +122,20 @@ public class AssetsController {
             public void render(Context context, Result result) {
                 String fileName = getFileNameFromPathOrReturnRequestPath(context);
                 URL url = getStaticFileFromMetaInfResourcesDir(fileName);
-                streamOutUrlEntity(url, context, result);
+                URL gzipUrl = (url != null ? getStaticFileFromMetaInfResourcesDir(fileName + GZIP_SUFFIX) : null);
+                streamOutUrlEntity(url, gzipUrl, context, result);
             }
         };
         return Results.ok().render(renderable);
     }
     
-    private void streamOutUrlEntity(URL url, Context context, Result result) {
+    /**
+     * Streams out the file of the url. If a gzipped sibling of the file
+     * exists (e.g. app.js.gz next to app.js) and the client accepts gzip,
+     * the sibling is streamed out instead. Assets are never compressed on
+     * the fly.
+     */
+    private void streamOutUrlEntity(URL url, URL gzipUrl, Context context, Result result) {
         // check if stream exists. if not print a notfound exception
         if (url == null) {
             context.finalizeHeadersWithoutFlashAndSessionCookie(Results.notFound());
@@ -131,10 +143,27 @@ public class AssetsController {
             // Disable listing of directory contents
             context.finalizeHeadersWithoutFlashAndSessionCookie(Results.notFound());
         } else {
+            URL entityUrl = url;
+            String contentEncoding = null;
+
+            if (gzipUrl != null && !assetsControllerHelper.isDirectoryURL(gzipUrl)) {
+                ResponseCompression.addVary(result);
+
+                if (ResponseCompression.accepts(
+                        context.getHeader(HttpHeaderConstants.ACCEPT_ENCODING),
+                        ResponseCompression.GZIP)) {
+                    entityUrl = gzipUrl;
+                    contentEncoding = ResponseCompression.GZIP;
+                }
+            }
+
+            ResponseCompression.disableFor(context);
+
             try {
-                URLConnection urlConnection = url.openConnection();
+                URLConnection urlConnection = entityUrl.openConnection();
                 Long lastModified = urlConnection.getLastModified();
-                httpCacheToolkit.addEtag(context, result, lastModified);
+                // the gzipped sibling usually has the same timestamp
+                httpCacheToolkit.addEtag(context, result, lastModified, contentEncoding);
 
                 if (result.getStatusCode() == Result.SC_304_NOT_MODIFIED) {
                     // Do not stream anything out. Simply return 304
@@ -142,7 +171,7 @@ public class AssetsController {
                 } else {
                     result.status(200);
 
-                    // Try to set the mimetype:
+                    // Try to set the mimetype (of the uncompressed file):
                     String mimeType = mimeTypes.getContentType(context,
                             url.getFile());
 
@@ -150,6 +179,16 @@ public class AssetsController {
                         result.contentType(mimeType);
                     }
 
+                    if (contentEncoding != null) {
+                        result.addHeader(HttpHeaderConstants.CONTENT_ENCODING, contentEncoding);
+                    }
+
+                    long contentLength = urlConnection.getContentLengthLong();
+
+                    if (contentLength >= 0) {
+                        result.addHeader(Result.CONTENT_LENGTH, String.valueOf(contentLength));
+                    }
+
                     ResponseStreams responseStreams = context
                             .finalizeHeadersWithoutFlashAndSessionCookie(result);
 
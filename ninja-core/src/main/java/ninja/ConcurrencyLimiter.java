@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Admits requests to routes within an {@link AdaptiveConcurrencyLimit} per
+ * route or {@link ConcurrencyGroup}. {@link NinjaDefault} acquires a permit
+ * before it runs the filter chain of a route and renders a 503 with a
+ * Retry-After header if there is none.
+ * 
+ * Enable it by setting <code>ninja.concurrency_limit=true</code> in your
+ * application.conf.
+ */
+@Singleton
+public class ConcurrencyLimiter {
+
+    /**
+     * Admission of a request. Must be released exactly once when the
+     * request is done.
+     */
+    public interface Permit {
+        void release();
+    }
+
+    /**
+     * The permit of routes without a limit.
+     */
+    public static final Permit UNLIMITED = () -> { };
+
+    static final int DEFAULT_INITIAL_LIMIT = 20;
+    static final int DEFAULT_MIN_LIMIT = 4;
+    static final int DEFAULT_MAX_LIMIT = 1000;
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final ConcurrentHashMap<Route, AdaptiveConcurrencyLimit> routeLimits;
+    private final ConcurrentHashMap<String, AdaptiveConcurrencyLimit> limits;
+
+    @Inject
+    public ConcurrencyLimiter(NinjaProperties ninjaProperties) {
+        this.enabled = ninjaProperties.getBooleanWithDefault(
+                NinjaConstant.NINJA_CONCURRENCY_LIMIT, false);
+        this.initialLimit = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_CONCURRENCY_LIMIT_INITIAL, DEFAULT_INITIAL_LIMIT);
+        this.minLimit = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_CONCURRENCY_LIMIT_MIN, DEFAULT_MIN_LIMIT);
+        this.maxLimit = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_CONCURRENCY_LIMIT_MAX, DEFAULT_MAX_LIMIT);
+        this.routeLimits = new ConcurrentHashMap<>();
+        this.limits = new ConcurrentHashMap<>();
+
+        if (enabled && (minLimit < 1 || maxLimit < minLimit)) {
+            throw new IllegalArgumentException(
+                    "Concurrency limit needs 1 <= min <= max (min: " + minLimit + ", max: " + maxLimit + ")");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param route The route of the request
+     * @return A permit or null if the limit of the route is reached.
+     *      {@link #UNLIMITED} if limits are disabled.
+     */
+    public Permit tryAcquire(Route route) {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+
+        return getLimit(route).tryAcquire();
+    }
+
+    /**
+     * @param route The route
+     * @return The limit of the route (shared by its group) or null if limits
+     *      are disabled
+     */
+    public AdaptiveConcurrencyLimit getLimit(Route route) {
+        if (!enabled) {
+            return null;
+        }
+
+        return routeLimits.computeIfAbsent(route, r -> limits.computeIfAbsent(
+                groupOf(r),
+                name -> new AdaptiveConcurrencyLimit(name, initialLimit, minLimit, maxLimit)));
+    }
+
+    /**
+     * @return All limits created so far
+     */
+    public Collection<AdaptiveConcurrencyLimit> getLimits() {
+        return Collections.unmodifiableCollection(limits.values());
+    }
+
+    /**
+     * @param route The route
+     * @return The name of the {@link ConcurrencyGroup} of the route or
+     *      "com.example.Controller.method" if it has none
+     */
+    static String groupOf(Route route) {
+        Method method = route.getControllerMethod();
+
+        if (method == null) {
+            return route.getHttpMethod() + " " + route.getUri();
+        }
+
+        ConcurrencyGroup group = method.getAnnotation(ConcurrencyGroup.class);
+
+        if (group == null && route.getControllerClass() != null) {
+            group = route.getControllerClass().getAnnotation(ConcurrencyGroup.class);
+        }
+
+        if (group != null) {
+            return group.value();
+        }
+
+        return route.getControllerClass().getName() + "." + method.getName();
+    }
+
+}
@@ -21,6 +21,7 @@ public interface ContentTypes {
     String TEXT_HTML = "text/html";
     String APPLICATION_JSON = "application/json";
     String APPLICATION_JSONP = "application/javascript";
+    String APPLICATION_NDJSON = "application/x-ndjson";
     String APPLICATION_POST_FORM = "application/x-www-form-urlencoded";
     String APPLICATION_XML = "application/xml";
     String TEXT_CSS = "text/css";
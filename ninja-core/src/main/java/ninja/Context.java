@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import ninja.bodyparser.BodyParserEngineJson;
 import ninja.bodyparser.BodyParserEngineManager;
@@ -44,6 +46,29 @@ public interface Context {
     interface Impl extends Context {
         
         void setRoute(Route route);
+        
+        /**
+         * Sets the route and the path parameters captured while resolving it.
+         * Contexts that do not keep the captured parameters only set the
+         * route.
+         * 
+         * @param routeMatch The match or null if no route was found
+         */
+        default void setRouteMatch(RouteMatch routeMatch) {
+            setRoute(routeMatch != null ? routeMatch.getRoute() : null);
+        }
+        
+        /**
+         * Runs the callback once the result of an async request has been
+         * returned via {@link #returnResultAsync(Result)}. Runs it right
+         * away if the request is not async or its result has already been
+         * returned.
+         * 
+         * @param callback Called once the result has been returned
+         */
+        default void onAsyncResultReturned(Runnable callback) {
+            callback.run();
+        }
     }
 
     /**
@@ -482,6 +507,33 @@ public interface Context {
      */
     <T> T parseBody(Class<T> classOfT);
 
+    /**
+     * Parses the request body as a sequence of objects. A Json array or
+     * newline delimited Json ({@link ContentTypes#APPLICATION_NDJSON}) is
+     * decoded one element at a time while the stream is consumed, so even
+     * huge bodies are parsed with constant memory.
+     * 
+     * Body parsers that are no {@link ninja.bodyparser.StreamingBodyParserEngine}
+     * parse the whole body into a single element. Malformed elements throw a
+     * {@link ninja.exceptions.BadRequestException} while iterating.
+     * 
+     * Close the stream (e.g. with try-with-resources) if you do not consume
+     * it completely.
+     * 
+     * Contexts that do not support streaming parse the whole body with
+     * {@link #parseBody(Class)} into a single element.
+     * 
+     * @param classOfT
+     *            The class of the elements.
+     * @return The elements of the body or an empty stream if the request
+     *         cannot be parsed.
+     */
+    default <T> Stream<T> parseBodyAsStream(Class<T> classOfT) {
+        T body = parseBody(classOfT);
+        
+        return body != null ? Stream.of(body) : Stream.empty();
+    }
+
     
     boolean isAsync();
         
@@ -547,6 +599,16 @@ public interface Context {
      */
     Route getRoute();
 
+    /**
+     * The deadline of this request if its route has a timeout (see
+     * {@link Timeout}). Long running code can check it cooperatively.
+     * 
+     * @return The deadline or an empty optional
+     */
+    default Optional<Deadline> getDeadline() {
+        return Optional.empty();
+    }
+
     /**
      * Check if request is of type multipart. Important when you want to process
      * uploads for instance.
@@ -573,6 +635,25 @@ public interface Context {
     @Deprecated
     FileItemIterator getFileItemIterator();
 
+    /**
+     * The parts of a multipart request that were not read into parameters,
+     * in the order they were sent. Only available if the route uses the
+     * {@link ninja.uploads.StreamingUploads} annotation: Form fields sent
+     * before the first file are available via {@link #getParameter(String)},
+     * the iterator starts at the first file.
+     * 
+     * The stream of a part can only be read until the next part is
+     * requested. The configured upload size limits are enforced while
+     * reading.
+     * 
+     * @return the parts of the request or null if the request is no
+     *         multipart request or does not stream its uploads.
+     *         Always null for contexts that do not support streaming.
+     */
+    default FileItemIterator getStreamingFileItemIterator() {
+        return null;
+    }
+
     /**
      * Get the validation context
      * 
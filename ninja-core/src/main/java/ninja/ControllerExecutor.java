@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import ninja.lifecycle.Dispose;
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Runs the filter chains of routes off the request threads of the container,
+ * so slow (blocking) controllers cannot exhaust them.
+ * 
+ * Configured by <code>ninja.controller_executor</code> in application.conf:
+ * 
+ * <ul>
+ * <li>none - the default. Everything runs on the request thread.</li>
+ * <li>pool - a pool of <code>ninja.controller_executor.threads</code> threads
+ * with a queue of <code>ninja.controller_executor.queue_size</code>.</li>
+ * <li>virtual - one virtual thread per request, at most
+ * <code>ninja.controller_executor.queue_size</code> in flight. Falls back to
+ * "pool" if the runtime does not support virtual threads.</li>
+ * </ul>
+ * 
+ * Requests that do not fit into the queue are rejected and rendered as 503
+ * by {@link NinjaDefault}. Which routes are offloaded is decided by
+ * <code>ninja.controller_executor.offload_all</code> and {@link Offload}.
+ */
+@Singleton
+public class ControllerExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ControllerExecutor.class);
+
+    static final String MODE_NONE = "none";
+    static final String MODE_POOL = "pool";
+    static final String MODE_VIRTUAL = "virtual";
+
+    static final int DEFAULT_THREADS = 64;
+    static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    // null if routes run on the request thread
+    private final ExecutorService executorService;
+    // bounds the requests in flight on virtual threads (null for the pool)
+    private final Semaphore permits;
+    private final boolean offloadAll;
+    private final ConcurrentHashMap<Route, Boolean> offloadedRoutes;
+
+    @Inject
+    public ControllerExecutor(NinjaProperties ninjaProperties) {
+        String mode = ninjaProperties.getWithDefault(
+                NinjaConstant.NINJA_CONTROLLER_EXECUTOR, MODE_NONE);
+        int threads = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_CONTROLLER_EXECUTOR_THREADS, DEFAULT_THREADS);
+        int queueSize = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_CONTROLLER_EXECUTOR_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+
+        this.offloadAll = ninjaProperties.getBooleanWithDefault(
+                NinjaConstant.NINJA_CONTROLLER_EXECUTOR_OFFLOAD_ALL, true);
+        this.offloadedRoutes = new ConcurrentHashMap<>();
+
+        ExecutorService virtualThreads
+                = MODE_VIRTUAL.equals(mode) ? newVirtualThreadPerTaskExecutor() : null;
+
+        if (virtualThreads != null) {
+            this.executorService = virtualThreads;
+            this.permits = new Semaphore(queueSize);
+            logger.info("Running controllers on virtual threads (max {} in flight)", queueSize);
+        } else if (MODE_POOL.equals(mode) || MODE_VIRTUAL.equals(mode)) {
+            this.executorService = newThreadPool(threads, queueSize);
+            this.permits = null;
+            logger.info("Running controllers on {} threads (queue size {})", threads, queueSize);
+        } else if (MODE_NONE.equals(mode)) {
+            this.executorService = null;
+            this.permits = null;
+        } else {
+            throw new IllegalArgumentException(
+                    "Unknown " + NinjaConstant.NINJA_CONTROLLER_EXECUTOR + ": " + mode
+                    + " (expected " + MODE_NONE + ", " + MODE_POOL + " or " + MODE_VIRTUAL + ")");
+        }
+    }
+
+    /**
+     * @return True if routes may run on this executor
+     */
+    public boolean isEnabled() {
+        return executorService != null;
+    }
+
+    /**
+     * @param route The route
+     * @return True if the filter chain of the route should run on this
+     *      executor. Websocket handshakes always run on the request thread.
+     */
+    public boolean isOffloaded(Route route) {
+        if (executorService == null) {
+            return false;
+        }
+
+        return offloadedRoutes.computeIfAbsent(route, this::decideOffloaded);
+    }
+
+    /**
+     * @param task The task to run
+     * @throws RejectedExecutionException If the queue is full or the
+     *      executor is shut down
+     */
+    public void execute(Runnable task) {
+        if (executorService == null) {
+            throw new RejectedExecutionException("No controller executor configured");
+        }
+
+        if (permits == null) {
+            executorService.execute(task);
+            return;
+        }
+
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many requests in flight");
+        }
+
+        try {
+            executorService.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Dispose
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    private boolean decideOffloaded(Route route) {
+        if (route.isHttpMethodWebSocket()) {
+            return false;
+        }
+
+        Method method = route.getControllerMethod();
+        Offload offload = (method != null ? method.getAnnotation(Offload.class) : null);
+
+        if (offload == null && route.getControllerClass() != null) {
+            offload = route.getControllerClass().getAnnotation(Offload.class);
+        }
+
+        return offload != null ? offload.value() : offloadAll;
+    }
+
+    private static ExecutorService newThreadPool(int threads, int queueSize) {
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("ninja-controller-%d")
+                        .setDaemon(true)
+                        .build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() of Java 21. Looked up
+     * reflectively since Ninja is compiled for Java 8.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Virtual threads are not supported by this runtime."
+                    + " Running controllers on a thread pool instead.");
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import ninja.exceptions.DeadlineExceededException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The point in time a request has to be answered by. Created from the timeout
+ * of the route (see {@link Timeout}) when the request is routed and available
+ * via {@link Context#getDeadline()}.
+ * 
+ * Ninja answers requests with a 503 whose deadline expires while they still
+ * wait for the controller executor and cancels pending CompletionStages of
+ * controller methods. A controller method that is already running cannot be
+ * stopped - its result is sent even if it is late. Code that blocks should
+ * check the deadline cooperatively, e.g. between two queries:
+ * 
+ * <pre>
+ * context.getDeadline().ifPresent(Deadline::check);
+ * </pre>
+ */
+public final class Deadline {
+
+    private final Duration timeout;
+    private final long expiresAtNanos;
+
+    private Deadline(Duration timeout, long expiresAtNanos) {
+        this.timeout = timeout;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @param timeout The time from now on
+     * @return A deadline that expires after the timeout
+     */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(timeout, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return The timeout this deadline was created with
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param unit The unit of the result
+     * @return The time left until the deadline expires, 0 if it expired
+     */
+    public long getRemaining(TimeUnit unit) {
+        return unit.convert(Math.max(0L, expiresAtNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @throws DeadlineExceededException If the deadline expired
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * Runs the task once the deadline expires (right away if it expired
+     * already). The task runs on a timer thread shared by all requests, so it
+     * must not block.
+     * 
+     * @param task The task to run
+     * @return A future to cancel the task with
+     */
+    Future<?> onExpiry(Runnable task) {
+        return Timer.INSTANCE.schedule(task, getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs the task on a thread of its own once the deadline expires. For work
+     * that may block, like rendering a response to a slow client: the timer
+     * only hands the task over.
+     * 
+     * @param task The task to run
+     * @return A future to cancel the task with until it was handed over
+     */
+    Future<?> onExpiryAsync(Runnable task) {
+        return onExpiry(() -> Expired.INSTANCE.execute(task));
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{timeout=" + timeout + ", remaining=" + getRemaining(TimeUnit.MILLISECONDS) + "ms}";
+    }
+
+    static private class Timer {
+
+        static final ScheduledThreadPoolExecutor INSTANCE = newTimer();
+
+        private static ScheduledThreadPoolExecutor newTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(
+                    1,
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("ninja-deadline-%d")
+                            .setDaemon(true)
+                            .build());
+            // most deadlines are met: do not keep their tasks around
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+
+    }
+
+    static private class Expired {
+
+        // one thread per expired request that is answered at the moment
+        static final ExecutorService INSTANCE = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("ninja-expired-deadline-%d")
+                        .setDaemon(true)
+                        .build());
+
+    }
+
+}
@@ -16,6 +16,14 @@
 
 package ninja;
 
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+import ninja.exceptions.DeadlineExceededException;
 import ninja.params.ControllerMethodInvoker;
 
 import com.google.inject.Provider;
@@ -31,19 +39,34 @@ class FilterChainEnd implements FilterChain {
     
     private final Provider<?> targetObjectProvider;
     private final ControllerMethodInvoker controllerMethodInvoker;
+    // only needed for controller methods returning a CompletionStage
+    private final Provider<Ninja> ninjaProvider;
 
     FilterChainEnd(Provider<?> targetObjectProvider,
                    ControllerMethodInvoker controllerMethodInvoker) {
+        this(targetObjectProvider, controllerMethodInvoker, null);
+    }
+
+    FilterChainEnd(Provider<?> targetObjectProvider,
+                   ControllerMethodInvoker controllerMethodInvoker,
+                   Provider<Ninja> ninjaProvider) {
         this.targetObjectProvider = targetObjectProvider;
         this.controllerMethodInvoker = controllerMethodInvoker;
+        this.ninjaProvider = ninjaProvider;
     }
 
     @Override
     public Result next(Context context) {
         Object targetObject = targetObjectProvider.get();
         
-        Result result = (Result)controllerMethodInvoker.invoke(
+        Object returned = controllerMethodInvoker.invoke(
             targetObject, context);
+        
+        if (returned instanceof CompletionStage) {
+            return completeAsync((CompletionStage<?>) returned, context);
+        }
+        
+        Result result = (Result) returned;
 
         // handling a websocket?
         if (context != null && context.getRoute() != null && context.getRoute().isHttpMethodWebSocket()) {
@@ -69,4 +92,80 @@ class FilterChainEnd implements FilterChain {
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Switches the request to async mode and returns the result of the stage
+     * once it completes. Exceptions of the stage are rendered like exceptions
+     * thrown by a controller. A stage still pending when the deadline of the
+     * request expires is cancelled and the request answered with a 503.
+     */
+    private Result completeAsync(CompletionStage<?> stage, Context context) {
+        if (stage instanceof CompletableFuture && ((CompletableFuture<?>) stage).isDone()) {
+            // nothing to wait for
+            try {
+                return (Result) ((CompletableFuture<?>) stage).join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+        
+        context.handleAsync();
+        
+        Optional<Deadline> deadline = context.getDeadline();
+        
+        // cancel pending work once nobody waits for it anymore. Cancelling
+        // renders the 503 right away, so not on the timer thread
+        Future<?> deadlineTimer = !deadline.isPresent()
+            ? null : deadline.get().onExpiryAsync(() -> cancel(stage));
+        
+        stage.whenComplete((returned, throwable) -> {
+            Ninja ninja = ninjaProvider.get();
+            
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+            
+            try {
+                if (throwable != null) {
+                    RuntimeException exception = unwrap(throwable);
+                    
+                    if (exception instanceof CancellationException
+                            && deadline.isPresent() && deadline.get().isExpired()) {
+                        throw new DeadlineExceededException(exception);
+                    }
+                    
+                    throw exception;
+                }
+                context.returnResultAsync((Result) returned);
+            } catch (Exception exception) {
+                Result result = ninja.onException(context, exception);
+                ninja.renderErrorResultAndCatchAndLogExceptions(result, context);
+            }
+        });
+        
+        // blocks until the stage completed if the container does not support async
+        Result result = context.controllerReturned();
+        
+        return result != null ? result : Results.async();
+    }
+    
+    private static void cancel(CompletionStage<?> stage) {
+        try {
+            stage.toCompletableFuture().cancel(true);
+        } catch (UnsupportedOperationException e) {
+            // a stage that cannot be cancelled: wait for it
+        }
+    }
+    
+    private static RuntimeException unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        } else {
+            return new RuntimeException(throwable);
+        }
+    }
+}
@@ -22,6 +22,9 @@ import java.io.InputStreamReader;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.management.RuntimeErrorException;
 
@@ -30,9 +33,11 @@ import com.google.common.io.CharStreams;
 import ninja.diagnostics.DiagnosticError;
 import ninja.diagnostics.DiagnosticErrorBuilder;
 import ninja.exceptions.BadRequestException;
+import ninja.exceptions.DeadlineExceededException;
 import ninja.exceptions.ForbiddenRequestException;
 import ninja.exceptions.RenderingException;
 import ninja.exceptions.RequestNotFoundException;
+import ninja.exceptions.ServiceUnavailableException;
 import ninja.i18n.Messages;
 import ninja.lifecycle.LifecycleService;
 import ninja.utils.Message;
@@ -80,6 +85,12 @@ public class NinjaDefault implements Ninja {
     @Inject
     protected NinjaProperties ninjaProperties;
 
+    @Inject
+    protected ControllerExecutor controllerExecutor;
+
+    @Inject
+    protected ConcurrencyLimiter concurrencyLimiter;
+
     /**
      * Whether diagnostics are enabled. If enabled then the default system/views
      * will be skipped and a detailed diagnostic error result will be returned
@@ -99,11 +110,28 @@ public class NinjaDefault implements Ninja {
 
         String httpMethod = context.getMethod();
 
-        Route route = router.getRouteFor(httpMethod, context.getRequestPath());
+        RouteMatch routeMatch = router.getRouteMatchFor(httpMethod, context.getRequestPath());
+
+        context.setRouteMatch(routeMatch);
 
-        context.setRoute(route);
+        if (routeMatch != null) {
+
+            Route route = routeMatch.getRoute();
+
+            ConcurrencyLimiter.Permit permit = acquirePermitOrRejectRequest(context, route);
+
+            if (permit == null) {
+                
+                return;
+                
+            }
 
-        if (route != null) {
+            if (isOffloaded(route)) {
+                
+                executeFilterChainOnControllerExecutor(context, route, permit::release);
+                return;
+                
+            }
 
             Result underlyingResult = null;
 
@@ -111,6 +139,8 @@ public class NinjaDefault implements Ninja {
 
                 underlyingResult = route.getFilterChain().next(context);
 
+                checkDeadline(context, underlyingResult);
+
                 resultHandler.handleResult(underlyingResult, context);
 
             } catch (Exception exception) {
@@ -121,7 +151,11 @@ public class NinjaDefault implements Ninja {
 
             } finally {
 
-                context.cleanup();
+                // an async result holds its permit and uploads until it has been returned
+                runWhenResultReturned(context, underlyingResult, () -> {
+                    permit.release();
+                    context.cleanup();
+                });
 
             }
 
@@ -135,6 +169,218 @@ public class NinjaDefault implements Ninja {
 
     }
 
+    /**
+     * Admits the request within the concurrency limit of its route. Requests
+     * beyond the limit are rejected before they do any work: a 503 is
+     * rendered and the context cleaned up.
+     * 
+     * @param context The context of the request
+     * @param route The route of the request
+     * @return The permit to release once the request is done or null if the
+     *      request has been rejected
+     */
+    protected ConcurrencyLimiter.Permit acquirePermitOrRejectRequest(Context.Impl context, Route route) {
+
+        if (concurrencyLimiter == null) {
+            return ConcurrencyLimiter.UNLIMITED;
+        }
+
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(route);
+
+        if (permit == null) {
+
+            Result result = onException(context,
+                    new ServiceUnavailableException("Concurrency limit of route reached"));
+            renderErrorResultAndCatchAndLogExceptions(result, context);
+
+            context.cleanup();
+
+        }
+
+        return permit;
+
+    }
+
+    /**
+     * Runs the callback once the request has been answered: right away, or -
+     * if the filter chain returned an {@link AsyncResult} - once the result
+     * has been returned asynchronously. Used to release what the request
+     * holds while it is in flight.
+     * 
+     * @param context The context of the request
+     * @param result The result returned by the filter chain (may be null)
+     * @param callback Called once the request has been answered
+     */
+    protected void runWhenResultReturned(Context.Impl context, Result result, Runnable callback) {
+
+        if (result instanceof AsyncResult) {
+            context.onAsyncResultReturned(callback);
+        } else {
+            callback.run();
+        }
+
+    }
+
+    /**
+     * @param route The route of the request
+     * @return True if the filter chain of the route runs on the
+     *      {@link ControllerExecutor} and not on the request thread
+     */
+    protected boolean isOffloaded(Route route) {
+        return controllerExecutor != null && controllerExecutor.isOffloaded(route);
+    }
+
+    /**
+     * Reports a result the filter chain returned after the deadline of the
+     * request expired. The result is sent anyway: the work is done and
+     * answering with a 503 would only invite the client to do it again.
+     * Results that are returned asynchronously are left to whoever completes
+     * them.
+     * 
+     * @param context The context of the request
+     * @param result The result returned by the filter chain
+     */
+    protected void checkDeadline(Context context, Result result) {
+
+        if (result instanceof AsyncResult) {
+            return;
+        }
+
+        Optional<Deadline> deadline = context.getDeadline();
+
+        if (deadline.isPresent() && deadline.get().isExpired()) {
+            onDeadlineMissed(context, deadline.get());
+        }
+
+    }
+
+    /**
+     * Called when a result is sent after the deadline of its request expired.
+     * Logs a warning by default.
+     * 
+     * @param context The context of the request
+     * @param deadline The deadline the request missed
+     */
+    protected void onDeadlineMissed(Context context, Deadline deadline) {
+
+        logger.warn("Request {} {} missed its deadline of {} ms",
+                context.getMethod(),
+                context.getRequestPath(),
+                deadline.getTimeout().toMillis());
+
+    }
+
+    /**
+     * Switches the request to async mode and runs the filter chain of the
+     * route on the {@link ControllerExecutor}. The result is rendered and the
+     * context cleaned up on the executor thread. A request the executor
+     * rejects is rendered as 503, so is a request whose deadline expires
+     * while it still waits in the queue. Once the filter chain runs the
+     * request is answered by the task alone - the context is never touched
+     * by two threads at once.
+     * 
+     * @param context The context of the request
+     * @param route The route of the request
+     * @param onCompletion Called once the request has been handled (may be null)
+     */
+    protected void executeFilterChainOnControllerExecutor(
+            Context.Impl context, Route route, Runnable onCompletion) {
+
+        context.handleAsync();
+
+        Optional<Deadline> deadline = context.getDeadline();
+
+        // whoever sets it first owns the request: the task or the deadline
+        AtomicBoolean claimed = new AtomicBoolean();
+
+        // renders the 503 and may block on the client, so not on the timer thread
+        Future<?> deadlineTimer = !deadline.isPresent() ? null : deadline.get().onExpiryAsync(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                Result result = onException(context, new DeadlineExceededException());
+                renderErrorResultAndCatchAndLogExceptions(result, context);
+                completeOffloadedRequest(context, onCompletion);
+            }
+        });
+
+        try {
+
+            controllerExecutor.execute(() -> {
+
+                // waited too long in the queue: already answered
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+
+                if (deadlineTimer != null) {
+                    deadlineTimer.cancel(false);
+                }
+
+                Result underlyingResult = null;
+
+                try {
+
+                    underlyingResult = route.getFilterChain().next(context);
+
+                    checkDeadline(context, underlyingResult);
+
+                    // async results are returned by whoever completes them
+                    if (!(underlyingResult instanceof AsyncResult)) {
+                        context.returnResultAsync(underlyingResult);
+                    }
+
+                } catch (Exception exception) {
+
+                    Result result = onException(context, exception, underlyingResult);
+                    renderErrorResultAndCatchAndLogExceptions(result, context);
+
+                } finally {
+
+                    runWhenResultReturned(context, underlyingResult,
+                            () -> completeOffloadedRequest(context, onCompletion));
+
+                }
+
+            });
+
+        } catch (RejectedExecutionException rejectedExecutionException) {
+
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+
+            if (claimed.compareAndSet(false, true)) {
+                Result result = onException(context,
+                        new ServiceUnavailableException(rejectedExecutionException));
+                renderErrorResultAndCatchAndLogExceptions(result, context);
+                completeOffloadedRequest(context, onCompletion);
+            }
+
+        }
+
+        // containers without async support block here until the result is there
+        Result result = context.controllerReturned();
+
+        if (result != null) {
+            try {
+                resultHandler.handleResult(result, context);
+            } catch (Exception exceptionCausingRenderError) {
+                logger.error("Unable to handle result. That's really really fishy.",
+                        exceptionCausingRenderError);
+            }
+        }
+
+    }
+
+    private void completeOffloadedRequest(Context.Impl context, Runnable onCompletion) {
+
+        context.cleanup();
+
+        if (onCompletion != null) {
+            onCompletion.run();
+        }
+
+    }
+
     @Override
     public void renderErrorResultAndCatchAndLogExceptions(
             Result result, Context context) {
@@ -194,6 +440,10 @@ public class NinjaDefault implements Ninja {
 
             result = getNotFoundResult(context, (RequestNotFoundException) exception);
 
+        } else if (exception instanceof ServiceUnavailableException) {
+
+            result = getServiceUnavailableResult(context, (ServiceUnavailableException) exception);
+
         } else if (exception instanceof RenderingException) {
 
             result = getRenderingExceptionResult(context, (RenderingException) exception, underlyingResult);
@@ -416,6 +666,49 @@ public class NinjaDefault implements Ninja {
 
     }
 
+    public Result getServiceUnavailableResult(Context context, ServiceUnavailableException exception) {
+
+        if (isDiagnosticsEnabled()) {
+
+            DiagnosticError diagnosticError =
+                DiagnosticErrorBuilder.build503ServiceUnavailableDiagnosticError(exception, true);
+
+            return addRetryAfter(Results.serviceUnavailable().render(diagnosticError));
+
+        }
+
+        Message message = buildErrorMessage(
+                context, 
+                NinjaConstant.I18N_NINJA_SYSTEM_SERVICE_UNAVAILABLE_TEXT_KEY, 
+                NinjaConstant.I18N_NINJA_SYSTEM_SERVICE_UNAVAILABLE_TEXT_DEFAULT, 
+                Optional.ofNullable(exception), 
+                Optional.<Result>empty());
+
+        return addRetryAfter(Results
+                .serviceUnavailable()
+                .supportedContentTypes(Result.TEXT_HTML, Result.APPLICATION_JSON, Result.APPLICATION_XML)
+                .fallbackContentType(Result.TEXT_HTML)
+                .render(message)
+                .template(
+                        ninjaProperties.getWithDefault(
+                                NinjaConstant.LOCATION_VIEW_HTML_SERVICE_UNAVAILABLE_KEY,
+                                NinjaConstant.LOCATION_VIEW_FTL_HTML_SERVICE_UNAVAILABLE)));
+
+    }
+
+    private Result addRetryAfter(Result result) {
+
+        Integer retryAfter = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_SERVICE_UNAVAILABLE_RETRY_AFTER, 1);
+
+        if (retryAfter != null && retryAfter > 0) {
+            result.addHeader(Result.RETRY_AFTER, retryAfter.toString());
+        }
+
+        return result;
+
+    }
+
     protected Message buildErrorMessage(Context context,
                                         String errorTextKey,
                                         String errorTextDefault,
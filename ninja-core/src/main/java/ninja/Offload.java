@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Decides whether a controller method (or all methods of a controller class)
+ * runs on the {@link ControllerExecutor} instead of the request thread of the
+ * container. An annotation on the method wins over one on the class.
+ * 
+ * Only has an effect if <code>ninja.controller_executor</code> is set.
+ * Use <code>@Offload</code> to opt in if
+ * <code>ninja.controller_executor.offload_all</code> is false and
+ * <code>@Offload(false)</code> to opt out otherwise.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Offload {
+    boolean value() default true;
+}
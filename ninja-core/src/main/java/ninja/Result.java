@@ -68,6 +68,7 @@ public class Result {
 
     public static final int SC_500_INTERNAL_SERVER_ERROR = 500;
     public static final int SC_501_NOT_IMPLEMENTED = 501;
+    public static final int SC_503_SERVICE_UNAVAILABLE = 503;
 
     // /////////////////////////////////////////////////////////////////////////
     // Some MIME types (for convenience)
@@ -104,6 +105,10 @@ public class Result {
 
     public static final String WWW_AUTHENTICATE = "WWW-Authenticate";
 
+    public static final String RETRY_AFTER = "Retry-After";
+
+    public static final String CONTENT_LENGTH = "Content-Length";
+
     private int statusCode;
 
     private Class<?> jsonView;
@@ -78,6 +78,10 @@ public class Results {
         return status(Result.SC_500_INTERNAL_SERVER_ERROR);
     }
 
+    public static Result serviceUnavailable() {
+        return status(Result.SC_503_SERVICE_UNAVAILABLE);
+    }
+
     /**
      * A redirect that uses 303 see other.
      * 
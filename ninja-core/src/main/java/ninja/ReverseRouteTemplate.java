@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.util.Map;
+
+/**
+ * The uri of a route split into its literal parts and parameter slots once,
+ * when the route is created. "/user/{id}/email/{addr}" becomes the literals
+ * "/user/", "/email/" and "" around the slots "id" and "addr".
+ *
+ * Used by {@link ReverseRouter} to build urls without parsing the uri of
+ * the route again. Routes without parameters are reversed to a constant.
+ */
+final class ReverseRouteTemplate {
+
+    private final String uri;
+    private final String[] literals;
+    private final String[] parameterNames;
+    private final int literalsLength;
+    // last reversed constant uri, prefixed by a context path
+    private volatile ContextPathUri contextPathUri;
+
+    ReverseRouteTemplate(String uri, Map<String, RouteParameter> parameters) {
+        this.uri = uri;
+        this.literals = new String[parameters.size() + 1];
+        this.parameterNames = new String[parameters.size()];
+
+        int i = 0;
+        int lastIndex = 0;
+        int length = 0;
+
+        for (RouteParameter rp : parameters.values()) {
+            literals[i] = uri.substring(lastIndex, rp.getIndex());
+            parameterNames[i] = rp.getName();
+            length += literals[i].length();
+            lastIndex = rp.getIndex() + rp.getToken().length();
+            i++;
+        }
+
+        literals[i] = uri.substring(Math.min(lastIndex, uri.length()));
+        length += literals[i].length();
+
+        this.literalsLength = length;
+    }
+
+    boolean hasParameters() {
+        return parameterNames.length > 0;
+    }
+
+    int getParameterCount() {
+        return parameterNames.length;
+    }
+
+    String getParameterName(int index) {
+        return parameterNames[index];
+    }
+
+    /**
+     * @return The length of the uri without any parameter tokens
+     */
+    int getLiteralsLength() {
+        return literalsLength;
+    }
+
+    /**
+     * The reversed uri of a route without parameters.
+     *
+     * @param contextPath The context path to prefix (may be null or empty)
+     * @return The uri prefixed by the context path
+     */
+    String constant(String contextPath) {
+        if (contextPath == null || contextPath.isEmpty()) {
+            return uri;
+        }
+
+        ContextPathUri cached = this.contextPathUri;
+
+        if (cached == null || !cached.contextPath.equals(contextPath)) {
+            cached = new ContextPathUri(contextPath, contextPath + uri);
+            this.contextPathUri = cached;
+        }
+
+        return cached.uri;
+    }
+
+    /**
+     * Appends the literals and the values of the parameters in the order of
+     * {@link Route#getParameters()}.
+     *
+     * @param buffer The buffer to append to
+     * @param values The values indexed like the parameters (may be null)
+     * @return The name of the first parameter without a value or null if all
+     *      values were appended
+     */
+    String appendTo(StringBuilder buffer, String[] values) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            String value = (values != null && i < values.length ? values[i] : null);
+
+            if (value == null) {
+                return parameterNames[i];
+            }
+
+            buffer.append(literals[i]);
+            buffer.append(value);
+        }
+
+        buffer.append(literals[parameterNames.length]);
+
+        return null;
+    }
+
+    static private class ContextPathUri {
+
+        private final String contextPath;
+        private final String uri;
+
+        ContextPathUri(String contextPath, String uri) {
+            this.contextPath = contextPath;
+            this.uri = uri;
+        }
+
+    }
+
+}
@@ -49,7 +49,9 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
         private final Route route;
         private String scheme;
         private String hostname;
-        private Map<String,String> pathParams;
+        // values indexed like the parameters of the route
+        private String[] pathParamValues;
+        private int pathParamCount;
         private Map<String,String> queryParams;
         
         public Builder(String contextPath, Route route) {
@@ -102,6 +104,20 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
         }
 
         public Map<String, String> getPathParams() {
+            if (this.pathParamValues == null) {
+                return null;
+            }
+            
+            Map<String,String> pathParams = new LinkedHashMap<>();
+            
+            for (int i = 0; i < this.pathParamValues.length; i++) {
+                if (this.pathParamValues[i] != null) {
+                    pathParams.put(
+                        this.route.getReverseRouteTemplate().getParameterName(i),
+                        this.pathParamValues[i]);
+                }
+            }
+            
             return pathParams;
         }
 
@@ -138,16 +154,22 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
             Objects.requireNonNull(name, "name required");
             Objects.requireNonNull(value, "value required");
 
-            if (route.getParameters() == null || !route.getParameters().containsKey(name)) {
+            int index = route.getParameterIndex(name);
+            
+            if (index < 0) {
                 throw new IllegalArgumentException("Reverse route " + route.getUri()
                     + " does not have a path parameter '" + name + "'");
             }
             
-            if (this.pathParams == null) {
-                this.pathParams = new LinkedHashMap<>();
+            if (this.pathParamValues == null) {
+                this.pathParamValues = new String[route.getParameters().size()];
+            }
+            
+            if (this.pathParamValues[index] == null) {
+                this.pathParamCount++;
             }
             
-            this.pathParams.put(name, safeValue(value, raw));
+            this.pathParamValues[index] = safeValue(value, raw);
             
             return this;
         }
@@ -212,19 +234,25 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
         public String build() {
             // number of pathOrQueryParams valid?
             int expectedParamSize = safeMapSize(this.route.getParameters());
-            int actualParamSize = safeMapSize(this.pathParams);
+            int actualParamSize = this.pathParamCount;
             if (expectedParamSize != actualParamSize) {
                 throw new IllegalArgumentException("Reverse route " + route.getUri()
                     + " requires " + expectedParamSize + " parameters but got "
                     + actualParamSize + " instead");
             }
             
-            String rawUri = this.route.getUri();
+            ReverseRouteTemplate template = this.route.getReverseRouteTemplate();
+            boolean absolute = (this.scheme != null && this.hostname != null);
             
-            StringBuilder buffer = new StringBuilder(rawUri.length());
+            // routes without parameters are reversed to a constant
+            if (!template.hasParameters() && !absolute && this.queryParams == null) {
+                return template.constant(this.contextPath);
+            }
+            
+            StringBuilder buffer = new StringBuilder(length(template, absolute));
 
             // append scheme + hostname?
-            if (this.scheme != null && this.hostname != null) {
+            if (absolute) {
                 buffer.append(this.scheme);
                 buffer.append("://");
                 buffer.append(this.hostname);
@@ -235,30 +263,12 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
                 buffer.append(this.contextPath);
             }
             
-            // replace path parameters
-            int lastIndex = 0;
+            // append literals of the uri and the path parameters
+            String missingPathParam = template.appendTo(buffer, this.pathParamValues);
             
-            if (this.pathParams != null) {
-                for (RouteParameter rp : this.route.getParameters().values()) {
-                    String value = this.pathParams.get(rp.getName());
-                    
-                    if (value == null) {
-                        throw new IllegalArgumentException("Reverse route " + route.getUri()
-                            + " missing value for path parameter '" + rp.getName() + "'");
-                    }
-                    
-                    // append any text before this token
-                    buffer.append(rawUri.substring(lastIndex, rp.getIndex()));
-                    // append value
-                    buffer.append(value);
-                    // the next index to start from
-                    lastIndex = rp.getIndex() + rp.getToken().length();
-                }
-            }
-            
-            // append whatever remains
-            if (lastIndex < rawUri.length()) {
-                buffer.append(rawUri.substring(lastIndex));
+            if (missingPathParam != null) {
+                throw new IllegalArgumentException("Reverse route " + route.getUri()
+                    + " missing value for path parameter '" + missingPathParam + "'");
             }
             
             // append queryParam pathOrQueryParams
@@ -278,6 +288,39 @@ public class ReverseRouter implements WithControllerMethod<Builder> {
             return buffer.toString();
         }
         
+        /**
+         * The exact length of the url built by <code>build()</code>, so its
+         * buffer never has to grow.
+         */
+        private int length(ReverseRouteTemplate template, boolean absolute) {
+            int length = template.getLiteralsLength();
+            
+            if (absolute) {
+                length += this.scheme.length() + 3 + this.hostname.length();
+            }
+            
+            if (this.contextPath != null) {
+                length += this.contextPath.length();
+            }
+            
+            if (this.pathParamValues != null) {
+                for (String value : this.pathParamValues) {
+                    length += (value != null ? value.length() : 0);
+                }
+            }
+            
+            if (this.queryParams != null) {
+                for (Map.Entry<String,String> entry : this.queryParams.entrySet()) {
+                    length += 1 + entry.getKey().length();
+                    if (entry.getValue() != null) {
+                        length += 1 + entry.getValue().length();
+                    }
+                }
+            }
+            
+            return length;
+        }
+        
         /**
          * Builds the result as a <code>ninja.Result</code> redirect.
          * @return A Ninja redirect result
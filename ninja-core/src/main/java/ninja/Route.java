@@ -17,7 +17,9 @@
 package ninja;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import com.google.common.collect.Maps;
@@ -53,18 +55,36 @@ public class Route {
     private final Method controllerMethod;
     private final FilterChain filterChain;
     private final Map<String,RouteParameter> parameters;
+    private final String[] parameterNames;
     private final Pattern regex;
+    private final ReverseRouteTemplate reverseRouteTemplate;
+    private final Optional<Duration> timeout;
 
     public Route(String httpMethod,
             String uri,
             Method controllerMethod,
             FilterChain filterChain) {
+        this(httpMethod, uri, controllerMethod, filterChain, Optional.empty());
+    }
+
+    /**
+     * @param timeout Every request to this route gets a {@link Deadline}
+     *      that expires after the timeout
+     */
+    public Route(String httpMethod,
+            String uri,
+            Method controllerMethod,
+            FilterChain filterChain,
+            Optional<Duration> timeout) {
         this.httpMethod = httpMethod;
         this.uri = uri;
         this.controllerMethod = controllerMethod;
         this.filterChain = filterChain;
         this.parameters = RouteParameter.parse(uri);
+        this.parameterNames = parameters.keySet().toArray(new String[0]);
         this.regex = Pattern.compile(convertRawUriToRegex(uri));
+        this.reverseRouteTemplate = new ReverseRouteTemplate(uri, parameters);
+        this.timeout = timeout;
     }
 
     /**
@@ -125,11 +145,42 @@ public class Route {
     public FilterChain getFilterChain() {
         return filterChain;
     }
+
+    /**
+     * @return The time requests to this route have to be answered in
+     */
+    public Optional<Duration> getTimeout() {
+        return timeout;
+    }
     
     public Map<String,RouteParameter> getParameters() {
         return parameters;
     }
     
+    /**
+     * The position of a named parameter in {@link #getParameters()}.
+     * 
+     * @param name The name of the parameter such as "id" in "{id: [0-9]+}"
+     * @return The index of the parameter or -1 if this route does not
+     *      declare it
+     */
+    public int getParameterIndex(String name) {
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (parameterNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    String getParameterName(int index) {
+        return parameterNames[index];
+    }
+    
+    ReverseRouteTemplate getReverseRouteTemplate() {
+        return reverseRouteTemplate;
+    }
+    
     /**
      * Matches /index to /index or /me/1 to /person/{id}
      *
@@ -145,6 +196,27 @@ public class Route {
         }
     }
 
+    /**
+     * Matches the uri against this route (ignoring the http method) and
+     * captures all path parameters in a single pass.
+     * 
+     * @param uri The whole encoded uri.
+     * @return The match or null if the uri does not match this route.
+     */
+    public RouteMatch match(String uri) {
+        Matcher matcher = matcher(uri);
+        
+        if (matcher.matches()) {
+            return RouteMatch.fromMatcher(this, matcher);
+        } else {
+            return null;
+        }
+    }
+    
+    Matcher matcher(String uri) {
+        return regex.matcher(uri);
+    }
+
     /**
      * This method does not do any decoding / encoding.
      *
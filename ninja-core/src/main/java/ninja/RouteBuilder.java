@@ -16,6 +16,7 @@
 
 package ninja;
 
+import java.time.Duration;
 import java.util.List;
 import ninja.utils.MethodReference;
 
@@ -31,6 +32,19 @@ public interface RouteBuilder extends WithControllerMethod<Void> {
     
     RouteBuilder filters(List<Class<? extends Filter>> filters);
 
+    /**
+     * Gives every request to this route a {@link Deadline}. Overrides a
+     * {@link Timeout} annotation of the controller method.
+     * 
+     * Route builders that do not support deadlines ignore the timeout.
+     * 
+     * @param timeout The time requests have to be answered in
+     * @return This route builder
+     */
+    default RouteBuilder timeout(Duration timeout) {
+        return this;
+    }
+
     void with(Class<?> controllerClass, String controllerMethod);
 
     @Deprecated
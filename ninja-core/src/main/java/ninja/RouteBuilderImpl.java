@@ -19,10 +19,12 @@ package ninja;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import ninja.params.ControllerMethodInvoker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +54,7 @@ public class RouteBuilderImpl implements RouteBuilder {
     private final NinjaProperties ninjaProperties;
     private Optional<List<Class<? extends Filter>>> globalFiltersOptional;
     private final List<Class<? extends Filter>> localFilters;
+    private Optional<Duration> timeout;
     private final NinjaBaseDirectoryResolver ninjaBaseDirectoryResolver;
 
     @Inject
@@ -64,6 +67,7 @@ public class RouteBuilderImpl implements RouteBuilder {
         this.ninjaBaseDirectoryResolver = ninjaBaseDirectoryResolver;
         this.globalFiltersOptional = Optional.empty();
         this.localFilters = Lists.newArrayList();
+        this.timeout = Optional.empty();
     }
     
     public RouteBuilderImpl GET() {
@@ -157,6 +161,12 @@ public class RouteBuilderImpl implements RouteBuilder {
         return this;
     }
 
+    @Override
+    public RouteBuilder timeout(Duration timeout) {
+        this.timeout = Optional.of(timeout);
+        return this;
+    }
+
     @Override
     public RouteBuilder route(String uri) {
         this.uri = uri;
@@ -202,8 +212,9 @@ public class RouteBuilderImpl implements RouteBuilder {
             }
 
             // make sure that the return type of that controller method
-            // is of type Result.
-            if (Result.class.isAssignableFrom(methodFromQueryingClass.getReturnType())) {
+            // is of type Result (or a CompletionStage of a Result).
+            if (Result.class.isAssignableFrom(methodFromQueryingClass.getReturnType())
+                    || CompletionStage.class.isAssignableFrom(methodFromQueryingClass.getReturnType())) {
                 return methodFromQueryingClass;
             } else {
                 throw new NoSuchMethodException();
@@ -217,7 +228,7 @@ public class RouteBuilderImpl implements RouteBuilder {
             log.error("Error in route configuration!!!");
             log.error("Can not find Controller " + controllerClass.getName()
                     + " and method " + controllerMethod);
-            log.error("Hint: make sure the controller returns a ninja.Result!");
+            log.error("Hint: make sure the controller returns a ninja.Result (or a CompletionStage of it)!");
             log.error("Hint: Ninja does not allow more than one method with the same name!");
         }
         return null;
@@ -249,7 +260,27 @@ public class RouteBuilderImpl implements RouteBuilder {
         
         FilterChain filterChain = buildFilterChain(injector, allFilters);
         
-        return new Route(httpMethod, uri, functionalMethod, filterChain);
+        return new Route(httpMethod, uri, functionalMethod, filterChain, calculateTimeout());
+    }
+    
+    private Optional<Duration> calculateTimeout() {
+        if (timeout.isPresent()) {
+            return timeout;
+        }
+        
+        // lambdas carry their annotations on the implementation method
+        Method method = implementationMethod.orElse(functionalMethod);
+        Timeout annotation = method.getAnnotation(Timeout.class);
+        
+        if (annotation == null) {
+            annotation = method.getDeclaringClass().getAnnotation(Timeout.class);
+        }
+        
+        if (annotation == null) {
+            return Optional.empty();
+        }
+        
+        return Optional.of(Duration.ofNanos(annotation.unit().toNanos(annotation.value())));
     }
     
     private List<Class<? extends Filter>> calculateGlobalFilters(
@@ -285,15 +316,20 @@ public class RouteBuilderImpl implements RouteBuilder {
         if (filters.isEmpty()) {
             
             // either target object (functional method) or guice will create new instance
+            // (singletons are only looked up once)
             Provider<?> targetProvider = (targetObject.isPresent() ?
                 Providers.of(targetObject.get())
-                    : injector.getProvider(functionalMethod.getDeclaringClass()));
+                    : SingletonProvider.of(injector, functionalMethod.getDeclaringClass()));
 
             // invoke functional method with optionally using impl for argument extraction
             ControllerMethodInvoker methodInvoker
                 = ControllerMethodInvoker.build(
                     functionalMethod, implementationMethod.orElse(functionalMethod), injector, ninjaProperties);
 
+            if (CompletionStage.class.isAssignableFrom(functionalMethod.getReturnType())) {
+                return new FilterChainEnd(targetProvider, methodInvoker, injector.getProvider(Ninja.class));
+            }
+
             return new FilterChainEnd(targetProvider, methodInvoker);
             
         } else {
@@ -301,7 +337,7 @@ public class RouteBuilderImpl implements RouteBuilder {
             Class<? extends Filter> filter = filters.pop();
             
            
-            Provider<? extends Filter> filterProvider = injector.getProvider(filter);
+            Provider<? extends Filter> filterProvider = SingletonProvider.of(injector, filter);
                         
             return new FilterChainImpl(filterProvider,buildFilterChain(injector, filters));
             
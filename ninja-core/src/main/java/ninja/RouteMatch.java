@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * The result of resolving a request to a {@link Route}. Holds the route and
+ * the encoded values of its path parameters, captured while matching. The
+ * values are indexed in the order of {@link Route#getParameters()} so
+ * nothing has to be matched again when a path parameter is requested.
+ */
+public class RouteMatch {
+
+    private final Route route;
+    private final String[] pathParameterValues;
+
+    public RouteMatch(Route route, String[] pathParameterValues) {
+        this.route = route;
+        this.pathParameterValues = pathParameterValues;
+    }
+
+    static RouteMatch fromMatcher(Route route, Matcher matcher) {
+        int count = Math.min(
+            matcher.groupCount(), route.getParameters().size());
+
+        String[] values = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = matcher.group(i + 1);
+        }
+
+        return new RouteMatch(route, values);
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    /**
+     * @return The number of captured path parameters
+     */
+    public int getPathParameterCount() {
+        return pathParameterValues.length;
+    }
+
+    /**
+     * This method does not do any decoding / encoding.
+     *
+     * @param index The index of the parameter in {@link Route#getParameters()}
+     * @return The encoded value or null if there is no such parameter
+     */
+    public String getPathParameterEncoded(int index) {
+        if (index < 0 || index >= pathParameterValues.length) {
+            return null;
+        }
+        return pathParameterValues[index];
+    }
+
+    /**
+     * This method does not do any decoding / encoding.
+     *
+     * @param name The name of the path parameter, e.g. "id" in "/user/{id}"
+     * @return The encoded value or null if there is no such parameter
+     */
+    public String getPathParameterEncoded(String name) {
+        return getPathParameterEncoded(route.getParameterIndex(name));
+    }
+
+    /**
+     * This method does not do any decoding / encoding.
+     *
+     * @return A map with all path parameters. Encoded in => encoded out.
+     */
+    public Map<String, String> getPathParametersEncoded() {
+        Map<String, String> map = new LinkedHashMap<>(pathParameterValues.length);
+
+        for (int i = 0; i < pathParameterValues.length; i++) {
+            map.put(route.getParameterName(i), pathParameterValues[i]);
+        }
+
+        return map;
+    }
+
+}
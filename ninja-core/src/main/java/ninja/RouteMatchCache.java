@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free cache of resolved routes keyed by http method and
+ * request path.
+ *
+ * The cache is a fixed size table. Every (method, path) pair maps to exactly
+ * one slot and a newer entry simply replaces the one in its slot. Reads and
+ * writes are plain atomic array accesses, so the cache never blocks and
+ * never grows beyond its size. Entries are immutable and the routes they
+ * point to are compiled once, so a cached {@link RouteMatch} can be shared
+ * between requests.
+ *
+ * Enable it by setting <code>ninja.router.cache_size</code> in your
+ * application.conf.
+ */
+public class RouteMatchCache {
+
+    /**
+     * Longer paths are resolved, but not cached. They are almost never
+     * "hot" and would only evict entries that are.
+     */
+    static final int MAX_CACHEABLE_URI_LENGTH = 512;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int mask;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * @param size The number of slots. Rounded up to the next power of two.
+     */
+    public RouteMatchCache(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size of route cache must be > 0");
+        }
+
+        int capacity = Integer.highestOneBit(Math.min(size, 1 << 30));
+        if (capacity < size) {
+            capacity <<= 1;
+        }
+
+        this.entries = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * @param httpMethod The http method
+     * @param uri The encoded request path
+     * @return The cached match or null if nothing is cached for the pair
+     */
+    public RouteMatch get(String httpMethod, String uri) {
+        Entry entry = entries.get(slot(httpMethod, uri));
+
+        if (entry != null
+                && entry.uri.equals(uri)
+                && entry.httpMethod.equals(httpMethod)) {
+            hits.increment();
+            return entry.routeMatch;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the match for the pair. Replaces whatever occupied its slot.
+     *
+     * @param httpMethod The http method
+     * @param uri The encoded request path
+     * @param routeMatch The match to cache
+     */
+    public void put(String httpMethod, String uri, RouteMatch routeMatch) {
+        if (routeMatch == null || uri.length() > MAX_CACHEABLE_URI_LENGTH) {
+            return;
+        }
+
+        entries.set(slot(httpMethod, uri), new Entry(httpMethod, uri, routeMatch));
+    }
+
+    /**
+     * @return The number of slots of this cache
+     */
+    public int getSize() {
+        return entries.length();
+    }
+
+    /**
+     * @return The number of lookups answered by this cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to resolve the route
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private int slot(String httpMethod, String uri) {
+        int hash = 31 * httpMethod.hashCode() + uri.hashCode();
+        // spread higher bits (same as java.util.HashMap)
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    static private class Entry {
+
+        private final String httpMethod;
+        private final String uri;
+        private final RouteMatch routeMatch;
+
+        Entry(String httpMethod, String uri, RouteMatch routeMatch) {
+            this.httpMethod = httpMethod;
+            this.uri = uri;
+            this.routeMatch = routeMatch;
+        }
+
+    }
+
+}
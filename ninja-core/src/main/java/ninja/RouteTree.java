@@ -0,0 +1,350 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Segment tree of compiled routes used by {@link RouterImpl} to resolve a
+ * request without running the regex of every route.
+ *
+ * Routes are indexed per http method and then per path segment. Static
+ * segments are resolved via hash lookups and plain "{param}" segments match
+ * any single segment. As soon as a route contains a segment that needs a
+ * real regex (e.g. "{id: [0-9]+}" or "robots\\.txt") the route is attached
+ * to the deepest static node in front of that segment and is verified with
+ * its full regex when the lookup passes that node.
+ *
+ * Every route remembers its position in the routes file. The lookup always
+ * returns the matching route that was declared first - exactly like a
+ * linear scan would do. Subtrees that only contain routes declared after
+ * the best match found so far are skipped.
+ */
+final class RouteTree {
+
+    private static final String REGEX_META_CHARS = "\\.[]{}()*+?^$|";
+    private static final String QUANTIFIER_CHARS = "?*+";
+
+    private final Map<String, Node> methods;
+
+    RouteTree(List<Route> routes) {
+        this.methods = new HashMap<>();
+
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            String method = route.getHttpMethod().toUpperCase(Locale.ENGLISH);
+            Node root = methods.computeIfAbsent(method, m -> new Node());
+            add(root, new Entry(i, route));
+        }
+    }
+
+    /**
+     * Resolves the route for the given method and uri.
+     *
+     * @param httpMethod The http method (case insensitive)
+     * @param uri The encoded request path
+     * @return The first declared route matching or null if none matches
+     */
+    Route find(String httpMethod, String uri) {
+        Lookup lookup = lookup(httpMethod, uri);
+
+        return lookup != null ? lookup.best.route : null;
+    }
+
+    /**
+     * Resolves the route for the given method and uri together with the
+     * encoded values of its path parameters.
+     *
+     * @param httpMethod The http method (case insensitive)
+     * @param uri The encoded request path
+     * @return The match of the first declared route or null if none matches
+     */
+    RouteMatch match(String httpMethod, String uri) {
+        Lookup lookup = lookup(httpMethod, uri);
+
+        if (lookup == null) {
+            return null;
+        }
+
+        Entry best = lookup.best;
+
+        if (lookup.matcher != null) {
+            // regex routes captured their values while matching
+            return RouteMatch.fromMatcher(best.route, lookup.matcher);
+        }
+
+        String[] values = new String[Math.min(
+            best.parameterSegments.length, best.route.getParameters().size())];
+
+        if (values.length > 0) {
+            // parameters of tree routes are always complete segments
+            int segment = 0;
+            int parameter = 0;
+            int offset = 1;
+            while (parameter < values.length) {
+                int end = uri.indexOf('/', offset);
+                if (end < 0) {
+                    end = uri.length();
+                }
+                if (best.parameterSegments[parameter] == segment) {
+                    values[parameter++] = uri.substring(offset, end);
+                }
+                segment++;
+                offset = end + 1;
+            }
+        }
+
+        return new RouteMatch(best.route, values);
+    }
+
+    private Lookup lookup(String httpMethod, String uri) {
+        if (httpMethod == null || uri == null) {
+            return null;
+        }
+
+        Node root = methods.get(httpMethod.toUpperCase(Locale.ENGLISH));
+
+        if (root == null) {
+            return null;
+        }
+
+        Lookup lookup = new Lookup(uri);
+
+        if (uri.isEmpty() || uri.charAt(0) != '/') {
+            // only routes that are a regex right from the start can match
+            matchRegexEntries(root, lookup);
+        } else {
+            find(root, 1, lookup);
+        }
+
+        return lookup.best != null ? lookup : null;
+    }
+
+    private void find(Node node, int offset, Lookup lookup) {
+        if (lookup.best != null && node.minIndex >= lookup.best.index) {
+            // nothing declared before the current best lives in this subtree
+            return;
+        }
+
+        matchRegexEntries(node, lookup);
+
+        String uri = lookup.uri;
+
+        if (offset > uri.length()) {
+            // all segments consumed
+            if (node.terminal != null && lookup.isBetter(node.terminal)) {
+                lookup.best = node.terminal;
+                lookup.matcher = null;
+            }
+            return;
+        }
+
+        int end = uri.indexOf('/', offset);
+        if (end < 0) {
+            end = uri.length();
+        }
+
+        if (!node.staticChildren.isEmpty()) {
+            Node child = node.staticChildren.get(uri.substring(offset, end));
+            if (child != null) {
+                find(child, end + 1, lookup);
+            }
+        }
+
+        if (node.parameterChild != null) {
+            find(node.parameterChild, end + 1, lookup);
+        }
+    }
+
+    private void matchRegexEntries(Node node, Lookup lookup) {
+        // regex entries are sorted by declaration, first match wins
+        for (Entry entry : node.regexEntries) {
+            if (!lookup.isBetter(entry)) {
+                return;
+            }
+            Matcher matcher = entry.route.matcher(lookup.uri);
+            if (matcher.matches()) {
+                lookup.best = entry;
+                lookup.matcher = matcher;
+                return;
+            }
+        }
+    }
+
+    private static void add(Node root, Entry entry) {
+        String uri = entry.route.getUri();
+
+        root.minIndex = Math.min(root.minIndex, entry.index);
+
+        if (uri.isEmpty()
+                || uri.charAt(0) != '/'
+                || hasAlternationOutsideOfParameters(uri)) {
+            root.regexEntries.add(entry);
+            return;
+        }
+
+        List<String> segments = splitIntoSegments(uri);
+
+        List<Node> path = new ArrayList<>(segments.size() + 1);
+        path.add(root);
+        Node node = root;
+        List<Integer> parameterSegments = new ArrayList<>();
+
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (isParameterSegment(segment)) {
+                if (node.parameterChild == null) {
+                    node.parameterChild = new Node();
+                }
+                node = node.parameterChild;
+                parameterSegments.add(i);
+            } else if (isStaticSegment(segment)) {
+                node = node.staticChildren.computeIfAbsent(segment, s -> new Node());
+            } else {
+                // a quantifier right after the slash makes the slash (and
+                // therefore the segment boundary) optional
+                Node regexNode = node;
+                if (QUANTIFIER_CHARS.indexOf(segment.charAt(0)) >= 0
+                        && path.size() > 1) {
+                    regexNode = path.get(path.size() - 2);
+                }
+                regexNode.regexEntries.add(entry);
+                regexNode.minIndex = Math.min(regexNode.minIndex, entry.index);
+                return;
+            }
+
+            node.minIndex = Math.min(node.minIndex, entry.index);
+            path.add(node);
+        }
+
+        if (node.terminal == null) {
+            // first declaration wins
+            entry.parameterSegments
+                = parameterSegments.stream().mapToInt(Integer::intValue).toArray();
+            node.terminal = entry;
+        }
+    }
+
+    /**
+     * Splits "/user/{id: [0-9]+}/email" into "user", "{id: [0-9]+}" and "email".
+     * Slashes inside of parameter declarations do not split the uri.
+     */
+    static List<String> splitIntoSegments(String uri) {
+        List<String> segments = new ArrayList<>();
+
+        int depth = 0;
+        int start = 1;
+
+        for (int i = 1; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '/' && depth == 0) {
+                segments.add(uri.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        segments.add(uri.substring(start));
+
+        return segments;
+    }
+
+    static boolean isStaticSegment(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(segment.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isParameterSegment(String segment) {
+        Matcher matcher = Route.PATTERN_FOR_VARIABLE_PARTS_OF_ROUTE.matcher(segment);
+
+        // only the plain "{name}" form which is matched by "[^/]*"
+        return matcher.matches()
+            && matcher.group(3) == null
+            && matcher.group(1).indexOf('{') < 0
+            && matcher.group(1).indexOf('}') < 0;
+    }
+
+    static private boolean hasAlternationOutsideOfParameters(String uri) {
+        int depth = 0;
+
+        for (int i = 0; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth = Math.max(0, depth - 1);
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static private class Entry {
+
+        private final int index;
+        private final Route route;
+        // indexes of the segments holding the path parameters
+        private int[] parameterSegments;
+
+        Entry(int index, Route route) {
+            this.index = index;
+            this.route = route;
+        }
+
+    }
+
+    static private class Lookup {
+
+        private final String uri;
+        private Entry best;
+        private Matcher matcher;
+
+        Lookup(String uri) {
+            this.uri = uri;
+        }
+
+        boolean isBetter(Entry entry) {
+            return best == null || entry.index < best.index;
+        }
+
+    }
+
+    static private class Node {
+
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private final List<Entry> regexEntries = new ArrayList<>();
+        private Node parameterChild;
+        private Entry terminal;
+        private int minIndex = Integer.MAX_VALUE;
+
+    }
+
+}
@@ -35,6 +35,30 @@ public interface Router {
      */
     public Route getRouteFor(String httpMethod, String uri);
     
+    /**
+     * Get the route for the given method and URI together with the values
+     * of its path parameters. The parameters are captured while matching so
+     * the URI does not have to be matched again later on.
+     * 
+     * @param httpMethod
+     *            The method
+     * @param uri
+     *            The URI
+     * @return The route match or null if no route matches
+     */
+    public default RouteMatch getRouteMatchFor(String httpMethod, String uri) {
+        // routers that do not capture parameters match the URI once more
+        Route route = getRouteFor(httpMethod, uri);
+        
+        if (route == null) {
+            return null;
+        }
+        
+        RouteMatch routeMatch = route.match(uri);
+        
+        return routeMatch != null ? routeMatch : new RouteMatch(route, new String[0]);
+    }
+    
     /**
      * Retrieves the reverse route for this controllerClass and method.
      * Does not work with routes that contain placeholders.
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import ninja.utils.MethodReference;
+import ninja.utils.NinjaConstant;
 import ninja.utils.NinjaProperties;
 
 import org.slf4j.Logger;
@@ -44,6 +45,10 @@ public class RouterImpl implements Router {
     private final Injector injector;
     private final WebSockets webSockets;
     private List<Route> routes;
+    // for fast route lookups
+    private RouteTree routeTree;
+    // optional cache for hot (method, path) pairs
+    private RouteMatchCache routeMatchCache;
     // for fast reverse route lookups
     private Map<MethodReference,Route> reverseRoutes;
     private final Provider<RouteBuilderImpl> routeBuilderImplProvider;
@@ -66,14 +71,43 @@ public class RouterImpl implements Router {
                     "Attempt to get route when routes not compiled");
         }
 
-        for (Route route : routes) {
-            if (route.matches(httpMethod, uri)) {
-                return route;
-            }
+        if (routeMatchCache != null) {
+            RouteMatch routeMatch = getRouteMatchFor(httpMethod, uri);
+            return routeMatch != null ? routeMatch.getRoute() : null;
+        }
+
+        return routeTree.find(httpMethod, uri);
+
+    }
+
+    @Override
+    public RouteMatch getRouteMatchFor(String httpMethod, String uri) {
+        if (routes == null) {
+            throw new IllegalStateException(
+                    "Attempt to get route when routes not compiled");
+        }
+
+        if (routeMatchCache == null || httpMethod == null || uri == null) {
+            return routeTree.match(httpMethod, uri);
+        }
+
+        RouteMatch routeMatch = routeMatchCache.get(httpMethod, uri);
+
+        if (routeMatch == null) {
+            routeMatch = routeTree.match(httpMethod, uri);
+            routeMatchCache.put(httpMethod, uri, routeMatch);
         }
 
-        return null;
+        return routeMatch;
+
+    }
 
+    /**
+     * @return The cache of resolved routes or empty if it is not enabled via
+     *      {@link NinjaConstant#NINJA_ROUTER_CACHE_SIZE}.
+     */
+    public Optional<RouteMatchCache> getRouteMatchCache() {
+        return Optional.ofNullable(routeMatchCache);
     }
 
     @Override
@@ -194,6 +228,18 @@ public class RouterImpl implements Router {
         
         this.routes = ImmutableList.copyOf(routesLocal);
         
+        // compile segment tree for lookups independent of the number of routes
+        this.routeTree = new RouteTree(this.routes);
+        
+        Integer routeMatchCacheSize = ninjaProperties.getIntegerWithDefault(
+            NinjaConstant.NINJA_ROUTER_CACHE_SIZE, 0);
+        
+        if (routeMatchCacheSize != null && routeMatchCacheSize > 0) {
+            this.routeMatchCache = new RouteMatchCache(routeMatchCacheSize);
+            logger.info("Caching up to {} resolved routes", routeMatchCache.getSize());
+        }
+        
+        
         // compile reverse routes for O(1) lookups
         this.reverseRoutes = new HashMap<>(this.routes.size());
         
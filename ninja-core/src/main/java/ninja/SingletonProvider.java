@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+/**
+ * Provider for filters and controllers of a route. Guice is asked once for
+ * instances of singleton scoped bindings. The instance is then handed out
+ * directly for the following requests. Any other scope is left to guice.
+ */
+class SingletonProvider<T> implements Provider<T> {
+
+    private final Provider<T> provider;
+    private volatile T instance;
+
+    private SingletonProvider(Provider<T> provider) {
+        this.provider = provider;
+    }
+
+    /**
+     * @param injector The injector of the application
+     * @param clazz The class of the filter or controller
+     * @return A provider that resolves singletons only once or the provider
+     *      of guice if the class is not a singleton
+     */
+    static <T> Provider<T> of(Injector injector, Class<T> clazz) {
+        Provider<T> provider = injector.getProvider(clazz);
+        Binding<T> binding = injector.getBinding(clazz);
+
+        if (binding != null && Scopes.isSingleton(binding)) {
+            return new SingletonProvider<>(provider);
+        }
+
+        return provider;
+    }
+
+    @Override
+    public T get() {
+        T result = instance;
+
+        // not resolved at startup: singletons are created lazily by guice
+        // in development stage and may depend on the lifecycle
+        if (result == null) {
+            result = provider.get();
+            instance = result;
+        }
+
+        return result;
+    }
+
+}
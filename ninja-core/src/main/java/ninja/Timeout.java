@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every request to a controller method (or to all methods of a
+ * controller class) a {@link Deadline}. An annotation on the method wins over
+ * one on the class, {@link RouteBuilder#timeout(java.time.Duration)} wins over
+ * both.
+ * 
+ * Requests whose deadline expires while they still wait for the controller
+ * executor, or while their CompletionStage is pending, are answered with a
+ * 503. A controller method that already runs is not stopped: its late result
+ * is sent and reported via {@link NinjaDefault#onDeadlineMissed}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Timeout {
+    
+    long value();
+    
+    TimeUnit unit() default TimeUnit.SECONDS;
+    
+}
@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import ninja.session.FlashScope;
 import ninja.session.Session;
@@ -178,6 +180,11 @@ public class WrappedContext implements Context {
         return wrapped.parseBody(classOfT);
     }
 
+    @Override
+    public <T> Stream<T> parseBodyAsStream(Class<T> classOfT) {
+        return wrapped.parseBodyAsStream(classOfT);
+    }
+
     @Override
     public boolean isAsync() {
         return wrapped.isAsync();
@@ -233,6 +240,11 @@ public class WrappedContext implements Context {
         return wrapped.getRoute();
     }
 
+    @Override
+    public Optional<Deadline> getDeadline() {
+        return wrapped.getDeadline();
+    }
+
     @Override
     public boolean isMultipart() {
         return wrapped.isMultipart();
@@ -243,6 +255,11 @@ public class WrappedContext implements Context {
         return wrapped.getFileItemIterator();
     }
 
+    @Override
+    public FileItemIterator getStreamingFileItemIterator() {
+        return wrapped.getStreamingFileItemIterator();
+    }
+
     @Override
     public String getRequestPath() {
         return wrapped.getRequestPath();
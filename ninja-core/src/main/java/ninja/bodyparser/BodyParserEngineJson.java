@@ -18,6 +18,8 @@ package ninja.bodyparser;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -27,6 +29,13 @@ import ninja.exceptions.BadRequestException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Built in Json body parser.
@@ -36,18 +45,22 @@ import java.io.InputStream;
  * @see ninja.bodyparser.BodyParserEngine
  */
 @Singleton
-public class BodyParserEngineJson implements BodyParserEngine {
+public class BodyParserEngineJson implements StreamingBodyParserEngine {
 
     private final ObjectMapper objectMapper;
 
+    // readers resolve the deserializer of their type once and are immutable
+    private final ConcurrentMap<Class<?>, ObjectReader> objectReaders;
+
     @Inject
     public BodyParserEngineJson(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
+        this.objectReaders = new ConcurrentHashMap<>();
     }
 
     public <T> T invoke(Context context, Class<T> classOfT) {
         try (InputStream inputStream = context.getInputStream()) {
-            return objectMapper.readValue(inputStream, classOfT);
+            return getObjectReader(classOfT).readValue(inputStream);
         } catch (JsonParseException | JsonMappingException ex) {
             throw new BadRequestException("Error parsing incoming Json", ex);
         } catch (IOException e) {
@@ -55,8 +68,81 @@ public class BodyParserEngineJson implements BodyParserEngine {
         }
     }
 
+    /**
+     * Decodes the elements of a Json array, or Json values separated by
+     * whitespace (e.g. newline delimited Json), one at a time.
+     */
+    @Override
+    public <T> Stream<T> invokeAsStream(Context context, Class<T> classOfT) {
+        MappingIterator<T> iterator;
+
+        try {
+            iterator = getObjectReader(classOfT).readValues(context.getInputStream());
+        } catch (JsonParseException | JsonMappingException ex) {
+            throw new BadRequestException("Error parsing incoming Json", ex);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid Json document", e);
+        }
+
+        return StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(
+                new BadRequestIterator<>(iterator), Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    iterator.close();
+                } catch (IOException e) {
+                    // body is gone anyway
+                }
+            });
+    }
+
+    /**
+     * @param classOfT The type to read
+     * @return The cached reader of the type
+     */
+    ObjectReader getObjectReader(Class<?> classOfT) {
+        ObjectReader objectReader = objectReaders.get(classOfT);
+
+        if (objectReader == null) {
+            objectReader = objectReaders.computeIfAbsent(classOfT, objectMapper::readerFor);
+        }
+
+        return objectReader;
+    }
+
     public String getContentType() {
         return ContentTypes.APPLICATION_JSON;
     }
 
+    /**
+     * Turns parsing errors of elements into a bad request.
+     */
+    private static class BadRequestIterator<T> implements Iterator<T> {
+
+        private final MappingIterator<T> iterator;
+
+        BadRequestIterator(MappingIterator<T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return iterator.hasNextValue();
+            } catch (IOException e) {
+                throw new BadRequestException("Error parsing incoming Json", e);
+            }
+        }
+
+        @Override
+        public T next() {
+            try {
+                return iterator.nextValue();
+            } catch (IOException e) {
+                throw new BadRequestException("Error parsing incoming Json", e);
+            }
+        }
+
+    }
+
 }
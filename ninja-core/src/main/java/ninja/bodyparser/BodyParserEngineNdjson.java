@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.bodyparser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import ninja.ContentTypes;
+
+/**
+ * Built in newline delimited Json body parser. Best used with
+ * {@link ninja.Context#parseBodyAsStream(Class)}, which decodes one line
+ * after the other.
+ *
+ * @see ninja.bodyparser.BodyParserEngineJson
+ */
+@Singleton
+public class BodyParserEngineNdjson extends BodyParserEngineJson {
+
+    @Inject
+    public BodyParserEngineNdjson(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public String getContentType() {
+        return ContentTypes.APPLICATION_NDJSON;
+    }
+
+}
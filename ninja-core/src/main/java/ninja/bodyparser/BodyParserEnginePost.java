@@ -18,10 +18,14 @@ package ninja.bodyparser;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import ninja.ContentTypes;
 import ninja.Context;
@@ -33,7 +37,6 @@ import ninja.params.ParamParsers.ListParamParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -44,9 +47,13 @@ public class BodyParserEnginePost implements BodyParserEngine {
 
     private final ParamParsers paramParsers;
 
+    // binding plans are computed once per class, the first time it is bound
+    private final ConcurrentMap<Class<?>, BindingPlan> bindingPlans;
+
     @Inject
     public BodyParserEnginePost(ParamParsers paramParsers) {
         this.paramParsers = paramParsers;
+        this.bindingPlans = new ConcurrentHashMap<>();
     }
     
     @Override
@@ -54,11 +61,11 @@ public class BodyParserEnginePost implements BodyParserEngine {
         // Grab parameters from context only once for efficiency
         Map<String, String[]> parameters = context.getParameters();
         
-        return invoke(context, parameters, classOfT, "");
+        return invoke(context, new Parameters(parameters), classOfT, "");
     }
     
     // Allows to instantiate inner objects with a prefix for each parameter key
-    private <T> T invoke(Context context, Map<String, String[]> parameters, Class<T> classOfT, String paramPrefix) {
+    private <T> T invoke(Context context, Parameters parameters, Class<T> classOfT, String paramPrefix) {
         
         T t = null;
 
@@ -69,104 +76,228 @@ public class BodyParserEnginePost implements BodyParserEngine {
             return null;
         }
 
-        for (String declaredField : getAllDeclaredFieldsAsStringSet(classOfT)) {
-
-            try {
-
-                Field field = classOfT.getDeclaredField(declaredField);
-                Class<?> fieldType = field.getType();
-                field.setAccessible(true);
-
-                if (parameters.containsKey(paramPrefix + declaredField)) {
-                    
-                    String[] values = parameters.get(paramPrefix + declaredField);
+        for (FieldBinding binding : getBindingPlan(classOfT).fieldBindings) {
 
-                    if (Collection.class.isAssignableFrom(fieldType) || List.class.isAssignableFrom(fieldType)) {
+            String key = paramPrefix.isEmpty() ? binding.name : paramPrefix + binding.name;
 
-                        ListParamParser<?> parser = (ListParamParser<?>) paramParsers.getListParser(getGenericType(field));
-                        if (parser == null) {
-                            logger.warn("No parser defined for a collection of type {}", getGenericType(field).getCanonicalName());
-                        } else {
-                            field.set(t, parser.parseParameter(field.getName(), values, context.getValidation()));
-                        }
+            try {
 
-                    } else if (fieldType.isArray()) {
+                String[] values = parameters.values.get(key);
 
-                        ArrayParamParser<?> parser = paramParsers.getArrayParser(fieldType);
-                        if (parser == null) {
-                            logger.warn("No parser defined for an array of type {}", fieldType.getComponentType().getCanonicalName());
-                        } else {
-                            field.set(t, parser.parseParameter(field.getName(), values, context.getValidation()));
-                        }
+                if (values != null || parameters.values.containsKey(key)) {
 
-                    } else {
+                    binding.bind(t, values, context);
 
-                        ParamParser<?> parser = (ParamParser<?>) paramParsers.getParamParser(fieldType);
-                        if (parser == null) {
-                            logger.warn("No parser defined for type {}", fieldType.getCanonicalName());
-                        } else {
-                            field.set(t, parser.parseParameter(field.getName(), values[0], context.getValidation()));
-                        }
+                } else if (parameters.hasNonEmptyValueWithPrefix(key + ".")) {
 
-                    }
+                    // One parameter key corresponds to one valued inner attribute of this object field
+                    binding.field.set(t, invoke(context, parameters, binding.field.getType(), key + "."));
 
-                } else {
-                    
-                    // Check if we have one parameter key corresponding to one valued inner attribute of this object field
-                    for (String parameter : parameters.keySet()) {
-                        if(parameter.startsWith(paramPrefix + declaredField + ".")) {
-                            if(isEmptyParameter(parameters.get(parameter))) {
-                                field.set(t, invoke(context, parameters, fieldType, paramPrefix + declaredField + "."));
-                                break;
-                            }
-                        }
-                    }
-                    
                 }
 
-            } catch (NoSuchFieldException 
-                    | SecurityException 
-                    | IllegalArgumentException 
+            } catch (IllegalArgumentException 
                     | IllegalAccessException e) {
 
                 logger.warn(
                         "Error parsing incoming Post request into class {}. Key {} and value {}.", 
-                        classOfT.getName(), paramPrefix + declaredField, parameters.get(paramPrefix + declaredField), e);
+                        classOfT.getName(), key, parameters.values.get(key), e);
             }
 
         }
         return t;
     }
-    
-    private boolean isEmptyParameter(String[] parameterValues) {
-        if(parameterValues != null && parameterValues.length > 0) {
-            for(String parameterValue : parameterValues) {
-                if(parameterValue != null && !parameterValue.isEmpty()) {
-                    return true;
+
+    public String getContentType() {
+        return ContentTypes.APPLICATION_POST_FORM;
+    }
+
+    /**
+     * The fields of a class together with the parsers resolved for them.
+     * Computed once per class and shared between requests.
+     */
+    BindingPlan getBindingPlan(Class<?> clazz) {
+        BindingPlan bindingPlan = bindingPlans.get(clazz);
+
+        if (bindingPlan == null) {
+            bindingPlan = bindingPlans.computeIfAbsent(clazz, this::createBindingPlan);
+        }
+
+        return bindingPlan;
+    }
+
+    private BindingPlan createBindingPlan(Class<?> clazz) {
+        Field[] declaredFields = clazz.getDeclaredFields();
+        FieldBinding[] fieldBindings = new FieldBinding[declaredFields.length];
+
+        for (int i = 0; i < declaredFields.length; i++) {
+            Field field = declaredFields[i];
+            field.setAccessible(true);
+            fieldBindings[i] = createFieldBinding(field);
+        }
+
+        return new BindingPlan(fieldBindings);
+    }
+
+    private FieldBinding createFieldBinding(Field field) {
+        Class<?> fieldType = field.getType();
+
+        if (Collection.class.isAssignableFrom(fieldType) || List.class.isAssignableFrom(fieldType)) {
+
+            Class<?> genericType = getGenericType(field);
+            ListParamParser<?> parser = genericType != null ? paramParsers.getListParser(genericType) : null;
+            String missingParser = "No parser defined for a collection of type "
+                    + (genericType != null ? genericType.getCanonicalName() : fieldType.getCanonicalName());
+
+            return new FieldBinding(field, missingParser) {
+                @Override
+                Object parse(String[] values, Context context) {
+                    return parser.parseParameter(field.getName(), values, context.getValidation());
+                }
+                @Override
+                boolean hasParser() {
+                    return parser != null;
+                }
+            };
+
+        } else if (fieldType.isArray()) {
+
+            ArrayParamParser<?> parser = paramParsers.getArrayParser(fieldType);
+            String missingParser = "No parser defined for an array of type "
+                    + fieldType.getComponentType().getCanonicalName();
+
+            return new FieldBinding(field, missingParser) {
+                @Override
+                Object parse(String[] values, Context context) {
+                    return parser.parseParameter(field.getName(), values, context.getValidation());
+                }
+                @Override
+                boolean hasParser() {
+                    return parser != null;
+                }
+            };
+
+        } else {
+
+            ParamParser<?> parser = paramParsers.getParamParser(fieldType);
+            String missingParser = "No parser defined for type " + fieldType.getCanonicalName();
+
+            return new FieldBinding(field, missingParser) {
+                @Override
+                Object parse(String[] values, Context context) {
+                    return parser.parseParameter(field.getName(), values[0], context.getValidation());
+                }
+                @Override
+                boolean hasParser() {
+                    return parser != null;
                 }
+            };
+
+        }
+    }
+
+    private Class<?> getGenericType(Field field) {
+        Type genericType = field.getGenericType();
+
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
             }
         }
-        return false;
+
+        return null;
     }
 
-    public String getContentType() {
-        return ContentTypes.APPLICATION_POST_FORM;
+    static class BindingPlan {
+
+        private final FieldBinding[] fieldBindings;
+
+        BindingPlan(FieldBinding[] fieldBindings) {
+            this.fieldBindings = fieldBindings;
+        }
+
+        int getFieldCount() {
+            return fieldBindings.length;
+        }
+
     }
 
-    private <T> Set<String> getAllDeclaredFieldsAsStringSet(Class<T> clazz) {
+    private abstract class FieldBinding {
 
-        Set<String> declaredFields = Sets.newHashSet();
+        private final Field field;
+        private final String name;
+        private final String missingParser;
 
-        for (Field field : clazz.getDeclaredFields()) {
-            declaredFields.add(field.getName());
+        FieldBinding(Field field, String missingParser) {
+            this.field = field;
+            this.name = field.getName();
+            this.missingParser = missingParser;
         }
 
-        return declaredFields;
+        abstract boolean hasParser();
+
+        abstract Object parse(String[] values, Context context);
+
+        void bind(Object target, String[] values, Context context) throws IllegalAccessException {
+            if (!hasParser()) {
+                logger.warn(missingParser);
+            } else {
+                field.set(target, parse(values, context));
+            }
+        }
 
     }
 
-    private Class<?> getGenericType(Field field) {
-        ParameterizedType genericType = (ParameterizedType) field.getGenericType();
-        return (Class<?>) genericType.getActualTypeArguments()[0];
+    /**
+     * The parameters of a request. Knows which prefixes of the parameter keys
+     * ("user." and "user.address." for "user.address.street") carry at least
+     * one non-empty value, so inner objects are found without scanning all
+     * keys for every field. The index is built on first use.
+     */
+    private static class Parameters {
+
+        private final Map<String, String[]> values;
+        private Set<String> nonEmptyPrefixes;
+
+        Parameters(Map<String, String[]> values) {
+            this.values = values;
+        }
+
+        boolean hasNonEmptyValueWithPrefix(String prefix) {
+            if (nonEmptyPrefixes == null) {
+                nonEmptyPrefixes = indexNonEmptyPrefixes(values);
+            }
+            return nonEmptyPrefixes.contains(prefix);
+        }
+
+        private static Set<String> indexNonEmptyPrefixes(Map<String, String[]> values) {
+            Set<String> prefixes = new HashSet<>();
+
+            for (Map.Entry<String, String[]> entry : values.entrySet()) {
+                String key = entry.getKey();
+
+                if (key == null || key.indexOf('.') < 0 || !isNotEmpty(entry.getValue())) {
+                    continue;
+                }
+
+                for (int i = key.indexOf('.'); i >= 0; i = key.indexOf('.', i + 1)) {
+                    prefixes.add(key.substring(0, i + 1));
+                }
+            }
+
+            return prefixes;
+        }
+
+        private static boolean isNotEmpty(String[] parameterValues) {
+            if (parameterValues != null) {
+                for (String parameterValue : parameterValues) {
+                    if (parameterValue != null && !parameterValue.isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
     }
 }
@@ -18,6 +18,7 @@ package ninja.bodyparser;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -26,6 +27,9 @@ import ninja.Context;
 import ninja.exceptions.BadRequestException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Built in Xml body parser.
@@ -39,14 +43,18 @@ public class BodyParserEngineXml implements BodyParserEngine {
 
     private final XmlMapper xmlMapper;
 
+    // readers resolve the deserializer of their type once and are immutable
+    private final ConcurrentMap<Class<?>, ObjectReader> objectReaders;
+
     @Inject
     public BodyParserEngineXml(XmlMapper xmlMapper) {
         this.xmlMapper = xmlMapper;
+        this.objectReaders = new ConcurrentHashMap<>();
     }
 
     public <T> T invoke(Context context, Class<T> classOfT) {
-        try {
-            return xmlMapper.readValue(context.getInputStream(), classOfT);
+        try (InputStream inputStream = context.getInputStream()) {
+            return getObjectReader(classOfT).readValue(inputStream);
         } catch (JsonParseException | JsonMappingException e) {
             throw new BadRequestException("Error parsing incoming Xml", e);
         } catch (IOException e) {
@@ -54,6 +62,20 @@ public class BodyParserEngineXml implements BodyParserEngine {
         }
     }
 
+    /**
+     * @param classOfT The type to read
+     * @return The cached reader of the type
+     */
+    ObjectReader getObjectReader(Class<?> classOfT) {
+        ObjectReader objectReader = objectReaders.get(classOfT);
+
+        if (objectReader == null) {
+            objectReader = objectReaders.computeIfAbsent(classOfT, xmlMapper::readerFor);
+        }
+
+        return objectReader;
+    }
+
     public String getContentType() {
         return ContentTypes.APPLICATION_XML;
     }
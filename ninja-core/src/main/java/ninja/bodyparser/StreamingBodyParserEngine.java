@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.bodyparser;
+
+import java.util.stream.Stream;
+
+import ninja.Context;
+
+/**
+ * A {@link BodyParserEngine} that can decode a request body holding many
+ * objects one after another, without reading the whole body into memory.
+ * 
+ * @see Context#parseBodyAsStream(Class)
+ */
+public interface StreamingBodyParserEngine extends BodyParserEngine {
+
+    /**
+     * Invoke the parser and get back a lazy stream of Java objects. Each
+     * element is decoded when the stream asks for it.
+     * 
+     * MUST BE THREAD SAFE TO CALL!
+     * 
+     * @param context The context
+     * @param classOfT The class of the elements
+     * @return The stream of elements. Closing it closes the request body.
+     */
+    <T> Stream<T> invokeAsStream(Context context, Class<T> classOfT);
+
+}
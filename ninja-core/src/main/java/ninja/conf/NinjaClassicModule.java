@@ -27,6 +27,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Singleton;
 import com.google.inject.multibindings.OptionalBinder;
 import ninja.bodyparser.BodyParserEngineJson;
+import ninja.bodyparser.BodyParserEngineNdjson;
 import ninja.bodyparser.BodyParserEngineMultipartPost;
 import ninja.bodyparser.BodyParserEnginePost;
 import ninja.bodyparser.BodyParserEngineXml;
@@ -112,6 +113,7 @@ public class NinjaClassicModule extends AbstractModule {
             bind(TemplateEngineJson.class);
             bind(TemplateEngineJsonP.class);
             bind(BodyParserEngineJson.class);
+            bind(BodyParserEngineNdjson.class);
         }
         
         // Jackson xml support
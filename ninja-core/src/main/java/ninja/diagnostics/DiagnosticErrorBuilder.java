@@ -89,6 +89,16 @@ public class DiagnosticErrorBuilder {
             null, false, null);
     }
     
+    static public DiagnosticError build503ServiceUnavailableDiagnosticError(
+            Throwable cause,
+            boolean tryToReadLinesFromSourceCode) {
+
+        return buildDiagnosticError(
+            "Service unavailable",
+            cause,
+            tryToReadLinesFromSourceCode, null);
+    }
+    
     static public DiagnosticError build500InternalServerErrorDiagnosticError(
             Throwable cause,
             boolean tryToReadLinesFromSourceCode,
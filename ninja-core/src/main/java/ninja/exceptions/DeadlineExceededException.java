@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.exceptions;
+
+/**
+ * Signals that a request missed its deadline (see ninja.Timeout). Rendered
+ * like any other {@link ServiceUnavailableException} as html error 503.
+ * 
+ * Thrown by ninja.Deadline#check() and by Ninja itself when a deadline
+ * expires.
+ * 
+ */
+public class DeadlineExceededException extends ServiceUnavailableException {  
+    
+    final static String DEFAULT_MESSAGE = "That request took too long and all we know.";
+    
+    public DeadlineExceededException() {
+        super(DEFAULT_MESSAGE);
+    }
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+   
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public DeadlineExceededException(Throwable cause) {
+        super(DEFAULT_MESSAGE, cause);
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.exceptions;
+
+import ninja.Result;
+
+/**
+ * A convenience unchecked exception. 
+ * Allows you to wrap any exception (checked or unchecked) and throw it.
+ * 
+ * Should signal a html error 503 (the server is overloaded and the client
+ * should try again later).
+ * 
+ * Thrown by Ninja itself when a request cannot be accepted, for instance
+ * because the queue of the controller executor is full.
+ * 
+ * Ninja is supposed to pick it up and render an appropriate error page.
+ * 
+ */
+public class ServiceUnavailableException extends NinjaException {  
+    
+    final static String DEFAULT_MESSAGE = "That's an overloaded server and all we know.";
+    
+    public ServiceUnavailableException() {
+        super(Result.SC_503_SERVICE_UNAVAILABLE, DEFAULT_MESSAGE);
+    }
+
+    public ServiceUnavailableException(String message) {
+        super(Result.SC_503_SERVICE_UNAVAILABLE, message);
+    }
+   
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(Result.SC_503_SERVICE_UNAVAILABLE, message, cause);
+    }
+
+    public ServiceUnavailableException(Throwable cause) {
+        super(Result.SC_503_SERVICE_UNAVAILABLE, DEFAULT_MESSAGE, cause);
+    }
+}
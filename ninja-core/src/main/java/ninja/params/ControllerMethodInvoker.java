@@ -17,9 +17,13 @@
 package ninja.params;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.List;
@@ -48,7 +52,13 @@ public class ControllerMethodInvoker {
     
     private final static Logger logger = LoggerFactory.getLogger(ControllerMethodInvoker.class);
     
+    // (Object controller, Object[] arguments)Object
+    private static final MethodType INVOKER_TYPE
+            = MethodType.methodType(Object.class, Object.class, Object[].class);
+    
     private final Method method;
+    // null if the method is not accessible for method handles
+    private final MethodHandle methodHandle;
     private final ArgumentExtractor<?>[] argumentExtractors;
     private final boolean useStrictArgumentExtractors;
     
@@ -59,6 +69,7 @@ public class ControllerMethodInvoker {
             ArgumentExtractor<?>[] argumentExtractors,
             boolean useStrictArgumentExtractors) {
         this.method = method;
+        this.methodHandle = createMethodHandle(method);
         this.argumentExtractors = argumentExtractors;
         this.useStrictArgumentExtractors = useStrictArgumentExtractors;
     }
@@ -72,6 +83,16 @@ public class ControllerMethodInvoker {
         
         checkNullArgumentsAndThrowBadRequestExceptionIfConfigured(arguments);
         
+        if (methodHandle != null) {
+            try {
+                return methodHandle.invokeExact(controller, arguments);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+        
         try {
             return method.invoke(controller, arguments);
         } catch (IllegalAccessException | IllegalArgumentException e) {
@@ -85,6 +106,36 @@ public class ControllerMethodInvoker {
         }
     }
     
+    /**
+     * Unlike Method.invoke a method handle does not check access and
+     * arguments on every call and the JIT can inline through it. Exceptions
+     * thrown by the method are not wrapped either.
+     * 
+     * @param method The controller method or the functional method of a lambda
+     * @return A handle of type (Object, Object[])Object or null if the method
+     *      is not accessible (it's then invoked reflectively, which reports
+     *      the error on every call just like before)
+     */
+    private static MethodHandle createMethodHandle(Method method) {
+        MethodHandle methodHandle;
+        
+        try {
+            methodHandle = MethodHandles.lookup().unreflect(method).asFixedArity();
+        } catch (IllegalAccessException e) {
+            logger.debug("Invoking {} reflectively", method, e);
+            return null;
+        }
+        
+        if (Modifier.isStatic(method.getModifiers())) {
+            // keep the (ignored) controller argument of Method.invoke
+            methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+        }
+        
+        return methodHandle
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(INVOKER_TYPE);
+    }
+    
     private void checkNullArgumentsAndThrowBadRequestExceptionIfConfigured(Object[] arguments) {
         if (!useStrictArgumentExtractors) {
             return;
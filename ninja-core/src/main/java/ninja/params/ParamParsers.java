@@ -156,14 +156,19 @@ public class ParamParsers {
         public Integer parseParameter(String field, String parameterValue, Validation validation) {
             if (parameterValue == null || parameterValue.isEmpty() || validation.hasViolation(field)) {
                 return 0;
+            } else if (PrimitiveParsing.isSmallAsciiInteger(parameterValue, PrimitiveParsing.MAX_SAFE_INT_DIGITS)) {
+                return (int) PrimitiveParsing.parseSmallAsciiInteger(parameterValue);
             } else {
                 try {
-                    return Integer.parseInt(parameterValue);
+                    if (PrimitiveParsing.isInteger(parameterValue)) {
+                        return Integer.parseInt(parameterValue);
+                    }
                 } catch (NumberFormatException e) {
-                    validation.addViolation(new ConstraintViolation(
-                            IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
-                    return 0;
+                    // too many digits
                 }
+                validation.addViolation(new ConstraintViolation(
+                        IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
+                return 0;
             }
         }
 
@@ -178,14 +183,19 @@ public class ParamParsers {
         public Integer parseParameter(String field, String parameterValue, Validation validation) {
             if (parameterValue == null || parameterValue.isEmpty() || validation.hasViolation(field)) {
                 return null;
+            } else if (PrimitiveParsing.isSmallAsciiInteger(parameterValue, PrimitiveParsing.MAX_SAFE_INT_DIGITS)) {
+                return (int) PrimitiveParsing.parseSmallAsciiInteger(parameterValue);
             } else {
                 try {
-                    return Integer.parseInt(parameterValue);
+                    if (PrimitiveParsing.isInteger(parameterValue)) {
+                        return Integer.parseInt(parameterValue);
+                    }
                 } catch (NumberFormatException e) {
-                    validation.addViolation(new ConstraintViolation(
-                            IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
-                    return null;
+                    // too many digits
                 }
+                validation.addViolation(new ConstraintViolation(
+                        IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
+                return null;
             }
         }
 
@@ -244,14 +254,19 @@ public class ParamParsers {
         public Long parseParameter(String field, String parameterValue, Validation validation) {
             if (parameterValue == null || parameterValue.isEmpty() || validation.hasViolation(field)) {
                 return null;
+            } else if (PrimitiveParsing.isSmallAsciiInteger(parameterValue, PrimitiveParsing.MAX_SAFE_LONG_DIGITS)) {
+                return PrimitiveParsing.parseSmallAsciiInteger(parameterValue);
             } else {
                 try {
-                    return Long.parseLong(parameterValue);
+                    if (PrimitiveParsing.isInteger(parameterValue)) {
+                        return Long.parseLong(parameterValue);
+                    }
                 } catch (NumberFormatException e) {
-                    validation.addViolation(new ConstraintViolation(
-                            IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
-                    return null;
+                    // too many digits
                 }
+                validation.addViolation(new ConstraintViolation(
+                        IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
+                return null;
             }
         }
 
@@ -266,14 +281,19 @@ public class ParamParsers {
         public Long parseParameter(String field, String parameterValue, Validation validation) {
             if (parameterValue == null || parameterValue.isEmpty() || validation.hasViolation(field)) {
                 return 0L;
+            } else if (PrimitiveParsing.isSmallAsciiInteger(parameterValue, PrimitiveParsing.MAX_SAFE_LONG_DIGITS)) {
+                return PrimitiveParsing.parseSmallAsciiInteger(parameterValue);
             } else {
                 try {
-                    return Long.parseLong(parameterValue);
+                    if (PrimitiveParsing.isInteger(parameterValue)) {
+                        return Long.parseLong(parameterValue);
+                    }
                 } catch (NumberFormatException e) {
-                    validation.addViolation(new ConstraintViolation(
-                            IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
-                    return 0L;
+                    // too many digits
                 }
+                validation.addViolation(new ConstraintViolation(
+                        IsInteger.KEY, field, IsInteger.MESSAGE, parameterValue));
+                return 0L;
             }
         }
 
@@ -529,6 +549,9 @@ public class ParamParsers {
             if (parameterValue == null || parameterValue.isEmpty() || validation.hasViolation(field)) {
                 return null;
             } else {
+                if (PrimitiveParsing.isCanonicalUuid(parameterValue)) {
+                    return PrimitiveParsing.parseCanonicalUuid(parameterValue);
+                }
                 try {
                     return UUID.fromString(parameterValue);
                 } catch (IllegalArgumentException e) {
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.params;
+
+import java.util.UUID;
+
+/**
+ * Parsing of numbers and uuids straight from the characters of a parameter.
+ *
+ * Integer.parseInt, Long.parseLong and UUID.fromString throw (and allocate)
+ * an exception for every invalid value and UUID.fromString splits the value
+ * into several strings. The methods here recognize the common cases, e.g.
+ * "/items/{id: [0-9]+}", without any allocation. Everything else is left to
+ * the methods of the JDK, so the results are always the same.
+ */
+final class PrimitiveParsing {
+
+    /** Numbers with up to 9 digits always fit into an int */
+    static final int MAX_SAFE_INT_DIGITS = 9;
+
+    /** Numbers with up to 18 digits always fit into a long */
+    static final int MAX_SAFE_LONG_DIGITS = 18;
+
+    private static final int UUID_LENGTH = 36;
+
+    private PrimitiveParsing() {
+    }
+
+    /**
+     * @param value The value to check
+     * @return True if the value is an optional sign followed by at least one
+     *      digit, i.e. Integer.parseInt and Long.parseLong can only fail
+     *      because of an overflow
+     */
+    static boolean isInteger(CharSequence value) {
+        int start = hasSign(value) ? 1 : 0;
+
+        if (value.length() == start) {
+            return false;
+        }
+
+        for (int i = start; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 10) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param value The value to check
+     * @param maxDigits The maximum number of digits
+     * @return True if the value is an optional sign followed by at least one
+     *      and at most maxDigits ascii digits
+     */
+    static boolean isSmallAsciiInteger(CharSequence value, int maxDigits) {
+        int start = hasSign(value) ? 1 : 0;
+        int digits = value.length() - start;
+
+        if (digits == 0 || digits > maxDigits) {
+            return false;
+        }
+
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param value A value accepted by {@link #isSmallAsciiInteger(CharSequence, int)}
+     * @return The value of the number
+     */
+    static long parseSmallAsciiInteger(CharSequence value) {
+        boolean negative = value.charAt(0) == '-';
+        int start = hasSign(value) ? 1 : 0;
+        long result = 0;
+
+        for (int i = start; i < value.length(); i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+
+        return negative ? -result : result;
+    }
+
+    /**
+     * @param value The value to check
+     * @return True if the value is a uuid in its canonical form
+     *      (8-4-4-4-12 hex digits)
+     */
+    static boolean isCanonicalUuid(CharSequence value) {
+        if (value.length() != UUID_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexDigit(c) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param value A value accepted by {@link #isCanonicalUuid(CharSequence)}
+     * @return The uuid
+     */
+    static UUID parseCanonicalUuid(CharSequence value) {
+        long mostSignificantBits = (parseHex(value, 0, 8) << 32)
+                | (parseHex(value, 9, 13) << 16)
+                | parseHex(value, 14, 18);
+        long leastSignificantBits = (parseHex(value, 19, 23) << 48)
+                | parseHex(value, 24, 36);
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private static boolean hasSign(CharSequence value) {
+        if (value.length() == 0) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '-' || first == '+';
+    }
+
+    private static long parseHex(CharSequence value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = (result << 4) | hexDigit(value.charAt(i));
+        }
+        return result;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+}
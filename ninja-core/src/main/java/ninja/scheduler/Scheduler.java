@@ -16,6 +16,8 @@
 
 package ninja.scheduler;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.ZoneId;
@@ -110,6 +112,28 @@ public class Scheduler {
         }
     }
 
+    /**
+     * Binds the method to its target once instead of invoking it reflectively
+     * on every run.
+     */
+    private static Invocation invocation(final Object target, final Method method) {
+        try {
+            final MethodHandle methodHandle = MethodHandles.lookup()
+                    .unreflect(method)
+                    .bindTo(target);
+            return methodHandle::invoke;
+        } catch (IllegalAccessException e) {
+            // Method.invoke reports the problem on every run
+            return () -> method.invoke(target);
+        }
+    }
+
+    private interface Invocation {
+
+        void invoke() throws Throwable;
+
+    }
+
     private void scheduleCron(final Object target, final Method method, Schedule schedule) {
         final CronExpression cronExpression = new CronExpression(schedule.cron().trim());
         final ZoneId zoneId = schedule.cronZone().equals(Schedule.NO_PROPERTY)
@@ -120,6 +144,8 @@ public class Scheduler {
                 + " using CRON expression " + schedule.cron()
                 + " (TimeZone: " + zoneId + ")");
 
+        final Invocation invocation = invocation(target, method);
+
         final Callable<Void> callable = new Callable<Void>() {
 
             @Override
@@ -127,8 +153,8 @@ public class Scheduler {
                 executor.schedule(this, cronExpression.getNextDelayMilliseconds(zoneId), TimeUnit.MILLISECONDS);
 
                 try {
-                    method.invoke(target);
-                } catch (final Exception exception) {
+                    invocation.invoke();
+                } catch (final Throwable exception) {
                     log.error("An error occurred during the execution of scheduled method {}::{}",
                             target.getClass().getName(),
                             method.getName(),
@@ -179,13 +205,15 @@ public class Scheduler {
         log.info("Scheduling method " + method.getName() + " on " + targetName + " to be run every " + delay
                 + " " + timeUnit + " after " + initialDelay + " " + timeUnit);
 
+        final Invocation invocation = invocation(target, method);
+
         executor.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
                 try {
                     log.debug("Running scheduled method {} on {}", method.getName(), target);
-                    method.invoke(target);
-                } catch (Exception e) {
+                    invocation.invoke();
+                } catch (Throwable e) {
                     log.error("Error invoking scheduled run of method " + method.getName() + " on " + target, e);
                 }
             }
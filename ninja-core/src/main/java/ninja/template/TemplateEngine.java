@@ -50,4 +50,17 @@ public interface TemplateEngine {
      */
     public String getContentType();
 
+    /**
+     * Whether this engine renders all results of its content type. Engines
+     * returning false only render results whose template ends with their
+     * suffix (e.g. Results.html().template("views/index.jtpl.html")). That
+     * way a second engine can run next to the default engine of a content
+     * type, e.g. while migrating templates.
+     * 
+     * @return true if the engine is the default for its content type
+     */
+    default boolean isDefaultForContentType() {
+        return true;
+    }
+
 }
@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Singleton;
+
+import ninja.Context;
+import ninja.Result;
+import ninja.exceptions.RenderingException;
+import ninja.template.compiled.CompiledTemplate;
+import ninja.template.compiled.CompiledTemplateWriter;
+import ninja.template.compiled.TemplateCompiler;
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseBuffer;
+import ninja.utils.ResponseStreams;
+
+import com.google.inject.Inject;
+
+/**
+ * Renders html with templates compiled to Java classes at build time (see
+ * {@link TemplateCompiler} for the syntax and the goal compile-templates of
+ * the ninja-maven-plugin).
+ * 
+ * Compiled templates write static parts as pre-encoded bytes and access the
+ * model through plain, typed Java calls. There is no reflection at runtime.
+ * 
+ * The engine is not bound by default. Bind it in your conf.Module. It then
+ * renders all results whose template ends with ".jtpl.html", e.g.
+ * Results.html().template("views/ApplicationController/index.jtpl.html"),
+ * and Freemarker renders everything else. Set
+ * <code>compiled_templates.default=true</code> to render all html results
+ * with compiled templates.
+ */
+@Singleton
+public class TemplateEngineCompiled implements TemplateEngine {
+    
+    public final static String COMPILED_TEMPLATES_CONFIGURATION_FILE_SUFFIX = "compiled_templates.suffix";
+    
+    public final static String COMPILED_TEMPLATES_CONFIGURATION_DEFAULT = "compiled_templates.default";
+    
+    public final static String FILE_SUFFIX = ".jtpl.html";
+    
+    private final TemplateEngineHelper templateEngineHelper;
+    
+    private final TemplateCompiler templateCompiler;
+    
+    private final String fileSuffix;
+    
+    private final boolean defaultForContentType;
+    
+    private final ConcurrentMap<String, CompiledTemplate<?>> compiledTemplates;
+    
+    @Inject
+    public TemplateEngineCompiled(TemplateEngineHelper templateEngineHelper,
+                                  NinjaProperties ninjaProperties) {
+        this.templateEngineHelper = templateEngineHelper;
+        this.fileSuffix = ninjaProperties.getWithDefault(COMPILED_TEMPLATES_CONFIGURATION_FILE_SUFFIX, FILE_SUFFIX);
+        this.defaultForContentType = ninjaProperties.getBooleanWithDefault(COMPILED_TEMPLATES_CONFIGURATION_DEFAULT, false);
+        this.templateCompiler = new TemplateCompiler(fileSuffix);
+        this.compiledTemplates = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void invoke(Context context, Result result) {
+        String templateName = templateEngineHelper.getTemplateForResult(
+                context.getRoute(), result, fileSuffix);
+        
+        CompiledTemplate compiledTemplate = getCompiledTemplate(templateName, result);
+        Object model = result.getRenderable();
+        
+        if (model != null && !compiledTemplate.getModelType().isInstance(model)) {
+            throw new RenderingException(
+                    "Template renders " + compiledTemplate.getModelType().getName()
+                            + " but got " + model.getClass().getName(),
+                    null, result, "Compiled template render exception", templateName, -1);
+        }
+        
+        // Fully buffer the response so in the case of an error we can 
+        // return the applications 500 error message.
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        
+        try {
+            compiledTemplate.render(context, model, new CompiledTemplateWriter(buffer));
+            
+            // compiled templates always write utf-8
+            result.charset(NinjaConstant.UTF_8);
+            result.addHeader(Result.CONTENT_LENGTH, String.valueOf(buffer.size()));
+            
+            ResponseStreams responseStreams = context.finalizeHeaders(result);
+            try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                buffer.writeTo(outputStream);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new RenderingException(e.getMessage(), e, result, "Compiled template render exception", templateName, -1);
+        } finally {
+            buffer.release();
+        }
+    }
+    
+    /**
+     * @param templateName The name of the template
+     * @param result The result to render
+     * @return The compiled template. Loaded once per name.
+     */
+    CompiledTemplate<?> getCompiledTemplate(String templateName, Result result) {
+        CompiledTemplate<?> compiledTemplate = compiledTemplates.get(templateName);
+        
+        if (compiledTemplate == null) {
+            compiledTemplate = compiledTemplates.computeIfAbsent(
+                    templateName, name -> loadCompiledTemplate(name, result));
+        }
+        
+        return compiledTemplate;
+    }
+    
+    private CompiledTemplate<?> loadCompiledTemplate(String templateName, Result result) {
+        String className = templateCompiler.getClassName(templateName);
+        
+        try {
+            Class<?> compiledClass = Class.forName(className, true, getClass().getClassLoader());
+            return (CompiledTemplate<?>) compiledClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new RenderingException(
+                    "No compiled template " + className + " found."
+                            + " Did the goal compile-templates of the ninja-maven-plugin run?",
+                    e, result, "Compiled template not found", templateName, -1);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new RenderingException(e.getMessage(), e, result, "Compiled template not found", templateName, -1);
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/html";
+    }
+
+    @Override
+    public String getSuffixOfTemplatingEngine() {
+        return fileSuffix;
+    }
+
+    @Override
+    public boolean isDefaultForContentType() {
+        return defaultForContentType;
+    }
+
+}
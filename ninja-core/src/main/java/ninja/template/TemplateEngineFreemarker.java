@@ -18,31 +18,36 @@ package ninja.template;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import javax.inject.Singleton;
 
 import ninja.Context;
 import ninja.Result;
+import ninja.cache.Cache;
 import ninja.exceptions.RenderingException;
 import ninja.i18n.Lang;
 import ninja.i18n.Messages;
-import ninja.template.directives.TemplateEngineFreemarkerAuthenticityFormDirective;
-import ninja.template.directives.TemplateEngineFreemarkerAuthenticityTokenDirective;
+import ninja.lifecycle.Start;
 import ninja.utils.NinjaConstant;
 import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseBuffer;
 import ninja.utils.ResponseStreams;
 
 import org.slf4j.Logger;
 
 import com.google.common.base.CaseFormat;
 import com.google.common.collect.Maps;
+import com.google.common.reflect.ClassPath;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 
 import freemarker.cache.ClassTemplateLoader;
 import freemarker.cache.FileTemplateLoader;
@@ -56,6 +61,7 @@ import freemarker.template.DefaultObjectWrapper;
 import freemarker.template.DefaultObjectWrapperBuilder;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
+import freemarker.template.TemplateHashModel;
 import freemarker.template.TemplateNotFoundException;
 import freemarker.template.Version;
 
@@ -65,6 +71,33 @@ public class TemplateEngineFreemarker implements TemplateEngine {
     public final static String FREEMARKER_CONFIGURATION_FILE_SUFFIX = "freemarker.suffix";
     public final static String FREEMARKER_CONFIGURATION_OLDVERSION = "freemarker.oldversion";
     
+    /**
+     * Number of parsed templates held as strong references in test and prod
+     * (default 20). Set it to the number of templates of your application
+     * to never parse a template twice.
+     */
+    public final static String FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE = "freemarker.cache.strong_size";
+    
+    /**
+     * Number of parsed templates additionally held as soft references in
+     * test and prod. These are dropped under memory pressure (default
+     * unlimited).
+     */
+    public final static String FREEMARKER_CONFIGURATION_CACHE_SOFT_SIZE = "freemarker.cache.soft_size";
+    
+    /**
+     * If true all templates on the classpath are parsed when the application
+     * starts (default false). Parse errors are logged at startup instead of
+     * on the first request to a broken template.
+     */
+    public final static String FREEMARKER_CONFIGURATION_PRECOMPILE = "freemarker.precompile";
+    
+    /**
+     * If false &lt;@cache&gt; renders its body on every request (default false in
+     * dev and true in test and prod).
+     */
+    public final static String FREEMARKER_CONFIGURATION_FRAGMENT_CACHE = "freemarker.fragment_cache";
+    
     // Selection of logging library has to be done manually until Freemarker 2.4
     // more: http://freemarker.org/docs/api/freemarker/log/Logger.html
     static {
@@ -97,6 +130,11 @@ public class TemplateEngineFreemarker implements TemplateEngine {
     
     private final TemplateEngineFreemarkerWebJarsAtMethod templateEngineFreemarkerWebJarsAtMethod;
     
+    // not bound if the cache of NinjaClassicModule is disabled
+    private Provider<Cache> cacheProvider;
+    
+    private final boolean fragmentCacheEnabled;
+    
     private final String fileSuffix;
    
     @Inject
@@ -117,6 +155,8 @@ public class TemplateEngineFreemarker implements TemplateEngine {
         this.templateEngineFreemarkerReverseRouteMethod = templateEngineFreemarkerReverseRouteMethod;
         this.templateEngineFreemarkerAssetsAtMethod = templateEngineFreemarkerAssetsAtMethod;
         this.templateEngineFreemarkerWebJarsAtMethod = templateEngineFreemarkerWebJarsAtMethod;
+        this.fragmentCacheEnabled = ninjaProperties.getBooleanWithDefault(
+                FREEMARKER_CONFIGURATION_FRAGMENT_CACHE, !ninjaProperties.isDev());
         this.fileSuffix = this.ninjaProperties.getWithDefault(FREEMARKER_CONFIGURATION_FILE_SUFFIX, FILE_SUFFIX);
         
         cfg = new Configuration(FREEMARKER_VERSION);
@@ -185,7 +225,12 @@ public class TemplateEngineFreemarker implements TemplateEngine {
             
             // Hold 20 templates as strong references as recommended by:
             // http://freemarker.sourceforge.net/docs/pgui_config_templateloading.html
-            cfg.setCacheStorage(new freemarker.cache.MruCacheStorage(20, Integer.MAX_VALUE));
+            // Applications with more templates should raise the limit.
+            int strongSize = ninjaProperties.getIntegerWithDefault(
+                    FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE, 20);
+            int softSize = ninjaProperties.getIntegerWithDefault(
+                    FREEMARKER_CONFIGURATION_CACHE_SOFT_SIZE, Integer.MAX_VALUE);
+            cfg.setCacheStorage(new freemarker.cache.MruCacheStorage(strongSize, softSize));
 
         }
         
@@ -202,6 +247,81 @@ public class TemplateEngineFreemarker implements TemplateEngine {
         
     }
 
+    /**
+     * @param cacheProvider The cache &lt;@cache&gt; stores rendered fragments in
+     */
+    @Inject(optional = true)
+    public void setCacheProvider(Provider<Cache> cacheProvider) {
+        this.cacheProvider = cacheProvider;
+    }
+    
+    /**
+     * Parses all templates on the classpath ending with the suffix of this
+     * engine if <code>freemarker.precompile</code> is true. Runs before
+     * the application accepts requests, so the first request to a template
+     * does not pay for parsing it.
+     * 
+     * Templates that fail to parse are logged, but do not stop the
+     * application. Rendering them still fails with the usual error page.
+     */
+    @Start(order = 80)
+    public void precompileTemplates() {
+        if (!ninjaProperties.getBooleanWithDefault(FREEMARKER_CONFIGURATION_PRECOMPILE, false)) {
+            return;
+        }
+        
+        long start = System.currentTimeMillis();
+        
+        List<String> templateNames;
+        try {
+            templateNames = findTemplates(this.getClass().getClassLoader(), fileSuffix);
+        } catch (IOException e) {
+            logger.error("Unable to scan the classpath for Freemarker templates", e);
+            return;
+        }
+        
+        int failed = 0;
+        
+        for (String templateName : templateNames) {
+            try {
+                cfg.getTemplate(templateName);
+            } catch (IOException e) {
+                failed++;
+                logger.error("Unable to precompile Freemarker template {}: {}", templateName, e.getMessage());
+            }
+        }
+        
+        logger.info("Precompiled {} Freemarker templates ({} failed) in {} ms",
+                templateNames.size() - failed, failed, System.currentTimeMillis() - start);
+        
+        int strongSize = ninjaProperties.getIntegerWithDefault(
+                FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE, 20);
+        if (!ninjaProperties.isDev() && templateNames.size() > strongSize) {
+            logger.warn("Found {} Freemarker templates, but only {} are held as strong references."
+                    + " Consider raising {} in your application.conf",
+                    templateNames.size(), strongSize, FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE);
+        }
+    }
+    
+    /**
+     * @param classLoader The class loader to scan
+     * @param fileSuffix The suffix of the templates (e.g. ".ftl.html")
+     * @return The sorted names of all resources ending with the suffix,
+     *      relative to the root of the classpath
+     * @throws IOException If the classpath can't be scanned
+     */
+    static List<String> findTemplates(ClassLoader classLoader, String fileSuffix) throws IOException {
+        Set<String> templateNames = new TreeSet<>();
+        
+        for (ClassPath.ResourceInfo resource : ClassPath.from(classLoader).getResources()) {
+            if (resource.getResourceName().endsWith(fileSuffix)) {
+                templateNames.add(resource.getResourceName());
+            }
+        }
+        
+        return new ArrayList<>(templateNames);
+    }
+
     @Override
     public void invoke(Context context, Result result) {
 
@@ -232,68 +352,10 @@ public class TemplateEngineFreemarker implements TemplateEngine {
             
         }
         
-        // set language from framework. You can access
-        // it in the templates as ${lang}
-        Optional<String> language = lang.getLanguage(context, Optional.of(result));
-        if (language.isPresent()) {
-            map.put("lang", language.get());
-        }
-
-        // put all entries of the session cookie to the map.
-        // You can access the values by their key in the cookie
-        if (!context.getSession().isEmpty()) {
-            map.put("session", context.getSession().getData());
-        }
-        
-        map.put("contextPath", context.getContextPath());
-        map.put("validation", context.getValidation());
-        
-        //////////////////////////////////////////////////////////////////////
-        // A method that renders i18n messages and can also render messages with 
-        // placeholders directly in your template:
-        // E.g.: ${i18n("mykey", myPlaceholderVariable)}
-        //////////////////////////////////////////////////////////////////////
-        map.put("i18n", new TemplateEngineFreemarkerI18nMethod(messages, context, result));
-        
-        Optional<String> requestLang = lang.getLanguage(context, Optional.of(result));
-        Locale locale = lang.getLocaleFromStringOrDefault(requestLang);
-        map.put("prettyTime", new TemplateEngineFreemarkerPrettyTimeMethod(locale));
-
-        map.put("reverseRoute", templateEngineFreemarkerReverseRouteMethod);
-        map.put("assetsAt", templateEngineFreemarkerAssetsAtMethod);
-        map.put("webJarsAt", templateEngineFreemarkerWebJarsAtMethod);
-        
-        map.put("authenticityToken", new TemplateEngineFreemarkerAuthenticityTokenDirective(context));
-        map.put("authenticityForm", new TemplateEngineFreemarkerAuthenticityFormDirective(context));
-
-        ///////////////////////////////////////////////////////////////////////
-        // Convenience method to translate possible flash scope keys.
-        // !!! If you want to set messages with placeholders please do that
-        // !!! in your controller. We only can set simple messages.
-        // Eg. A message like "errorMessage=my name is: {0}" => translate in controller and pass directly.
-        //     A message like " errorMessage=An error occurred" => use that as errorMessage.  
-        //
-        // get keys via ${flash.KEYNAME}
-        //////////////////////////////////////////////////////////////////////
-        Map<String, String> translatedFlashCookieMap = Maps.newHashMap();
-        for (Entry<String, String> entry : context.getFlashScope().getCurrentFlashCookieData().entrySet()) {
-            
-            String messageValue = null;
-
-                
-            Optional<String> messageValueOptional = messages.get(entry.getValue(), context, Optional.of(result));
-                
-            if (!messageValueOptional.isPresent()) {
-                messageValue = entry.getValue();
-            } else {
-                messageValue = messageValueOptional.get();
-            }
-            // new way
-            translatedFlashCookieMap.put(entry.getKey(), messageValue);
-        }
-        
-        // now we can retrieve flash cookie messages via ${flash.MESSAGE_KEY}
-        map.put("flash", translatedFlashCookieMap);        
+        // ${lang}, ${flash}, ${i18n(...)} etc. are added by the data model
+        // when the template uses them for the first time.
+        TemplateEngineFreemarkerDataModel dataModel = new TemplateEngineFreemarkerDataModel(
+                map, context, result, this, cfg.getObjectWrapper());
 
         // Specify the data source where the template files come from.
         // Here I set a file directory for it:
@@ -306,17 +368,12 @@ public class TemplateEngineFreemarker implements TemplateEngine {
             
             freemarkerTemplate = cfg.getTemplate(templateName);
             
-            // Fully buffer the response so in the case of a template error we can 
-            // return the applications 500 error message. Without fully buffering 
-            // we can't guarantee we haven't flushed part of the response to the
-            // client.
-            StringWriter buffer = new StringWriter(64 * 1024);
-            freemarkerTemplate.process(map, buffer);
-
-            ResponseStreams responseStreams = context.finalizeHeaders(result);
-            try (Writer writer = responseStreams.getWriter()) {
-                writer.write(buffer.toString());
+            if (isUtf8(result.getCharset())) {
+                renderUtf8(context, result, freemarkerTemplate, dataModel);
+            } else {
+                render(context, result, freemarkerTemplate, dataModel);
             }
+            
         } catch (Exception cause) {   
             
             // delegate rendering exception handling back to Ninja
@@ -325,6 +382,56 @@ public class TemplateEngineFreemarker implements TemplateEngine {
         }
     }
     
+    private void renderUtf8(Context context,
+                            Result result,
+                            Template freemarkerTemplate,
+                            TemplateHashModel dataModel) throws Exception {
+        
+        // Fully buffer the response so in the case of a template error we can 
+        // return the applications 500 error message. Without fully buffering 
+        // we can't guarantee we haven't flushed part of the response to the
+        // client. The buffer is reused by the thread and holds the encoded
+        // bytes, so we know the length of the response, too.
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        
+        try {
+            Writer bufferWriter = buffer.getUtf8Writer();
+            freemarkerTemplate.process(dataModel, bufferWriter);
+            bufferWriter.close();
+            
+            result.addHeader(Result.CONTENT_LENGTH, String.valueOf(buffer.size()));
+            
+            ResponseStreams responseStreams = context.finalizeHeaders(result);
+            try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                buffer.writeTo(outputStream);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+    
+    private void render(Context context,
+                        Result result,
+                        Template freemarkerTemplate,
+                        TemplateHashModel dataModel) throws Exception {
+        
+        // any other charset: buffer the characters and let the writer of
+        // the response encode them
+        StringWriter buffer = new StringWriter(64 * 1024);
+        freemarkerTemplate.process(dataModel, buffer);
+
+        ResponseStreams responseStreams = context.finalizeHeaders(result);
+        try (Writer writer = responseStreams.getWriter()) {
+            writer.write(buffer.toString());
+        }
+    }
+    
+    private static boolean isUtf8(String charset) {
+        return charset == null
+                || NinjaConstant.UTF_8.equalsIgnoreCase(charset)
+                || "utf8".equalsIgnoreCase(charset);
+    }
+    
     public void throwRenderingException(
             Context context,
             Result result,
@@ -395,6 +502,34 @@ public class TemplateEngineFreemarker implements TemplateEngine {
     	return cfg;
     }
     
+    Lang getLang() {
+        return lang;
+    }
+    
+    Messages getMessages() {
+        return messages;
+    }
+    
+    TemplateEngineFreemarkerReverseRouteMethod getReverseRouteMethod() {
+        return templateEngineFreemarkerReverseRouteMethod;
+    }
+    
+    TemplateEngineFreemarkerAssetsAtMethod getAssetsAtMethod() {
+        return templateEngineFreemarkerAssetsAtMethod;
+    }
+    
+    TemplateEngineFreemarkerWebJarsAtMethod getWebJarsAtMethod() {
+        return templateEngineFreemarkerWebJarsAtMethod;
+    }
+    
+    Provider<Cache> getCacheProvider() {
+        return cacheProvider;
+    }
+    
+    boolean isFragmentCacheEnabled() {
+        return fragmentCacheEnabled && cacheProvider != null;
+    }
+    
     private BeansWrapper createBeansWrapperWithExposedFields() {
         DefaultObjectWrapperBuilder defaultObjectWrapperBuilder 
             = new DefaultObjectWrapperBuilder(FREEMARKER_VERSION);
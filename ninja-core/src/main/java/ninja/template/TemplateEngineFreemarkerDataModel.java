@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+
+import ninja.Context;
+import ninja.Result;
+import ninja.i18n.Lang;
+import ninja.i18n.Messages;
+import ninja.template.directives.TemplateEngineFreemarkerAuthenticityFormDirective;
+import ninja.template.directives.TemplateEngineFreemarkerAuthenticityTokenDirective;
+import ninja.template.directives.TemplateEngineFreemarkerCacheDirective;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import freemarker.template.ObjectWrapper;
+import freemarker.template.SimpleCollection;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+/**
+ * The root of the data model of a Freemarker template.
+ * 
+ * Holds the values rendered by the controller plus the values Ninja provides
+ * to every template (${lang}, ${flash}, ${i18n(...)} etc). The values of Ninja
+ * are only created when the template accesses them for the first time. A
+ * template that never uses the flash scope never translates it.
+ * 
+ * The values of Ninja take precedence over rendered values with the same name
+ * (exactly like before, when they were put into the rendered map).
+ * 
+ * Not thread safe - a model is created per render.
+ */
+class TemplateEngineFreemarkerDataModel implements TemplateHashModelEx {
+    
+    static final List<String> NINJA_KEYS = ImmutableList.of(
+            "lang",
+            "session",
+            "contextPath",
+            "validation",
+            "i18n",
+            "prettyTime",
+            "reverseRoute",
+            "assetsAt",
+            "webJarsAt",
+            "authenticityToken",
+            "authenticityForm",
+            "flash",
+            "cache");
+    
+    private final Map<String, Object> renderedValues;
+    private final Context context;
+    private final Result result;
+    private final TemplateEngineFreemarker templateEngine;
+    private final ObjectWrapper objectWrapper;
+    
+    // wrapped values (or null if there is no value) by their name
+    private final Map<String, TemplateModel> models = new HashMap<>();
+    
+    private Optional<String> language;
+    
+    TemplateEngineFreemarkerDataModel(Map<String, Object> renderedValues,
+                                      Context context,
+                                      Result result,
+                                      TemplateEngineFreemarker templateEngine,
+                                      ObjectWrapper objectWrapper) {
+        this.renderedValues = renderedValues;
+        this.context = context;
+        this.result = result;
+        this.templateEngine = templateEngine;
+        this.objectWrapper = objectWrapper;
+    }
+    
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+        if (models.containsKey(key)) {
+            return models.get(key);
+        }
+        
+        Object value = getNinjaValue(key);
+        if (value == null) {
+            value = renderedValues.get(key);
+        }
+        
+        TemplateModel model = (value != null ? objectWrapper.wrap(value) : null);
+        models.put(key, model);
+        
+        return model;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        // contextPath, i18n etc. are always there
+        return false;
+    }
+
+    @Override
+    public int size() throws TemplateModelException {
+        return getKeys().size();
+    }
+
+    @Override
+    public TemplateCollectionModel keys() throws TemplateModelException {
+        return new SimpleCollection(getKeys(), objectWrapper);
+    }
+
+    @Override
+    public TemplateCollectionModel values() throws TemplateModelException {
+        List<TemplateModel> values = new ArrayList<>();
+        for (String key : getKeys()) {
+            values.add(get(key));
+        }
+        return new SimpleCollection(values, objectWrapper);
+    }
+    
+    /**
+     * @return The language of the request. Resolved once per render.
+     */
+    Optional<String> getLanguage() {
+        if (language == null) {
+            language = templateEngine.getLang().getLanguage(context, Optional.of(result));
+        }
+        return language;
+    }
+    
+    private Set<String> getKeys() throws TemplateModelException {
+        Set<String> keys = new LinkedHashSet<>(renderedValues.keySet());
+        
+        for (String key : NINJA_KEYS) {
+            if (get(key) != null) {
+                keys.add(key);
+            }
+        }
+        
+        return keys;
+    }
+    
+    private Object getNinjaValue(String key) {
+        Lang lang = templateEngine.getLang();
+        Messages messages = templateEngine.getMessages();
+        
+        switch (key) {
+            // set language from framework. You can access
+            // it in the templates as ${lang}
+            case "lang":
+                return getLanguage().orElse(null);
+            // all entries of the session cookie. You can access the values
+            // by their key in the cookie
+            case "session":
+                return context.getSession().isEmpty() ? null : context.getSession().getData();
+            case "contextPath":
+                return context.getContextPath();
+            case "validation":
+                return context.getValidation();
+            //////////////////////////////////////////////////////////////////
+            // A method that renders i18n messages and can also render messages with 
+            // placeholders directly in your template:
+            // E.g.: ${i18n("mykey", myPlaceholderVariable)}
+            //////////////////////////////////////////////////////////////////
+            case "i18n":
+                return new TemplateEngineFreemarkerI18nMethod(messages, context, result);
+            case "prettyTime":
+                return new TemplateEngineFreemarkerPrettyTimeMethod(
+                        lang.getLocaleFromStringOrDefault(getLanguage()));
+            case "reverseRoute":
+                return templateEngine.getReverseRouteMethod();
+            case "assetsAt":
+                return templateEngine.getAssetsAtMethod();
+            case "webJarsAt":
+                return templateEngine.getWebJarsAtMethod();
+            case "authenticityToken":
+                return new TemplateEngineFreemarkerAuthenticityTokenDirective(context);
+            case "authenticityForm":
+                return new TemplateEngineFreemarkerAuthenticityFormDirective(context);
+            // now we can retrieve flash cookie messages via ${flash.MESSAGE_KEY}
+            case "flash":
+                return translateFlashScope(messages);
+            // <@cache key="..." ttl="10m">...</@cache> - a rendered value with
+            // that name wins, it existed before the directive
+            case "cache":
+                return renderedValues.containsKey(key) ? null : new TemplateEngineFreemarkerCacheDirective(
+                        templateEngine.getCacheProvider(), context, templateEngine.isFragmentCacheEnabled());
+            default:
+                return null;
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // Convenience method to translate possible flash scope keys.
+    // !!! If you want to set messages with placeholders please do that
+    // !!! in your controller. We only can set simple messages.
+    // Eg. A message like "errorMessage=my name is: {0}" => translate in controller and pass directly.
+    //     A message like " errorMessage=An error occurred" => use that as errorMessage.  
+    //
+    // get keys via ${flash.KEYNAME}
+    ///////////////////////////////////////////////////////////////////////////
+    private Map<String, String> translateFlashScope(Messages messages) {
+        Map<String, String> translatedFlashCookieMap = Maps.newHashMap();
+        
+        for (Entry<String, String> entry : context.getFlashScope().getCurrentFlashCookieData().entrySet()) {
+            String messageValue = messages
+                    .get(entry.getValue(), context, Optional.of(result))
+                    .orElse(entry.getValue());
+            
+            translatedFlashCookieMap.put(entry.getKey(), messageValue);
+        }
+        
+        return translatedFlashCookieMap;
+    }
+
+}
@@ -18,6 +18,8 @@ package ninja.template;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import ninja.Router;
 
@@ -33,6 +35,10 @@ import freemarker.template.TemplateModelException;
 public class TemplateEngineFreemarkerReverseRouteHelper {
 
     final Router router;
+    
+    // controller classes by name, resolved once instead of on every render
+    private final ConcurrentMap<String, Class<?>> controllerClasses
+        = new ConcurrentHashMap<>();
 
     @Inject
     public TemplateEngineFreemarkerReverseRouteHelper(Router router) {
@@ -66,7 +72,7 @@ public class TemplateEngineFreemarkerReverseRouteHelper {
 
             try {
 
-                Class<?> clazz = Class.forName(strings.get(0));
+                Class<?> clazz = controllerClass(strings.get(0));
                 
                 Object [] parameterMap = strings.subList(2, strings.size()).toArray();
 
@@ -82,4 +88,15 @@ public class TemplateEngineFreemarkerReverseRouteHelper {
         }
 
     }
+    
+    private Class<?> controllerClass(String className) throws ClassNotFoundException {
+        Class<?> clazz = controllerClasses.get(className);
+        
+        if (clazz == null) {
+            clazz = Class.forName(className);
+            controllerClasses.put(className, clazz);
+        }
+        
+        return clazz;
+    }
 }
@@ -18,18 +18,40 @@ package ninja.template;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import ninja.Context;
 import ninja.Result;
+import ninja.exceptions.RenderingException;
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseBuffer;
 import ninja.utils.ResponseStreams;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
+/**
+ * Renders the renderable of a result as json.
+ * 
+ * The {@link ObjectWriter} of every (renderable class, json view) pair is
+ * resolved once and reused. The json is serialized into a pooled
+ * {@link ResponseBuffer} first, so the response carries an exact
+ * Content-Length and a failing serialization can still be answered with a
+ * proper error page.
+ * 
+ * Renderables of classes annotated with {@link CacheableJson} are serialized
+ * once and their bytes reused if <code>ninja.json.cache_size</code> is set.
+ */
 @Singleton
 public class TemplateEngineJson implements TemplateEngine {
 
@@ -37,33 +59,85 @@ public class TemplateEngineJson implements TemplateEngine {
 
     private final ObjectMapper objectMapper;
 
-    @Inject
+    private final ConcurrentMap<WriterKey, ObjectWriter> objectWriters;
+
+    // null if disabled
+    private final Cache<CacheKey, byte[]> serializedCache;
+
     public TemplateEngineJson(ObjectMapper objectMapper) {
+        this(objectMapper, 0);
+    }
+
+    @Inject
+    public TemplateEngineJson(ObjectMapper objectMapper, NinjaProperties ninjaProperties) {
+        this(objectMapper, ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_JSON_CACHE_SIZE, 0));
+    }
+
+    private TemplateEngineJson(ObjectMapper objectMapper, int cacheSize) {
         
         this.objectMapper = objectMapper;
+        this.objectWriters = new ConcurrentHashMap<>();
+        
+        if (cacheSize > 0) {
+            this.serializedCache = CacheBuilder.newBuilder()
+                    .maximumSize(cacheSize)
+                    .build();
+            logger.info("Caching up to {} serialized @CacheableJson renderables", cacheSize);
+        } else {
+            this.serializedCache = null;
+        }
         
     }
 
     @Override
     public void invoke(Context context, Result result) {
 
-        ResponseStreams responseStreams = context.finalizeHeaders(result);
-        
-        try (OutputStream outputStream  = responseStreams.getOutputStream()) {
+        Object renderable = result.getRenderable();
+        Class<?> jsonView = result.getJsonView();
 
-            Class<?> jsonView = result.getJsonView();
-            if (jsonView != null) {
-                objectMapper.writerWithView(jsonView).writeValue(outputStream, result.getRenderable());
-            } else {
-                objectMapper.writeValue(outputStream, result.getRenderable());
+        if (serializedCache != null
+                && renderable != null
+                && renderable.getClass().isAnnotationPresent(CacheableJson.class)) {
+            
+            CacheKey cacheKey = new CacheKey(renderable, jsonView);
+            byte[] json = serializedCache.getIfPresent(cacheKey);
+            
+            if (json == null) {
+                json = serialize(renderable, jsonView, result);
+                serializedCache.put(cacheKey, json);
             }
-
             
-        } catch (IOException e) {
-
-            logger.error("Error while rendering json", e);
+            result.addHeader(Result.CONTENT_LENGTH, String.valueOf(json.length));
+            
+            ResponseStreams responseStreams = context.finalizeHeaders(result);
+            
+            try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                outputStream.write(json);
+            } catch (IOException e) {
+                logger.error("Error while rendering json", e);
+            }
+            
+            return;
         }
         
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        
+        try {
+            serializeTo(buffer, renderable, jsonView, result);
+            
+            result.addHeader(Result.CONTENT_LENGTH, String.valueOf(buffer.size()));
+            
+            ResponseStreams responseStreams = context.finalizeHeaders(result);
+            
+            try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                buffer.writeTo(outputStream);
+            } catch (IOException e) {
+                logger.error("Error while rendering json", e);
+            }
+        } finally {
+            buffer.release();
+        }
 
     }
 
@@ -77,4 +151,100 @@ public class TemplateEngineJson implements TemplateEngine {
         // intentionally returns null...
         return null;
     }
+
+    /**
+     * @param renderableClass The class of the renderable
+     * @param jsonView The json view or null
+     * @return The writer for the pair. Resolved once per pair.
+     */
+    ObjectWriter getObjectWriter(Class<?> renderableClass, Class<?> jsonView) {
+        WriterKey writerKey = new WriterKey(renderableClass, jsonView);
+        
+        ObjectWriter objectWriter = objectWriters.get(writerKey);
+        
+        if (objectWriter == null) {
+            objectWriter = objectWriters.computeIfAbsent(writerKey, key -> {
+                ObjectWriter writer = objectMapper.writerFor(key.renderableClass);
+                return key.jsonView != null ? writer.withView(key.jsonView) : writer;
+            });
+        }
+        
+        return objectWriter;
+    }
+
+    private byte[] serialize(Object renderable, Class<?> jsonView, Result result) {
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        
+        try {
+            serializeTo(buffer, renderable, jsonView, result);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private void serializeTo(ResponseBuffer buffer, Object renderable, Class<?> jsonView, Result result) {
+        Class<?> renderableClass = (renderable != null ? renderable.getClass() : Object.class);
+        
+        try {
+            getObjectWriter(renderableClass, jsonView).writeValue(buffer, renderable);
+        } catch (IOException e) {
+            throw new RenderingException("Error while rendering json", e, result, "Json render exception", null, -1);
+        }
+    }
+
+    static private class WriterKey {
+
+        private final Class<?> renderableClass;
+        private final Class<?> jsonView;
+
+        WriterKey(Class<?> renderableClass, Class<?> jsonView) {
+            this.renderableClass = renderableClass;
+            this.jsonView = jsonView;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WriterKey)) {
+                return false;
+            }
+            WriterKey other = (WriterKey) obj;
+            return renderableClass == other.renderableClass && jsonView == other.jsonView;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * renderableClass.hashCode() + Objects.hashCode(jsonView);
+        }
+
+    }
+
+    static private class CacheKey {
+
+        private final Object renderable;
+        private final Class<?> jsonView;
+
+        CacheKey(Object renderable, Class<?> jsonView) {
+            this.renderable = renderable;
+            this.jsonView = jsonView;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            // equal instances of different classes must not share their json
+            return renderable.getClass() == other.renderable.getClass()
+                    && jsonView == other.jsonView
+                    && renderable.equals(other.renderable);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * renderable.hashCode() + Objects.hashCode(jsonView);
+        }
+
+    }
 }
@@ -18,6 +18,8 @@ package ninja.template;
 
 import java.util.Set;
 
+import ninja.Result;
+
 import com.google.inject.ImplementedBy;
 
 /**
@@ -44,4 +46,17 @@ public interface TemplateEngineManager {
      */
     TemplateEngine getTemplateEngineForContentType(String contentType);
 
+    /**
+     * Find the template engine for the given result. That is the engine
+     * whose suffix matches the template of the result, if the result names
+     * a template, or the engine for the content type of the result.
+     *
+     * @param result
+     *            The result to render
+     * @return The template engine, if found
+     */
+    default TemplateEngine getTemplateEngineForResult(Result result) {
+        return getTemplateEngineForContentType(result.getContentType());
+    }
+
 }
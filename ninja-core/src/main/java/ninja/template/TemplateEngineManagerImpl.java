@@ -22,6 +22,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import ninja.Result;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,11 +47,15 @@ public class TemplateEngineManagerImpl implements TemplateEngineManager {
     // don't have
     // to be singleton if they don't want
     private final Map<String, Provider<? extends TemplateEngine>> contentTypeToTemplateEngineMap;
+    
+    // engines that only render templates ending with their suffix
+    private final Map<String, Provider<? extends TemplateEngine>> suffixToTemplateEngineMap;
 
     @Inject
     public TemplateEngineManagerImpl(Injector injector) {
 
         Map<String, Provider<? extends TemplateEngine>> map = new HashMap<>();
+        Map<String, Provider<? extends TemplateEngine>> suffixMap = new HashMap<>();
 
         // Now lookup all explicit bindings, and find the ones that implement
         // TemplateEngine
@@ -59,11 +65,18 @@ public class TemplateEngineManagerImpl implements TemplateEngineManager {
                     .getTypeLiteral().getRawType())) {
                 Provider<? extends TemplateEngine> provider = (Provider) binding
                         .getValue().getProvider();
-                map.put(provider.get().getContentType(), provider);
+                TemplateEngine templateEngine = provider.get();
+                
+                if (templateEngine.isDefaultForContentType()) {
+                    map.put(templateEngine.getContentType(), provider);
+                } else if (templateEngine.getSuffixOfTemplatingEngine() != null) {
+                    suffixMap.put(templateEngine.getSuffixOfTemplatingEngine(), provider);
+                }
             }
         }
 
         this.contentTypeToTemplateEngineMap = ImmutableMap.copyOf(map);
+        this.suffixToTemplateEngineMap = ImmutableMap.copyOf(suffixMap);
 
         logTemplateEngines();
     }
@@ -85,6 +98,25 @@ public class TemplateEngineManagerImpl implements TemplateEngineManager {
         }
     }
 
+    @Override
+    public TemplateEngine getTemplateEngineForResult(Result result) {
+        String template = result.getTemplate();
+        
+        if (template != null) {
+            for (Map.Entry<String, Provider<? extends TemplateEngine>> entry : suffixToTemplateEngineMap.entrySet()) {
+                if (template.endsWith(entry.getKey())) {
+                    TemplateEngine templateEngine = entry.getValue().get();
+                    
+                    if (templateEngine.getContentType().equals(result.getContentType())) {
+                        return templateEngine;
+                    }
+                }
+            }
+        }
+        
+        return getTemplateEngineForContentType(result.getContentType());
+    }
+
     final protected void logTemplateEngines() {
         List<String> outputTypes = Lists.newArrayList(getContentTypes());
         Collections.sort(outputTypes);
@@ -125,6 +157,14 @@ public class TemplateEngineManagerImpl implements TemplateEngineManager {
                     templateEngine.getClass().getName());
 
         }
+        
+        for (Map.Entry<String, Provider<? extends TemplateEngine>> entry : suffixToTemplateEngineMap.entrySet()) {
+            
+            logger.info("{}  =>  {}",
+                    Strings.padEnd("*" + entry.getKey(), maxContentTypeLen, ' '),
+                    entry.getValue().get().getClass().getName());
+            
+        }
 
     }
 }
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.compiled;
+
+import java.io.IOException;
+
+import ninja.Context;
+
+/**
+ * A template compiled to a Java class by {@link TemplateCompiler}.
+ * 
+ * Implementations are generated. They hold no state, so a single instance
+ * renders all requests.
+ * 
+ * @param <T> The type of the model the template renders
+ */
+public interface CompiledTemplate<T> {
+
+    /**
+     * @return The type of the model declared by {{@model ...}}
+     */
+    Class<T> getModelType();
+
+    /**
+     * Renders the template.
+     * 
+     * @param context The context of the request (available as "context")
+     * @param model The model to render (available as "model")
+     * @param out The writer to render to
+     * @throws IOException If writing fails
+     */
+    void render(Context context, T model, CompiledTemplateWriter out) throws IOException;
+
+}
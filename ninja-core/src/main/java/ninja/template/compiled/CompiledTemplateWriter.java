@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.compiled;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import ninja.utils.ResponseBuffer;
+
+/**
+ * The output of a {@link CompiledTemplate}.
+ * 
+ * Static parts of a template are encoded to UTF-8 once, when the compiled
+ * template is loaded, and copied as bytes. Values are HTML escaped and
+ * encoded straight into the buffer of the response.
+ */
+public final class CompiledTemplateWriter {
+
+    private final ResponseBuffer buffer;
+    private final Writer writer;
+
+    public CompiledTemplateWriter(ResponseBuffer buffer) {
+        this.buffer = buffer;
+        this.writer = buffer.getUtf8Writer();
+    }
+
+    /**
+     * Encodes a static part of a template. Called by compiled templates when
+     * their class is initialized. The part may be split into several strings
+     * to stay below the size limit of string constants in class files.
+     * 
+     * @param parts The parts to encode
+     * @return The parts encoded as UTF-8
+     */
+    public static byte[] encode(String... parts) {
+        if (parts.length == 1) {
+            return parts[0].getBytes(StandardCharsets.UTF_8);
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (String part : parts) {
+            text.append(part);
+        }
+
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param chunk A static part of the template
+     */
+    public void write(byte[] chunk) {
+        buffer.write(chunk, 0, chunk.length);
+    }
+
+    /**
+     * Writes the value without escaping it.
+     * 
+     * @param value The value to write (nothing is written for null)
+     * @throws IOException If writing fails
+     */
+    public void writeRaw(Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    public void writeEscaped(int value) throws IOException {
+        // digits and '-' never need escaping
+        writer.write(Integer.toString(value));
+    }
+
+    public void writeEscaped(long value) throws IOException {
+        writer.write(Long.toString(value));
+    }
+
+    /**
+     * Writes the value HTML escaped.
+     * 
+     * @param value The value to write (nothing is written for null)
+     * @throws IOException If writing fails
+     */
+    public void writeEscaped(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        String text = value.toString();
+        int start = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            String entity;
+
+            switch (text.charAt(i)) {
+                case '&':
+                    entity = "&amp;";
+                    break;
+                case '<':
+                    entity = "&lt;";
+                    break;
+                case '>':
+                    entity = "&gt;";
+                    break;
+                case '"':
+                    entity = "&quot;";
+                    break;
+                case '\'':
+                    entity = "&#39;";
+                    break;
+                default:
+                    continue;
+            }
+
+            writer.write(text, start, i - start);
+            writer.write(entity);
+            start = i + 1;
+        }
+
+        writer.write(text, start, text.length() - start);
+    }
+
+}
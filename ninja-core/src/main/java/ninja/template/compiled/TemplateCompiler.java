@@ -0,0 +1,391 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.compiled;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles templates into the Java source of a {@link CompiledTemplate}.
+ * 
+ * The syntax is small on purpose. Everything between the tags is written as
+ * is. Expressions are plain Java and are checked by the compiler of the
+ * application, so a typo in a template breaks the build instead of a request.
+ * 
+ * <pre>
+ * {{@model controllers.ArticleController.Page}}   the type of "model" (required)
+ * {{@import java.time.LocalDate}}                 an import
+ * {{ model.getTitle() }}                          HTML escaped value
+ * {{! model.getBodyHtml() }}                      unescaped value
+ * {{#if model.isEmpty()}} .. {{#elseif ..}} .. {{#else}} .. {{/if}}
+ * {{#for Article article : model.getArticles()}} .. {{/for}}
+ * {{-- a comment --}}
+ * </pre>
+ * 
+ * Besides "model" templates can use "context", the {@link ninja.Context} of
+ * the request.
+ * 
+ * The class of a template is derived from its name:
+ * "views/ArticleController/index.jtpl.html" becomes
+ * views.ArticleController.IndexTemplate.
+ */
+public class TemplateCompiler {
+
+    // javac limits string constants to 65535 bytes
+    static final int MAX_LITERAL_LENGTH = 8 * 1024;
+
+    private static final Set<String> JAVA_KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch",
+            "char", "class", "const", "continue", "default", "do", "double",
+            "else", "enum", "extends", "false", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int",
+            "interface", "long", "native", "new", "null", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws",
+            "transient", "true", "try", "void", "volatile", "while"));
+
+    private final String suffix;
+
+    /**
+     * @param suffix The suffix of the templates (e.g. ".jtpl.html")
+     */
+    public TemplateCompiler(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * @param templateName The name of the template relative to the classpath
+     *      (e.g. "views/ArticleController/index.jtpl.html")
+     * @return The fully qualified name of the compiled template
+     */
+    public String getClassName(String templateName) {
+        String name = templateName.startsWith("/") ? templateName.substring(1) : templateName;
+
+        if (!name.endsWith(suffix)) {
+            throw new IllegalArgumentException("Template " + templateName + " does not end with " + suffix);
+        }
+
+        String[] segments = name.substring(0, name.length() - suffix.length()).split("/");
+        StringBuilder className = new StringBuilder();
+
+        for (int i = 0; i < segments.length - 1; i++) {
+            className.append(toIdentifier(segments[i])).append('.');
+        }
+
+        String simpleName = toIdentifier(segments[segments.length - 1]);
+        className.append(Character.toUpperCase(simpleName.charAt(0)))
+                .append(simpleName.substring(1))
+                .append("Template");
+
+        return className.toString();
+    }
+
+    /**
+     * @param templateName The name of the template relative to the classpath
+     * @param source The content of the template
+     * @return The Java source of the compiled template
+     * @throws TemplateCompilerException If the template is invalid
+     */
+    public String compile(String templateName, String source) {
+        return new Compilation(templateName, source).compile();
+    }
+
+    private static String toIdentifier(String name) {
+        StringBuilder identifier = new StringBuilder(name.length() + 1);
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            identifier.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+
+        if (identifier.length() == 0
+                || !Character.isJavaIdentifierStart(identifier.charAt(0))) {
+            identifier.insert(0, '_');
+        }
+
+        if (JAVA_KEYWORDS.contains(identifier.toString())) {
+            identifier.append('_');
+        }
+
+        return identifier.toString();
+    }
+
+    static String toJavaLiteral(String text) {
+        StringBuilder literal = new StringBuilder(text.length() + 2).append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    private class Compilation {
+
+        private final String templateName;
+        private final String source;
+        private final List<String> imports = new ArrayList<>();
+        private final Map<String, String> chunks = new LinkedHashMap<>();
+        private final StringBuilder body = new StringBuilder();
+        // open blocks ("if" / "for") and the lines they were opened at
+        private final Deque<String> blocks = new ArrayDeque<>();
+        private final Deque<Integer> blockLines = new ArrayDeque<>();
+        private String modelType;
+        private int indent = 2;
+        private int countedPosition;
+        private int countedLine = 1;
+
+        Compilation(String templateName, String source) {
+            this.templateName = templateName;
+            this.source = source;
+        }
+
+        String compile() {
+            int position = 0;
+
+            while (position < source.length()) {
+                int start = source.indexOf("{{", position);
+
+                if (start < 0) {
+                    appendChunk(source.substring(position));
+                    break;
+                }
+
+                appendChunk(source.substring(position, start));
+
+                int line = lineAt(start);
+
+                if (source.startsWith("{{--", start)) {
+                    int end = source.indexOf("--}}", start + 4);
+                    if (end < 0) {
+                        throw error("Unclosed comment", line);
+                    }
+                    position = end + 4;
+                    continue;
+                }
+
+                int end = source.indexOf("}}", start + 2);
+                if (end < 0) {
+                    throw error("Unclosed tag", line);
+                }
+
+                appendTag(source.substring(start + 2, end).trim(), line);
+                position = end + 2;
+            }
+
+            if (!blocks.isEmpty()) {
+                throw error("Unclosed {{#" + blocks.peek() + "}}", blockLines.peek());
+            }
+
+            if (modelType == null) {
+                throw error("Missing {{@model ...}}", 1);
+            }
+
+            return toJava();
+        }
+
+        private void appendTag(String tag, int line) {
+            if (tag.isEmpty()) {
+                throw error("Empty tag", line);
+            }
+
+            if (tag.startsWith("@model ")) {
+                if (modelType != null) {
+                    throw error("Duplicate {{@model ...}}", line);
+                }
+                modelType = tag.substring(7).trim();
+            } else if (tag.startsWith("@import ")) {
+                imports.add(tag.substring(8).trim());
+            } else if (tag.startsWith("#if ")) {
+                appendStatement("if (" + tag.substring(4).trim() + ") {", line);
+                open("if", line);
+            } else if (tag.startsWith("#elseif ")) {
+                checkOpen("if", "{{#elseif}}", line);
+                indent--;
+                appendStatement("} else if (" + tag.substring(8).trim() + ") {", line);
+                indent++;
+            } else if (tag.equals("#else")) {
+                checkOpen("if", "{{#else}}", line);
+                indent--;
+                appendStatement("} else {", line);
+                indent++;
+            } else if (tag.equals("/if")) {
+                close("if", line);
+            } else if (tag.startsWith("#for ")) {
+                appendStatement("for (" + tag.substring(5).trim() + ") {", line);
+                open("for", line);
+            } else if (tag.equals("/for")) {
+                close("for", line);
+            } else if (tag.startsWith("#") || tag.startsWith("/") || tag.startsWith("@")) {
+                throw error("Unknown tag {{" + tag + "}}", line);
+            } else if (tag.startsWith("!")) {
+                appendStatement("out.writeRaw(" + tag.substring(1).trim() + ");", line);
+            } else {
+                appendStatement("out.writeEscaped(" + tag + ");", line);
+            }
+        }
+
+        private void open(String block, int line) {
+            blocks.push(block);
+            blockLines.push(line);
+            indent++;
+        }
+
+        private void checkOpen(String block, String tag, int line) {
+            if (!block.equals(blocks.peek())) {
+                throw error(tag + " without {{#" + block + "}}", line);
+            }
+        }
+
+        private void close(String block, int line) {
+            checkOpen(block, "{{/" + block + "}}", line);
+            blocks.pop();
+            blockLines.pop();
+            indent--;
+            appendStatement("}", line);
+        }
+
+        private void appendChunk(String text) {
+            if (text.isEmpty()) {
+                return;
+            }
+
+            String constant = chunks.get(text);
+            if (constant == null) {
+                constant = "CHUNK_" + chunks.size();
+                chunks.put(text, constant);
+            }
+
+            appendIndent();
+            body.append("out.write(").append(constant).append(");\n");
+        }
+
+        private void appendStatement(String statement, int line) {
+            appendIndent();
+            // lets errors of javac point back to the template
+            body.append(statement).append(" // line ").append(line).append('\n');
+        }
+
+        private void appendIndent() {
+            for (int i = 0; i < indent; i++) {
+                body.append("    ");
+            }
+        }
+
+        private String toJava() {
+            String className = getClassName(templateName);
+            int lastDot = className.lastIndexOf('.');
+            String packageName = lastDot > 0 ? className.substring(0, lastDot) : null;
+            String simpleName = className.substring(lastDot + 1);
+            int generic = modelType.indexOf('<');
+            String rawModelType = generic > 0 ? modelType.substring(0, generic) : modelType;
+
+            StringBuilder java = new StringBuilder();
+
+            java.append("// Generated from ").append(templateName).append(". Do not edit.\n");
+            if (packageName != null) {
+                java.append("package ").append(packageName).append(";\n");
+            }
+            java.append('\n');
+            for (String importName : imports) {
+                java.append("import ").append(importName).append(";\n");
+            }
+            if (!imports.isEmpty()) {
+                java.append('\n');
+            }
+            java.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            java.append("public final class ").append(simpleName)
+                    .append(" implements ninja.template.compiled.CompiledTemplate<")
+                    .append(modelType).append("> {\n\n");
+
+            for (Map.Entry<String, String> chunk : chunks.entrySet()) {
+                java.append("    private static final byte[] ").append(chunk.getValue())
+                        .append(" = ninja.template.compiled.CompiledTemplateWriter.encode(");
+                String text = chunk.getKey();
+                for (int i = 0; i < text.length(); i += MAX_LITERAL_LENGTH) {
+                    if (i > 0) {
+                        java.append(",\n            ");
+                    }
+                    java.append(toJavaLiteral(text.substring(i, Math.min(text.length(), i + MAX_LITERAL_LENGTH))));
+                }
+                java.append(");\n");
+            }
+
+            java.append('\n');
+            java.append("    @Override\n");
+            java.append("    public Class<").append(modelType).append("> getModelType() {\n");
+            java.append("        return (Class) ").append(rawModelType).append(".class;\n");
+            java.append("    }\n\n");
+            java.append("    @Override\n");
+            java.append("    public void render(ninja.Context context, ")
+                    .append(modelType)
+                    .append(" model, ninja.template.compiled.CompiledTemplateWriter out) throws java.io.IOException {\n");
+            java.append(body);
+            java.append("    }\n\n");
+            java.append("}\n");
+
+            return java.toString();
+        }
+
+        // tags are visited in order, so lines are only counted once
+        private int lineAt(int position) {
+            for (; countedPosition < position; countedPosition++) {
+                if (source.charAt(countedPosition) == '\n') {
+                    countedLine++;
+                }
+            }
+            return countedLine;
+        }
+
+        private TemplateCompilerException error(String message, int line) {
+            return new TemplateCompilerException(message, templateName, line);
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.compiled;
+
+/**
+ * A template that can't be compiled.
+ */
+public class TemplateCompilerException extends RuntimeException {
+
+    private final String templateName;
+    private final int lineNumber;
+
+    public TemplateCompilerException(String message, String templateName, int lineNumber) {
+        super(templateName + ":" + lineNumber + ": " + message);
+        this.templateName = templateName;
+        this.lineNumber = lineNumber;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+}
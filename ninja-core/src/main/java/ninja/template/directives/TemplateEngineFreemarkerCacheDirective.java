@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.directives;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import ninja.Context;
+import ninja.cache.Cache;
+import ninja.session.Session;
+import ninja.utils.TimeUtil;
+
+import com.google.inject.Provider;
+
+import freemarker.core.Environment;
+import freemarker.template.TemplateDirectiveBody;
+import freemarker.template.TemplateDirectiveModel;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateNumberModel;
+import freemarker.template.TemplateScalarModel;
+
+/**
+ * Caches the rendered body in the configured {@link Cache}.
+ * 
+ * <pre>
+ * &lt;@cache key="navigation" ttl="10m" vary="lang"&gt;
+ *     ...
+ * &lt;/@cache&gt;
+ * </pre>
+ * 
+ * <ul>
+ * <li>key - the name of the fragment (required)</li>
+ * <li>ttl - "30s", "10m", "2h", "1d" or a number of seconds (required)</li>
+ * <li>vary - "lang", "session" or "lang,session" to cache the fragment per
+ * language and / or per session (optional)</li>
+ * </ul>
+ * 
+ * Use an instrumented cache implementation (e.g.
+ * ninja.metrics.InstrumentedEhCache) to see the hit rate of the fragments.
+ */
+@SuppressWarnings("rawtypes")
+public class TemplateEngineFreemarkerCacheDirective implements TemplateDirectiveModel {
+    
+    static final String KEY_PREFIX = "ninja.fragment:";
+    
+    static final String ANONYMOUS = "anonymous";
+    
+    private final Provider<Cache> cacheProvider;
+    private final Context context;
+    private final boolean enabled;
+
+    /**
+     * @param cacheProvider Provider of the cache to store fragments in
+     * @param context The context of the request
+     * @param enabled If false the body is rendered on every request
+     *      (e.g. in dev mode so that changes of the template show up)
+     */
+    public TemplateEngineFreemarkerCacheDirective(Provider<Cache> cacheProvider,
+                                                  Context context,
+                                                  boolean enabled) {
+        this.cacheProvider = cacheProvider;
+        this.context = context;
+        this.enabled = enabled;
+    }
+    
+    @Override
+    public void execute(Environment env, Map params, TemplateModel[] loopVars, TemplateDirectiveBody body) throws TemplateException, IOException {
+        if (loopVars.length != 0) {
+            throw new TemplateModelException("This directive doesn't allow loop variables.");
+        }
+        
+        if (body == null) {
+            throw new TemplateModelException("This directive needs a body to cache.");
+        }
+        
+        for (Object name : params.keySet()) {
+            if (!"key".equals(name) && !"ttl".equals(name) && !"vary".equals(name)) {
+                throw new TemplateModelException("Unsupported parameter '" + name + "'. Use key, ttl and vary.");
+            }
+        }
+        
+        String key = getString(params, "key");
+        int ttl = getTtl(params);
+        
+        if (!enabled) {
+            body.render(env.getOut());
+            return;
+        }
+        
+        String cacheKey = getCacheKey(env, key, (TemplateModel) params.get("vary"));
+        
+        if (cacheKey == null) {
+            body.render(env.getOut());
+            return;
+        }
+        
+        Cache cache = cacheProvider.get();
+        
+        Object fragment = cache.get(cacheKey);
+        
+        if (!(fragment instanceof String)) {
+            StringWriter buffer = new StringWriter();
+            body.render(buffer);
+            fragment = buffer.toString();
+            cache.set(cacheKey, fragment, ttl);
+        }
+        
+        env.getOut().write((String) fragment);
+    }
+    
+    /**
+     * @return The key of the fragment or null if it must not be cached
+     */
+    private String getCacheKey(Environment env, String key, TemplateModel vary) throws TemplateModelException {
+        StringBuilder cacheKey = new StringBuilder(KEY_PREFIX).append(key);
+        
+        if (vary == null) {
+            return cacheKey.toString();
+        }
+        
+        if (!(vary instanceof TemplateScalarModel)) {
+            throw new TemplateModelException("Parameter 'vary' must be a string.");
+        }
+        
+        for (String part : ((TemplateScalarModel) vary).getAsString().split(",")) {
+            switch (part.trim()) {
+                case "lang":
+                    // same language as ${lang}
+                    TemplateModel lang = env.getDataModel().get("lang");
+                    cacheKey.append(":lang=").append(
+                            lang instanceof TemplateScalarModel ? ((TemplateScalarModel) lang).getAsString() : "");
+                    break;
+                case "session":
+                    // getId() would start a session for every anonymous visitor
+                    Session session = context.getSession();
+                    String sessionId = session.get(Session.ID_KEY);
+                    if (sessionId != null) {
+                        cacheKey.append(":session=").append(sessionId);
+                    } else if (session.isEmpty()) {
+                        cacheKey.append(":session=").append(ANONYMOUS);
+                    } else {
+                        // data of a session without id must not be shared
+                        return null;
+                    }
+                    break;
+                default:
+                    throw new TemplateModelException("Unsupported value '" + part + "' of parameter 'vary'. Use lang and / or session.");
+            }
+        }
+        
+        return cacheKey.toString();
+    }
+    
+    private int getTtl(Map params) throws TemplateModelException {
+        Object ttl = params.get("ttl");
+        
+        if (ttl instanceof TemplateNumberModel) {
+            return ((TemplateNumberModel) ttl).getAsNumber().intValue();
+        }
+        
+        try {
+            return TimeUtil.parseDuration(getString(params, "ttl"));
+        } catch (IllegalArgumentException e) {
+            throw new TemplateModelException("Parameter 'ttl' is not a valid duration: " + e.getMessage());
+        }
+    }
+    
+    private String getString(Map params, String name) throws TemplateModelException {
+        Object value = params.get(name);
+        
+        if (!(value instanceof TemplateScalarModel)) {
+            throw new TemplateModelException("This directive needs the string parameter '" + name + "'.");
+        }
+        
+        return ((TemplateScalarModel) value).getAsString();
+    }
+}
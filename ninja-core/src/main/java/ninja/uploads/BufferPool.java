@@ -0,0 +1,69 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of equally sized byte buffers. Buffers are created on demand
+ * and only as many free buffers as the pool has room for are kept.
+ */
+final class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    /**
+     * @param bufferSize The size of every buffer
+     * @param maxPooled The number of free buffers kept for reuse. 0 disables
+     *      pooling.
+     */
+    BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be > 0");
+        }
+        this.bufferSize = bufferSize;
+        this.buffers = maxPooled > 0 ? new ArrayBlockingQueue<>(maxPooled) : null;
+    }
+
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return A pooled or new buffer. Its content is undefined.
+     */
+    byte[] acquire() {
+        byte[] buffer = (buffers != null ? buffers.poll() : null);
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * Returns a buffer to the pool. It must not be used afterwards.
+     */
+    void release(byte[] buffer) {
+        if (buffers != null && buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    int getPooledCount() {
+        return buffers != null ? buffers.size() : 0;
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemStream;
+
+/**
+ * {@link FileItem} whose content is a temporary file on disk. The file is
+ * deleted by {@link #cleanup()}, unless it has been moved by
+ * {@link #transferTo(Path)}.
+ */
+final class DiskFileItem implements FileItem {
+
+    private final String name;
+    private final String contentType;
+    private final FileItemHeaders headers;
+    private final File tmpFile;
+    // where the content is now, the target of transferTo(Path) once moved
+    private volatile File file;
+
+    DiskFileItem(FileItemStream item, File tmpFile) {
+        this.name = item.getName();
+        this.contentType = item.getContentType();
+        this.headers = item.getHeaders();
+        this.tmpFile = tmpFile;
+        this.file = tmpFile;
+    }
+
+    @Override
+    public String getFileName() {
+        return name;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException("Failed to read temporary uploaded file from disk", e);
+        }
+    }
+
+    @Override
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public FileItemHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public synchronized void transferTo(Path target) throws IOException {
+        if (file == tmpFile) {
+            if (FileTransfers.moveOrCopy(tmpFile.toPath(), target)) {
+                file = target.toFile();
+            }
+        } else {
+            // moved before, the user owns that file now
+            FileTransfers.copy(file.toPath(), target);
+        }
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel target) throws IOException {
+        return FileTransfers.transferTo(file.toPath(), target);
+    }
+
+    @Override
+    public void cleanup() {
+        // try to delete temporary file, silently fail on error
+        try {
+            tmpFile.delete();
+        } catch (Exception e) {
+        }
+    }
+
+}
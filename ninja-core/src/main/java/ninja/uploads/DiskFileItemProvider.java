@@ -17,8 +17,6 @@
 package ninja.uploads;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -27,7 +25,6 @@ import java.nio.file.StandardCopyOption;
 import ninja.utils.NinjaConstant;
 import ninja.utils.NinjaProperties;
 
-import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemStream;
 
 import com.google.inject.Inject;
@@ -50,14 +47,23 @@ public class DiskFileItemProvider implements FileItemProvider {
 
     @Inject
     public DiskFileItemProvider(NinjaProperties ninjaProperties) {
+        this.tmpFolder = createTempFolder(ninjaProperties);
+    }
+
+    /**
+     * @return The folder configured by "uploads.temp_folder" or the system's
+     *      temporary folder. Created if it does not exist.
+     */
+    static File createTempFolder(NinjaProperties ninjaProperties) {
         String tempName = ninjaProperties.get(NinjaConstant.UPLOADS_TEMP_FOLDER);
         if (tempName == null) {
             tempName = System.getProperty("java.io.tmpdir");
         }
-        this.tmpFolder = new File(tempName);
+        File tmpFolder = new File(tempName);
         if (!tmpFolder.exists()) {
             tmpFolder.mkdirs();
         }
+        return tmpFolder;
     }
     
     @Override
@@ -73,46 +79,7 @@ public class DiskFileItemProvider implements FileItemProvider {
             throw new RuntimeException("Failed to create temporary uploaded file on disk", e);
         }
 
-        // return
-        final String name = item.getName();
-        final File file = tmpFile;
-        final String contentType = item.getContentType();
-        final FileItemHeaders headers = item.getHeaders();
-        
-        return new FileItem() {
-            @Override
-            public String getFileName() {
-                return name;
-            }
-            @Override
-            public InputStream getInputStream() {
-                try {
-                    return new FileInputStream(file);
-                } catch (FileNotFoundException e) {
-                    throw new RuntimeException("Failed to read temporary uploaded file from disk", e);
-                }
-            }
-            @Override
-            public File getFile() {
-                return file;
-            }
-            @Override
-            public String getContentType() {
-                return contentType;
-            }
-            @Override
-            public FileItemHeaders getHeaders() {
-                return headers;
-            }
-            @Override
-            public void cleanup() {
-                // try to delete temporary file, silently fail on error
-                try {
-                    file.delete();
-                } catch (Exception e) {
-                }
-            }
-        };
+        return new DiskFileItem(item, tmpFile);
 
     }
 
@@ -17,7 +17,16 @@
 package ninja.uploads;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import org.apache.commons.fileupload.FileItemHeaders;
 
@@ -60,6 +69,44 @@ public interface FileItem {
      */
     FileItemHeaders getHeaders();
     
+    /**
+     * Saves the content of the file to the given path, replacing an existing
+     * file. Files on disk are moved there if possible instead of copied, so
+     * the target is where the content of this item is afterwards. Files in
+     * memory are written directly from their buffers.
+     * 
+     * @param target The file to write
+     * @throws IOException If the content could not be saved
+     */
+    default void transferTo(Path target) throws IOException {
+        try (InputStream is = getInputStream()) {
+            Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Writes the content of the file to the given channel. Files on disk are
+     * transferred by the operating system if the channel supports it.
+     * 
+     * @param target The channel to write to. It is not closed.
+     * @return The number of bytes written
+     * @throws IOException If the content could not be written
+     */
+    default long transferTo(WritableByteChannel target) throws IOException {
+        try (InputStream is = getInputStream()) {
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            ReadableByteChannel source = Channels.newChannel(is);
+            long written = 0;
+            while (source.read(buffer) != -1) {
+                // cast so the calls link against Buffer on Java 8
+                ((Buffer) buffer).flip();
+                written += FileTransfers.write(buffer, target);
+                ((Buffer) buffer).clear();
+            }
+            return written;
+        }
+    }
+    
     /**
      * Cleanup resources if needed.
      */
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helpers to persist uploaded files without copying them through
+ * intermediate buffers.
+ */
+final class FileTransfers {
+
+    private FileTransfers() {
+    }
+
+    /**
+     * Moves the file atomically if the target is on the same file store,
+     * otherwise copies it.
+     *
+     * @return true if the file was moved, false if it was copied
+     */
+    static boolean moveOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            copy(source, target);
+            return false;
+        }
+    }
+
+    /**
+     * Copies the file with {@link FileChannel#transferTo}, which lets the
+     * operating system copy the bytes. Replaces an existing target.
+     */
+    static void copy(Path source, Path target) throws IOException {
+        try (FileChannel channel = openForWriting(target)) {
+            transferTo(source, channel);
+        }
+    }
+
+    static long transferTo(Path source, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        }
+    }
+
+    static long write(ByteBuffer buffer, WritableByteChannel target) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer);
+        }
+        return written;
+    }
+
+    static FileChannel openForWriting(Path target) throws IOException {
+        return FileChannel.open(target,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    }
+
+}
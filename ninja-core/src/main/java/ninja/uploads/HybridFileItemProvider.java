@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemStream;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * {@link FileItemProvider} that keeps small uploaded files in memory and saves
+ * larger ones on disk. A file is read into pooled buffers until it exceeds
+ * "uploads.memory_threshold" bytes; only then a temporary file is created
+ * in "uploads.temp_folder" and the rest of the file is written to it.
+ * <br><br>
+ * Buffers are returned to the pool and temporary files are deleted at the end
+ * of the request. Buffers still read through a stream from
+ * {@link FileItem#getInputStream()} are returned once that stream is closed.
+ */
+@Singleton
+public class HybridFileItemProvider implements FileItemProvider {
+
+    static final int DEFAULT_MEMORY_THRESHOLD = 64 * 1024;
+    static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+    static final int DEFAULT_BUFFER_POOL_SIZE = 256;
+
+    private final File tmpFolder;
+    private final long memoryThreshold;
+    private final BufferPool bufferPool;
+
+    @Inject
+    public HybridFileItemProvider(NinjaProperties ninjaProperties) {
+        this.tmpFolder = DiskFileItemProvider.createTempFolder(ninjaProperties);
+        this.memoryThreshold = ninjaProperties.getIntegerWithDefault(
+            NinjaConstant.UPLOADS_MEMORY_THRESHOLD, DEFAULT_MEMORY_THRESHOLD);
+        this.bufferPool = new BufferPool(
+            ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_SIZE, DEFAULT_BUFFER_SIZE),
+            ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_POOL_SIZE, DEFAULT_BUFFER_POOL_SIZE));
+    }
+
+    @Override
+    public FileItem create(FileItemStream item) {
+
+        List<byte[]> buffers = new ArrayList<>();
+        long size = 0;
+
+        try (InputStream is = item.openStream()) {
+
+            // fill buffers until the stream ends or the threshold is exceeded
+            while (size <= memoryThreshold) {
+                byte[] buffer = bufferPool.acquire();
+                buffers.add(buffer);
+
+                int length = readFully(is, buffer);
+                size += length;
+
+                if (length < buffer.length) {
+                    break;
+                }
+            }
+
+            if (size <= memoryThreshold) {
+                return new MemoryItem(item, buffers, size);
+            }
+
+            return new DiskFileItem(item, spill(buffers, size, is));
+
+        } catch (IOException e) {
+            release(buffers);
+            throw new RuntimeException("Failed to create temporary uploaded file", e);
+        }
+
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    private File spill(List<byte[]> buffers, long size, InputStream is) throws IOException {
+        File tmpFile = File.createTempFile("nju", null, tmpFolder);
+
+        try (OutputStream os = Files.newOutputStream(tmpFile.toPath())) {
+            long remaining = size;
+            for (byte[] buffer : buffers) {
+                int length = (int) Math.min(buffer.length, remaining);
+                os.write(buffer, 0, length);
+                remaining -= length;
+            }
+
+            // reuse the last buffer for the remaining bytes
+            byte[] buffer = buffers.get(buffers.size() - 1);
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                os.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw e;
+        } finally {
+            release(buffers);
+        }
+
+        return tmpFile;
+    }
+
+    private void release(List<byte[]> buffers) {
+        for (byte[] buffer : buffers) {
+            bufferPool.release(buffer);
+        }
+        buffers.clear();
+    }
+
+    private static int readFully(InputStream is, byte[] buffer) throws IOException {
+        int offset = 0;
+        int length;
+        while (offset < buffer.length
+                && (length = is.read(buffer, offset, buffer.length - offset)) != -1) {
+            offset += length;
+        }
+        return offset;
+    }
+
+    private final class MemoryItem implements FileItem {
+
+        private final String name;
+        private final String contentType;
+        private final FileItemHeaders headers;
+        private List<byte[]> buffers;
+        private final long size;
+        // written on demand if getFile() is called
+        private File file;
+        // buffers go back to the pool only once no stream reads them anymore
+        private int openStreams;
+        private boolean cleanedUp;
+
+        MemoryItem(FileItemStream item, List<byte[]> buffers, long size) {
+            this.name = item.getName();
+            this.contentType = item.getContentType();
+            this.headers = item.getHeaders();
+            this.buffers = buffers;
+            this.size = size;
+        }
+
+        @Override
+        public String getFileName() {
+            return name;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public FileItemHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() {
+            if (cleanedUp) {
+                throw new IllegalStateException("Uploaded file has already been cleaned up");
+            }
+
+            List<InputStream> streams = new ArrayList<>(buffers.size());
+            long remaining = size;
+            for (byte[] buffer : buffers) {
+                int length = (int) Math.min(buffer.length, remaining);
+                streams.add(new ByteArrayInputStream(buffer, 0, length));
+                remaining -= length;
+            }
+
+            openStreams++;
+
+            return new SequenceInputStream(Collections.enumeration(streams)) {
+
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    if (!closed) {
+                        closed = true;
+                        streamClosed();
+                    }
+                }
+
+            };
+        }
+
+        private synchronized void streamClosed() {
+            openStreams--;
+            releaseBuffersIfUnused();
+        }
+
+        // buffers of streams that are never closed are left to the gc
+        private void releaseBuffersIfUnused() {
+            if (cleanedUp && openStreams == 0 && buffers != null) {
+                release(buffers);
+                buffers = null;
+            }
+        }
+
+        @Override
+        public synchronized File getFile() {
+            if (file == null) {
+                try {
+                    File tmpFile = File.createTempFile("nju", null, tmpFolder);
+                    transferTo(tmpFile.toPath());
+                    file = tmpFile;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to create temporary uploaded file on disk", e);
+                }
+            }
+            return file;
+        }
+
+        @Override
+        public void transferTo(Path target) throws IOException {
+            try (FileChannel channel = FileTransfers.openForWriting(target)) {
+                transferTo(channel);
+            }
+        }
+
+        @Override
+        public synchronized long transferTo(WritableByteChannel target) throws IOException {
+            if (cleanedUp) {
+                throw new IllegalStateException("Uploaded file has already been cleaned up");
+            }
+
+            long written = 0;
+            for (byte[] buffer : buffers) {
+                int length = (int) Math.min(buffer.length, size - written);
+                written += FileTransfers.write(ByteBuffer.wrap(buffer, 0, length), target);
+            }
+            return written;
+        }
+
+        @Override
+        public synchronized void cleanup() {
+            cleanedUp = true;
+            releaseBuffersIfUnused();
+            if (file != null) {
+                file.delete();
+                file = null;
+            }
+        }
+
+    }
+
+}
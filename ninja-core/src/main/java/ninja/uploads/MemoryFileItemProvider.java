@@ -21,6 +21,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 
 import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemStream;
@@ -78,6 +82,16 @@ public class MemoryFileItemProvider implements FileItemProvider {
                 return headers;
             }
             @Override
+            public void transferTo(Path target) throws IOException {
+                try (FileChannel channel = FileTransfers.openForWriting(target)) {
+                    transferTo(channel);
+                }
+            }
+            @Override
+            public long transferTo(WritableByteChannel target) throws IOException {
+                return FileTransfers.write(ByteBuffer.wrap(bytes), target);
+            }
+            @Override
             public void cleanup() {
             }
         };
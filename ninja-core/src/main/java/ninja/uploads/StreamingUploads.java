@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Leaves uploaded files in the request instead of handing them to a
+ * {@link FileItemProvider}. Form fields sent before the first file are read
+ * as usual and available as parameters. The files (and any form field after
+ * them) are pulled one at a time by the controller via
+ * {@link ninja.Context#getStreamingFileItemIterator()}, so they can be piped
+ * to their destination without being copied to memory or temporary files.
+ * 
+ * The limits <code>uploads.max_file_size</code> and
+ * <code>uploads.max_total_size</code> are enforced while the streams are read.
+ * A {@link FileProvider} on the controller method takes precedence over this
+ * annotation on the controller class.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface StreamingUploads {
+}
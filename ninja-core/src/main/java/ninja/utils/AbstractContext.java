@@ -23,11 +23,13 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import ninja.bodyparser.BodyParserEngine;
 import ninja.bodyparser.BodyParserEngineManager;
+import ninja.bodyparser.StreamingBodyParserEngine;
 import ninja.params.ParamParsers;
 import ninja.session.FlashScope;
 import ninja.session.Session;
@@ -42,8 +44,10 @@ import com.google.inject.Injector;
 import ninja.ContentTypes;
 import ninja.Context;
 import ninja.Cookie;
+import ninja.Deadline;
 import ninja.Result;
 import ninja.Route;
+import ninja.RouteMatch;
 
 /**
  * Abstract Context.Impl that implements features that are not reliant
@@ -73,6 +77,9 @@ abstract public class AbstractContext implements Context.Impl {
     final protected ParamParsers paramParsers;
 
     protected Route route;
+    // path parameters captured while routing (null if only a route was set)
+    protected RouteMatch routeMatch;
+    private Optional<Deadline> deadline = Optional.empty();
     // in async mode these values will be set to null so its critical they
     // are saved when a context is initialized
     private String requestPath;
@@ -110,6 +117,15 @@ abstract public class AbstractContext implements Context.Impl {
     @Override
     public void setRoute(Route route) {
         this.route = route;
+        this.routeMatch = null;
+        this.deadline = deadlineOf(route);
+    }
+    
+    @Override
+    public void setRouteMatch(RouteMatch routeMatch) {
+        this.routeMatch = routeMatch;
+        this.route = routeMatch != null ? routeMatch.getRoute() : null;
+        this.deadline = deadlineOf(route);
     }
     
     @Override
@@ -117,6 +133,19 @@ abstract public class AbstractContext implements Context.Impl {
         return route;
     }
     
+    @Override
+    public Optional<Deadline> getDeadline() {
+        return deadline;
+    }
+    
+    private static Optional<Deadline> deadlineOf(Route route) {
+        if (route == null || !route.getTimeout().isPresent()) {
+            return Optional.empty();
+        }
+        
+        return Optional.of(Deadline.after(route.getTimeout().get()));
+    }
+    
     @Override
     public Validation getValidation() {
         return validation;
@@ -198,18 +227,40 @@ abstract public class AbstractContext implements Context.Impl {
 
     @Override
     public String getPathParameter(String key) {
-        String encodedParameter = route.getPathParametersEncoded(
-                getRequestPath()).get(key);
+        String encodedParameter = getPathParameterEncoded(key);
 
         if (encodedParameter == null) {
             return null;
+        } else if (isUnreserved(encodedParameter)) {
+            // nothing to decode (e.g. numbers or uuids)
+            return encodedParameter;
         } else {
             return URI.create(encodedParameter).getPath();
         }
     }
 
+    /**
+     * @return True if the value consists of unreserved characters (RFC 3986)
+     *      only. Decoding returns such values unchanged.
+     */
+    private static boolean isUnreserved(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z')
+                    || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9')
+                    || c == '-' || c == '.' || c == '_' || c == '~')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String getPathParameterEncoded(String key) {
+        if (routeMatch != null) {
+            return routeMatch.getPathParameterEncoded(key);
+        }
         return route.getPathParametersEncoded(getRequestPath()).get(key);
     }
 
@@ -267,6 +318,37 @@ abstract public class AbstractContext implements Context.Impl {
     @Override
     public <T> T parseBody(Class<T> classOfT) {
 
+        BodyParserEngine bodyParserEngine = getBodyParserEngine();
+
+        if (bodyParserEngine == null) {
+            return null;
+        }
+
+        return bodyParserEngine.invoke(this, classOfT);
+
+    }
+
+    @Override
+    public <T> Stream<T> parseBodyAsStream(Class<T> classOfT) {
+
+        BodyParserEngine bodyParserEngine = getBodyParserEngine();
+
+        if (bodyParserEngine == null) {
+            return Stream.empty();
+        }
+
+        if (bodyParserEngine instanceof StreamingBodyParserEngine) {
+            return ((StreamingBodyParserEngine) bodyParserEngine).invokeAsStream(this, classOfT);
+        }
+
+        T body = bodyParserEngine.invoke(this, classOfT);
+
+        return body != null ? Stream.of(body) : Stream.empty();
+
+    }
+
+    private BodyParserEngine getBodyParserEngine() {
+
         String rawContentType = getRequestContentType();
 
         // If the Content-type: xxx header is not set we return null.
@@ -286,10 +368,9 @@ abstract public class AbstractContext implements Context.Impl {
 
         if (bodyParserEngine == null) {
             logger.debug("No BodyParserEngine found for Content-Type {} at route {}", contentTypeOnly, getRequestPath());
-            return null;
         }
 
-        return bodyParserEngine.invoke(this, classOfT);
+        return bodyParserEngine;
 
     }
 
@@ -45,5 +45,19 @@ public interface HttpCacheToolkit {
      * @param lastModified Last modified => In that case used to generate etag.
      */
     void addEtag(Context context, Result result, Long lastModified);
+
+    /**
+     * Adds etag to a result that is sent with a content coding. Variants of
+     * a resource in different content codings must not share a strong etag.
+     * 
+     * @param context The context
+     * @param result The result to populate with etag
+     * @param lastModified Last modified => In that case used to generate etag.
+     * @param contentEncoding The content coding of the result (e.g. gzip) or
+     *          null if it is sent as is
+     */
+    default void addEtag(Context context, Result result, Long lastModified, String contentEncoding) {
+        addEtag(context, result, lastModified);
+    }
     
 }
@@ -77,6 +77,11 @@ public class HttpCacheToolkitImpl implements HttpCacheToolkit {
     }
 
     public void addEtag(Context context, Result result, Long lastModified) {
+        addEtag(context, result, lastModified, null);
+    }
+
+    @Override
+    public void addEtag(Context context, Result result, Long lastModified, String contentEncoding) {
 
         if (!ninjaProperties.isProd()) {
             result.addHeader(HttpHeaderConstants.CACHE_CONTROL, "no-cache");
@@ -100,7 +105,9 @@ public class HttpCacheToolkitImpl implements HttpCacheToolkit {
             // ETag right now is only lastModified long.
             // maybe we change that in the future.
             etag = "\""
-                    + lastModified.toString() + "\"";
+                    + lastModified.toString()
+                    + (contentEncoding != null ? "-" + contentEncoding : "")
+                    + "\"";
             result.addHeader(HttpHeaderConstants.ETAG, etag);
             
         }
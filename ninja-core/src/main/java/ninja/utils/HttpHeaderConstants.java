@@ -32,6 +32,12 @@ public interface HttpHeaderConstants {
 
     String LAST_MODIFIED = "Last-Modified";
     
+    String ACCEPT_ENCODING = "Accept-Encoding";
+    
+    String CONTENT_ENCODING = "Content-Encoding";
+    
+    String VARY = "Vary";
+    
     String SEC_WEBSOCKET_PROTOCOL = "Sec-WebSocket-Protocol";
 
 }
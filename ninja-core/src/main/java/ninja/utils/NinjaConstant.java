@@ -41,12 +41,14 @@ public interface NinjaConstant {
     String LOCATION_VIEW_FTL_HTML_INTERNAL_SERVER_ERROR = "views/system/500internalServerError.ftl.html";
     String LOCATION_VIEW_FTL_HTML_UNAUTHORIZED = "views/system/401unauthorized.ftl.html";
     String LOCATION_VIEW_FTL_HTML_FORBIDDEN = "views/system/403forbidden.ftl.html";
+    String LOCATION_VIEW_FTL_HTML_SERVICE_UNAVAILABLE = "views/system/503serviceUnavailable.ftl.html";
     
     String LOCATION_VIEW_HTML_NOT_FOUND_KEY = "application.views.404notFound";
     String LOCATION_VIEW_HTML_BAD_REQUEST_KEY = "application.views.400badRequest";
     String LOCATION_VIEW_HTML_INTERNAL_SERVER_ERROR_KEY = "application.views.500internalServerError";
     String LOCATION_VIEW_HTML_UNAUTHORIZED_KEY = "application.views.401unauthorized";
     String LOCATION_VIEW_HTML_FORBIDDEN_KEY = "application.views.403forbidden";
+    String LOCATION_VIEW_HTML_SERVICE_UNAVAILABLE_KEY = "application.views.503serviceUnavailable";
     
     // i18n keys and default messages of Ninja
     // create the keys in your own messages.properties file to customize the message
@@ -64,6 +66,9 @@ public interface NinjaConstant {
 
     String I18N_NINJA_SYSTEM_FORBIDDEN_REQUEST_TEXT_KEY = "ninja.system.forbidden.text";
     String I18N_NINJA_SYSTEM_FORBIDDEN_REQUEST_TEXT_DEFAULT = "Oops. That''s forbidden and all we know.";
+
+    String I18N_NINJA_SYSTEM_SERVICE_UNAVAILABLE_TEXT_KEY = "ninja.system.service_unavailable.text";
+    String I18N_NINJA_SYSTEM_SERVICE_UNAVAILABLE_TEXT_DEFAULT = "Oops. We are too busy right now. Please try again later.";
     
     /**
      * If false it will allow null as argument in controller methods. 
@@ -75,6 +80,111 @@ public interface NinjaConstant {
      * More: https://www.ninjaframework.org/documentation/basic_concepts/controllers.html
      */
     String NINJA_STRICT_ARGUMENT_EXTRACTORS = "ninja.strict_argument_extractors";
+    
+    /**
+     * Number of (http method, request path) pairs the router caches together
+     * with their resolved route and path parameters. The cache is disabled
+     * if not set or set to 0.
+     * 
+     * ninja.router.cache_size=4096
+     */
+    String NINJA_ROUTER_CACHE_SIZE = "ninja.router.cache_size";
+
+    /**
+     * Number of serialized renderables annotated with
+     * {@link ninja.template.CacheableJson} that are kept to answer json
+     * requests without serializing them again. The cache is disabled if not
+     * set or set to 0.
+     * 
+     * ninja.json.cache_size=1000
+     */
+    String NINJA_JSON_CACHE_SIZE = "ninja.json.cache_size";
+
+    /**
+     * Compresses responses with gzip or deflate if the client accepts it.
+     * Default is false, e.g. because a reverse proxy already compresses.
+     * 
+     * ninja.compression=true
+     */
+    String NINJA_COMPRESSION = "ninja.compression";
+
+    /**
+     * Responses smaller than this number of bytes are sent uncompressed.
+     * Default is 1024.
+     * 
+     * ninja.compression.min_size=1024
+     */
+    String NINJA_COMPRESSION_MIN_SIZE = "ninja.compression.min_size";
+
+    /**
+     * Content types that are compressed. "text/*" matches all text types.
+     * Default is html, plain text, css, javascript, json, xml and svg.
+     * 
+     * ninja.compression.content_types=text/*,application/json
+     */
+    String NINJA_COMPRESSION_CONTENT_TYPES = "ninja.compression.content_types";
+
+    /**
+     * Where the filter chains of routes are executed: "none" (default) runs
+     * them on the request thread of the container, "pool" on a bounded
+     * thread pool and "virtual" on virtual threads (Java 21+, falls back to
+     * "pool" on older runtimes). The request thread is released via the
+     * async support of the container.
+     * 
+     * ninja.controller_executor=pool
+     */
+    String NINJA_CONTROLLER_EXECUTOR = "ninja.controller_executor";
+
+    /**
+     * Number of threads of the "pool" controller executor. Defaults to 64.
+     */
+    String NINJA_CONTROLLER_EXECUTOR_THREADS = "ninja.controller_executor.threads";
+
+    /**
+     * Number of requests waiting for a thread of the "pool" controller
+     * executor, or the number of requests in flight on virtual threads.
+     * Further requests are rejected with a 503. Defaults to 1000.
+     */
+    String NINJA_CONTROLLER_EXECUTOR_QUEUE_SIZE = "ninja.controller_executor.queue_size";
+
+    /**
+     * If true (default) all routes run on the controller executor unless
+     * annotated with <code>@Offload(false)</code>. If false only routes
+     * annotated with <code>@Offload</code> do.
+     */
+    String NINJA_CONTROLLER_EXECUTOR_OFFLOAD_ALL = "ninja.controller_executor.offload_all";
+
+    /**
+     * If true every route (or group of routes annotated with
+     * <code>@ConcurrencyGroup</code>) gets an adaptive limit of concurrent
+     * requests. Requests beyond the limit are rejected with a 503.
+     * Defaults to false.
+     * 
+     * ninja.concurrency_limit=true
+     */
+    String NINJA_CONCURRENCY_LIMIT = "ninja.concurrency_limit";
+
+    /**
+     * Limit of concurrent requests per route or group before latencies
+     * are known. Defaults to 20.
+     */
+    String NINJA_CONCURRENCY_LIMIT_INITIAL = "ninja.concurrency_limit.initial";
+
+    /**
+     * Lower bound of the adaptive limit. Defaults to 4.
+     */
+    String NINJA_CONCURRENCY_LIMIT_MIN = "ninja.concurrency_limit.min";
+
+    /**
+     * Upper bound of the adaptive limit. Defaults to 1000.
+     */
+    String NINJA_CONCURRENCY_LIMIT_MAX = "ninja.concurrency_limit.max";
+
+    /**
+     * Seconds sent as Retry-After header with 503 service unavailable
+     * results. Defaults to 1, 0 sends no header.
+     */
+    String NINJA_SERVICE_UNAVAILABLE_RETRY_AFTER = "ninja.service_unavailable.retry_after";
 
     /**
      * Comma separated list in application.conf. Determines which languages are
@@ -250,6 +360,15 @@ public interface NinjaConstant {
     String DB_CONNECTION_PASSWORD = "db.connection.password";
     
     String NINJA_JSONP_CALLBACK_PARAMETER = "ninja.jsonp.callbackParameter";
+
+    /**
+     * Bytecode module registered with the Jackson ObjectMapper and XmlMapper
+     * to speed up (de)serialization: "afterburner" (default), "blackbird"
+     * (needs jackson-module-blackbird on the classpath) or "none".
+     *
+     * ninja.jackson.bytecode_module=blackbird
+     */
+    String NINJA_JACKSON_BYTECODE_MODULE = "ninja.jackson.bytecode_module";
     
     String AUTHENTICITY_TOKEN = "authenticityToken";
     
@@ -278,4 +397,23 @@ public interface NinjaConstant {
      */
     final String UPLOADS_TEMP_FOLDER = "uploads.temp_folder";
 
+    /**
+     * Uploaded files up to this many bytes are kept in memory by the
+     * {@link ninja.uploads.HybridFileItemProvider}, larger ones are saved to
+     * the temporary folder. Defaults to 65536 (64 KiB).
+     */
+    final String UPLOADS_MEMORY_THRESHOLD = "uploads.memory_threshold";
+
+    /**
+     * Size in bytes of the buffers the {@link ninja.uploads.HybridFileItemProvider}
+     * keeps uploads in. Defaults to 8192.
+     */
+    final String UPLOADS_BUFFER_SIZE = "uploads.buffer_size";
+
+    /**
+     * Number of free buffers the {@link ninja.uploads.HybridFileItemProvider}
+     * keeps for reuse. 0 disables pooling. Defaults to 256.
+     */
+    final String UPLOADS_BUFFER_POOL_SIZE = "uploads.buffer_pool_size";
+
 }
\ No newline at end of file
@@ -16,12 +16,17 @@
 
 package ninja.utils;
 
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.joda.JodaModule;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.inject.Inject;
 import com.google.inject.Provider;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * ObjectMapper is used in several classes. For instance in the
@@ -33,13 +38,34 @@ import com.google.inject.Provider;
  */
 public class ObjectMapperProvider implements Provider<ObjectMapper> {
 
+    private static final Logger logger = LoggerFactory.getLogger(ObjectMapperProvider.class);
+
+    static final String AFTERBURNER = "afterburner";
+    static final String BLACKBIRD = "blackbird";
+    static final String NONE = "none";
+
+    private static final String BLACKBIRD_MODULE_CLASS
+        = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private final String bytecodeModule;
+
+    public ObjectMapperProvider() {
+        this.bytecodeModule = AFTERBURNER;
+    }
+
+    @Inject
+    public ObjectMapperProvider(NinjaProperties ninjaProperties) {
+        this.bytecodeModule = ninjaProperties.getWithDefault(
+            NinjaConstant.NINJA_JACKSON_BYTECODE_MODULE, AFTERBURNER);
+    }
+
     @Override
     public ObjectMapper get() {
 
         ObjectMapper objectMapper = new ObjectMapper();
 
-        // Afterburner optimizes performance of Pojo to Json mapper
-        objectMapper.registerModule(new AfterburnerModule());
+        // Afterburner (or Blackbird) optimizes performance of Pojo to Json mapper
+        bytecodeModule(bytecodeModule).ifPresent(objectMapper::registerModule);
 
         // Java 8 data type
         objectMapper.registerModule(new JavaTimeModule());
@@ -52,4 +78,32 @@ public class ObjectMapperProvider implements Provider<ObjectMapper> {
 
     }
 
+    /**
+     * @param name "afterburner", "blackbird" or "none"
+     * @return The module generating bytecode for property access or empty
+     *      for "none". Falls back to Afterburner if Blackbird is not on the
+     *      classpath.
+     */
+    static Optional<Module> bytecodeModule(String name) {
+        switch (name) {
+            case AFTERBURNER:
+                return Optional.of(new AfterburnerModule());
+            case BLACKBIRD:
+                try {
+                    return Optional.of((Module) Class.forName(BLACKBIRD_MODULE_CLASS)
+                        .getDeclaredConstructor().newInstance());
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    logger.warn("Jackson module {} not available, using {} instead",
+                        BLACKBIRD_MODULE_CLASS, AFTERBURNER);
+                    return Optional.of(new AfterburnerModule());
+                }
+            case NONE:
+                return Optional.empty();
+            default:
+                throw new IllegalArgumentException("Unknown value '" + name + "' of "
+                    + NinjaConstant.NINJA_JACKSON_BYTECODE_MODULE
+                    + " (expected " + AFTERBURNER + ", " + BLACKBIRD + " or " + NONE + ")");
+        }
+    }
+
 }
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer to fully render a response before it is sent.
+ *
+ * Buffers are reused per thread: {@link #acquire()} hands out the buffer of
+ * the current thread and {@link #release()} returns it. Buffers that grew
+ * beyond {@link #MAX_RETAINED_CAPACITY} are shrunk again on release, so a
+ * single huge response does not pin its memory to the thread forever.
+ *
+ * {@link #getUtf8Writer()} encodes characters straight into the buffer.
+ * There is no intermediate String or char[] copy of the response.
+ *
+ * A buffer must be used by one thread only.
+ */
+public final class ResponseBuffer extends OutputStream {
+
+    static final int INITIAL_CAPACITY = 16 * 1024;
+
+    static final int MAX_RETAINED_CAPACITY = 512 * 1024;
+
+    private static final ThreadLocal<ResponseBuffer> BUFFERS
+            = ThreadLocal.withInitial(ResponseBuffer::new);
+
+    private final Utf8Writer utf8Writer = new Utf8Writer();
+
+    private byte[] bytes;
+    private int count;
+    private boolean acquired;
+
+    ResponseBuffer() {
+        this.bytes = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return The empty buffer of the current thread. A fresh buffer if the
+     *      one of the current thread is still in use (e.g. while rendering
+     *      an error page for a failed response).
+     */
+    public static ResponseBuffer acquire() {
+        ResponseBuffer buffer = BUFFERS.get();
+
+        if (buffer.acquired) {
+            buffer = new ResponseBuffer();
+        }
+
+        buffer.acquired = true;
+
+        return buffer;
+    }
+
+    /**
+     * Empties this buffer so that the next {@link #acquire()} can reuse it.
+     * The buffer must not be used afterwards.
+     */
+    public void release() {
+        count = 0;
+        utf8Writer.highSurrogate = 0;
+
+        if (bytes.length > MAX_RETAINED_CAPACITY) {
+            bytes = new byte[INITIAL_CAPACITY];
+        }
+
+        acquired = false;
+    }
+
+    /**
+     * @return A writer encoding all characters as UTF-8 into this buffer
+     */
+    public Writer getUtf8Writer() {
+        return utf8Writer;
+    }
+
+    /**
+     * @return The number of bytes in this buffer
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the content of this buffer.
+     *
+     * @param outputStream The stream to write to
+     * @throws IOException If the stream fails
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(bytes, 0, count);
+    }
+
+    /**
+     * @return A copy of the content of this buffer
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, count);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        bytes[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, bytes, count, len);
+        count += len;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > bytes.length) {
+            if (minCapacity < 0) {
+                throw new OutOfMemoryError("Response too large");
+            }
+            int newCapacity = Math.max(minCapacity, bytes.length << 1);
+            if (newCapacity < 0) {
+                newCapacity = Integer.MAX_VALUE - 8;
+            }
+            bytes = Arrays.copyOf(bytes, newCapacity);
+        }
+    }
+
+    private class Utf8Writer extends Writer {
+
+        // pending high surrogate of a pair split between two writes
+        private char highSurrogate;
+
+        @Override
+        public void write(int c) {
+            encode((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                encode(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                encode(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            if (highSurrogate != 0) {
+                // unpaired surrogate at the very end
+                highSurrogate = 0;
+                write('?');
+            }
+        }
+
+        private void encode(char c) {
+            ensureCapacity(count + 4);
+
+            if (highSurrogate != 0) {
+                char high = highSurrogate;
+                highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    bytes[count++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    return;
+                }
+                // unpaired high surrogate (same replacement as String.getBytes)
+                bytes[count++] = '?';
+            }
+
+            if (c < 0x80) {
+                bytes[count++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[count++] = (byte) (0xC0 | (c >> 6));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                bytes[count++] = '?';
+            } else {
+                bytes[count++] = (byte) (0xE0 | (c >> 12));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.utils;
+
+import java.util.List;
+import java.util.Locale;
+
+import ninja.Context;
+import ninja.Result;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Decides whether a response is compressed and with which encoding.
+ * 
+ * A response is compressed if <code>ninja.compression</code> is enabled, its
+ * content type is listed in <code>ninja.compression.content_types</code>,
+ * it is not smaller than <code>ninja.compression.min_size</code> and the
+ * client accepts gzip or deflate. The context implementation does the actual
+ * compression when it finalizes the headers.
+ */
+@Singleton
+public class ResponseCompression {
+
+    public static final String GZIP = "gzip";
+
+    public static final String DEFLATE = "deflate";
+
+    static final int DEFAULT_MIN_SIZE = 1024;
+
+    static final String[] DEFAULT_CONTENT_TYPES = {
+        "text/html",
+        "text/plain",
+        "text/css",
+        "text/javascript",
+        "text/xml",
+        "application/javascript",
+        "application/json",
+        "application/xml",
+        "image/svg+xml"
+    };
+
+    static final String DISABLED_ATTRIBUTE = ResponseCompression.class.getName() + ".disabled";
+
+    private static final Splitter COMMA_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    private static final Splitter SEMICOLON_SPLITTER = Splitter.on(';').trimResults();
+
+    private final boolean enabled;
+
+    private final int minSize;
+
+    private final ImmutableSet<String> contentTypes;
+
+    private final List<String> contentTypePrefixes;
+
+    @Inject
+    public ResponseCompression(NinjaProperties ninjaProperties) {
+        this.enabled = ninjaProperties.getBooleanWithDefault(
+                NinjaConstant.NINJA_COMPRESSION, false);
+        this.minSize = ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_COMPRESSION_MIN_SIZE, DEFAULT_MIN_SIZE);
+
+        String[] configuredContentTypes = ninjaProperties.getStringArray(
+                NinjaConstant.NINJA_COMPRESSION_CONTENT_TYPES);
+
+        if (configuredContentTypes == null || configuredContentTypes.length == 0) {
+            configuredContentTypes = DEFAULT_CONTENT_TYPES;
+        }
+
+        ImmutableSet.Builder<String> types = ImmutableSet.builder();
+        ImmutableSet.Builder<String> prefixes = ImmutableSet.builder();
+
+        for (String contentType : configuredContentTypes) {
+            String normalized = contentType.trim().toLowerCase(Locale.ENGLISH);
+
+            if (normalized.endsWith("/*")) {
+                prefixes.add(normalized.substring(0, normalized.length() - 1));
+            } else if (!normalized.isEmpty()) {
+                types.add(normalized);
+            }
+        }
+
+        this.contentTypes = types.build();
+        this.contentTypePrefixes = prefixes.build().asList();
+    }
+
+    /**
+     * Responses that are already compressed (e.g. precompressed assets)
+     * call this before finalizing their headers.
+     * 
+     * @param context The context of the request
+     */
+    public static void disableFor(Context context) {
+        context.setAttribute(DISABLED_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    /**
+     * @return The minimum size of compressed responses in bytes
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Adds <code>Vary: Accept-Encoding</code> to results that may be
+     * compressed and negotiates the encoding with the client.
+     * 
+     * @param context The context of the request
+     * @param result The result about to be sent
+     * @return The encoding to compress the response with or null to send
+     *      it as is
+     */
+    public String selectEncoding(Context context, Result result) {
+        if (!isCompressible(context, result)) {
+            return null;
+        }
+
+        addVary(result);
+
+        return negotiate(context.getHeader(HttpHeaderConstants.ACCEPT_ENCODING));
+    }
+
+    boolean isCompressible(Context context, Result result) {
+        if (!enabled
+                || Boolean.TRUE.equals(context.getAttribute(DISABLED_ATTRIBUTE))
+                || !mayHaveBody(result.getStatusCode())
+                || result.getHeaders().containsKey(HttpHeaderConstants.CONTENT_ENCODING)
+                || !isCompressibleContentType(result.getContentType())) {
+            return false;
+        }
+
+        String contentLength = result.getHeaders().get(Result.CONTENT_LENGTH);
+
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength) >= minSize;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    boolean isCompressibleContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType)
+                .trim().toLowerCase(Locale.ENGLISH);
+
+        if (contentTypes.contains(mimeType)) {
+            return true;
+        }
+
+        for (String prefix : contentTypePrefixes) {
+            if (mimeType.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds Accept-Encoding to the Vary header of the result, keeping
+     * whatever the result already varies on.
+     * 
+     * @param result The result
+     */
+    public static void addVary(Result result) {
+        String vary = result.getHeaders().get(HttpHeaderConstants.VARY);
+
+        if (vary == null || vary.trim().isEmpty()) {
+            result.addHeader(HttpHeaderConstants.VARY, HttpHeaderConstants.ACCEPT_ENCODING);
+            return;
+        }
+
+        for (String field : COMMA_SPLITTER.split(vary)) {
+            if (field.equals("*") || field.equalsIgnoreCase(HttpHeaderConstants.ACCEPT_ENCODING)) {
+                return;
+            }
+        }
+
+        result.addHeader(HttpHeaderConstants.VARY, vary + ", " + HttpHeaderConstants.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Picks gzip or deflate from the Accept-Encoding header of a request.
+     * The coding with the highest quality wins, gzip on a tie.
+     * 
+     * @param acceptEncoding The Accept-Encoding header (may be null)
+     * @return {@link #GZIP}, {@link #DEFLATE} or null if the client accepts
+     *      neither
+     */
+    public static String negotiate(String acceptEncoding) {
+        double gzip = getQuality(acceptEncoding, GZIP);
+        double deflate = getQuality(acceptEncoding, DEFLATE);
+
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        } else if (deflate > 0) {
+            return DEFLATE;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param acceptEncoding The Accept-Encoding header (may be null)
+     * @param coding A content coding, e.g. {@link #GZIP}
+     * @return true if the client accepts the coding
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        return getQuality(acceptEncoding, coding) > 0;
+    }
+
+    /**
+     * A coding with q=0 is never accepted, "*" stands for all codings not
+     * listed and "x-gzip" for gzip.
+     */
+    static double getQuality(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return 0;
+        }
+
+        double quality = -1;
+        double any = -1;
+
+        for (String element : COMMA_SPLITTER.split(acceptEncoding)) {
+            List<String> parts = SEMICOLON_SPLITTER.splitToList(element);
+            String name = parts.get(0);
+
+            if (name.equalsIgnoreCase(coding)
+                    || (coding.equals(GZIP) && name.equalsIgnoreCase("x-gzip"))) {
+                quality = Math.max(quality, getQuality(parts));
+            } else if (name.equals("*")) {
+                any = getQuality(parts);
+            }
+        }
+
+        if (quality < 0) {
+            quality = any;
+        }
+
+        return Math.max(quality, 0);
+    }
+
+    /**
+     * @param statusCode The status code of a response
+     * @return false if a response with this status never has a body
+     */
+    static boolean mayHaveBody(int statusCode) {
+        return statusCode >= 200
+                && statusCode != Result.SC_204_NO_CONTENT
+                && statusCode != Result.SC_304_NOT_MODIFIED;
+    }
+
+    private static double getQuality(List<String> parts) {
+        for (String parameter : parts.subList(1, parts.size())) {
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+}
@@ -109,7 +109,7 @@ public class ResultHandler {
             
         // try to get a suitable rendering engine...
         TemplateEngine templateEngine = templateEngineManager
-                .getTemplateEngineForContentType(result.getContentType());
+                .getTemplateEngineForResult(result);
 
         if (templateEngine != null) {
 
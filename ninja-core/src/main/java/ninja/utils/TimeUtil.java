@@ -25,13 +25,13 @@ import static java.lang.Integer.parseInt;
 @ParametersAreNonnullByDefault
 public class TimeUtil {
 
-    private static final Pattern REGEX = Pattern.compile("^([0-9]+)(d|h|min|mn|s)$");
+    private static final Pattern REGEX = Pattern.compile("^([0-9]+)(d|h|min|mn|m|s)$");
 
     /**
      * Parse a duration from String to seconds. 
      * Eg. "10s" will result in 10.
      * 
-     * @param duration "3h" or "2mn" or "2min" or "7s" or "1d".
+     * @param duration "3h" or "2mn" or "2min" or "2m" or "7s" or "1d".
      * 
      * @return The number of seconds OR 30days (2592000) if null is entered.
      *
@@ -55,6 +55,7 @@ public class TimeUtil {
                 return value * 60 * 60;
             case "min":
             case "mn":
+            case "m":
                 return value * 60;
             case "s":
                 return value;
@@ -18,7 +18,7 @@ package ninja.utils;
 
 import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.inject.Inject;
 import com.google.inject.Provider;
 
 /**
@@ -27,6 +27,18 @@ import com.google.inject.Provider;
  */
 public class XmlMapperProvider implements Provider<XmlMapper>{
 
+    private final String bytecodeModule;
+
+    public XmlMapperProvider() {
+        this.bytecodeModule = ObjectMapperProvider.AFTERBURNER;
+    }
+
+    @Inject
+    public XmlMapperProvider(NinjaProperties ninjaProperties) {
+        this.bytecodeModule = ninjaProperties.getWithDefault(
+            NinjaConstant.NINJA_JACKSON_BYTECODE_MODULE, ObjectMapperProvider.AFTERBURNER);
+    }
+
     @Override
     public XmlMapper get() {
         
@@ -38,7 +50,7 @@ public class XmlMapperProvider implements Provider<XmlMapper>{
         module.setDefaultUseWrapper(false);
         
         XmlMapper xmlMapper = new XmlMapper(module);
-        xmlMapper.registerModule(new AfterburnerModule());
+        ObjectMapperProvider.bytecodeModule(bytecodeModule).ifPresent(xmlMapper::registerModule);
 
         
         return xmlMapper;
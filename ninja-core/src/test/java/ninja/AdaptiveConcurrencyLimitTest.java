@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long TEN_MILLIS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void requestsBeyondTheLimitAreRejected() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 1, 10);
+
+        ConcurrencyLimiter.Permit first = limit.tryAcquire();
+        ConcurrencyLimiter.Permit second = limit.tryAcquire();
+
+        assertThat(first, notNullValue());
+        assertThat(second, notNullValue());
+        assertThat(limit.tryAcquire(), nullValue());
+        assertThat(limit.getInFlight(), is(2));
+        assertThat(limit.getRejectedCount(), is(1L));
+
+        first.release();
+
+        assertThat(limit.getInFlight(), is(1));
+        assertThat(limit.tryAcquire(), notNullValue());
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 4, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TEN_MILLIS, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() > 20);
+    }
+
+    @Test
+    public void limitShrinksWhenLatencyRises() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 100, 4, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TEN_MILLIS, limit.getLimit());
+        }
+
+        int limitBefore = limit.getLimit();
+
+        // the database got slow
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(100 * TEN_MILLIS, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() < limitBefore / 2);
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    public void limitStaysWhenItIsNotUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 4, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TEN_MILLIS, 1);
+        }
+
+        assertThat(limit.getLimit(), is(20));
+    }
+
+    @Test
+    public void limitStaysWithinBounds() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 20, 4, 30);
+
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(TEN_MILLIS, limit.getLimit());
+        }
+
+        assertThat(limit.getLimit(), is(30));
+
+        int lowest = limit.getLimit();
+
+        // the limit recovers once the long term latency caught up
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(1000 * TEN_MILLIS, limit.getLimit());
+            lowest = Math.min(lowest, limit.getLimit());
+        }
+
+        assertThat(lowest, is(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void minMustNotExceedMax() {
+        new AdaptiveConcurrencyLimit("test", 20, 10, 5);
+    }
+
+}
@@ -31,7 +31,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.ByteArrayOutputStream;
 
+import com.google.common.io.ByteStreams;
+
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.verify;
@@ -182,7 +185,7 @@ public class AssetsControllerTest {
         // => not modified:
         // check etag has been called
         verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
-                Mockito.eq(result), Mockito.anyLong());
+                Mockito.eq(result), Mockito.anyLong(), Mockito.isNull());
 
         verify(contextRenderable).finalizeHeadersWithoutFlashAndSessionCookie(resultCaptor.capture());
 
@@ -303,7 +306,7 @@ public class AssetsControllerTest {
         // => not modified:
         // check etag has been called
         verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
-                Mockito.eq(result), Mockito.anyLong());
+                Mockito.eq(result), Mockito.anyLong(), Mockito.isNull());
 
         verify(contextRenderable).finalizeHeadersWithoutFlashAndSessionCookie(resultCaptor.capture());
 
@@ -344,7 +347,7 @@ public class AssetsControllerTest {
         // => not modified:
         // check etag has been called
         verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
-                Mockito.eq(result), Mockito.anyLong());
+                Mockito.eq(result), Mockito.anyLong(), Mockito.isNull());
 
         verify(contextRenderable).finalizeHeadersWithoutFlashAndSessionCookie(resultCaptor.capture());
 
@@ -393,4 +396,64 @@ public class AssetsControllerTest {
         verify(assetsControllerHelper).normalizePathWithoutLeadingSlash("/webjar_asset.txt", true);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testServeStaticPrecompressedSiblingIfGzipIsAccepted() throws Exception {
+
+        Result result = Results.ok();
+
+        when(contextRenderable.getRequestPath()).thenReturn(
+                "/assets/testasset-precompressed.txt");
+        when(contextRenderable.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+        when(mimeTypes.getContentType(contextRenderable, 
+                this.getClass().getResource("/assets/assets/testasset-precompressed.txt").getFile()))
+                .thenReturn("text/plain");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(result)).thenReturn(
+                responseStreams);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(
+                byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        byte[] gzipped = ByteStreams.toByteArray(
+                this.getClass().getResourceAsStream("/assets/assets/testasset-precompressed.txt.gz"));
+
+        assertEquals("text/plain", result.getContentType());
+        assertEquals("gzip", result.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", result.getHeaders().get("Vary"));
+        assertEquals(String.valueOf(gzipped.length), result.getHeaders().get(Result.CONTENT_LENGTH));
+        assertArrayEquals(gzipped, byteArrayOutputStream.toByteArray());
+        // an etag of its own
+        verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
+                Mockito.eq(result), Mockito.anyLong(), Mockito.eq("gzip"));
+        // never compressed again on the fly
+        verify(contextRenderable).setAttribute(Mockito.anyString(), Mockito.eq(Boolean.TRUE));
+    }
+
+    @Test
+    public void testServeStaticUncompressedIfGzipIsNotAccepted() throws Exception {
+
+        Result result = Results.ok();
+
+        when(contextRenderable.getRequestPath()).thenReturn(
+                "/assets/testasset-precompressed.txt");
+        when(contextRenderable.getHeader("Accept-Encoding")).thenReturn("gzip;q=0, deflate");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(result)).thenReturn(
+                responseStreams);
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(
+                byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        assertEquals(null, result.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", result.getHeaders().get("Vary"));
+        assertEquals("38", result.getHeaders().get(Result.CONTENT_LENGTH));
+        assertEquals("testasset with a precompressed sibling", byteArrayOutputStream.toString());
+        verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
+                Mockito.eq(result), Mockito.anyLong(), Mockito.isNull());
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(properties(false));
+
+        assertThat(concurrencyLimiter.isEnabled(), is(false));
+        assertThat(concurrencyLimiter.tryAcquire(route("list")), sameInstance(ConcurrencyLimiter.UNLIMITED));
+        assertThat(concurrencyLimiter.getLimit(route("list")), nullValue());
+    }
+
+    @Test
+    public void routesHaveTheirOwnLimitUnlessGrouped() throws Exception {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(properties(true));
+
+        AdaptiveConcurrencyLimit list = concurrencyLimiter.getLimit(route("list"));
+        AdaptiveConcurrencyLimit show = concurrencyLimiter.getLimit(route("show"));
+
+        assertThat(list.getName(), is(Controller.class.getName() + ".list"));
+        assertThat(list, not(sameInstance(show)));
+        assertThat(concurrencyLimiter.getLimit(route("report")).getName(), is("database"));
+        assertThat(concurrencyLimiter.getLimit(route("export")),
+                sameInstance(concurrencyLimiter.getLimit(route("report"))));
+        assertThat(concurrencyLimiter.getLimits().size(), is(3));
+    }
+
+    @Test
+    public void requestsAreRejectedAtTheLimit() throws Exception {
+        ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(properties(true));
+        Route route = route("list");
+
+        for (int i = 0; i < ConcurrencyLimiter.DEFAULT_INITIAL_LIMIT; i++) {
+            assertThat(concurrencyLimiter.tryAcquire(route), not(nullValue()));
+        }
+
+        assertThat(concurrencyLimiter.tryAcquire(route), nullValue());
+    }
+
+    private static NinjaProperties properties(boolean enabled) {
+        NinjaProperties ninjaProperties = mock(NinjaProperties.class);
+        when(ninjaProperties.getBooleanWithDefault(NinjaConstant.NINJA_CONCURRENCY_LIMIT, false))
+                .thenReturn(enabled);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_CONCURRENCY_LIMIT_INITIAL, 20))
+                .thenReturn(20);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_CONCURRENCY_LIMIT_MIN, 4))
+                .thenReturn(4);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_CONCURRENCY_LIMIT_MAX, 1000))
+                .thenReturn(1000);
+        return ninjaProperties;
+    }
+
+    private static Route route(String methodName) throws NoSuchMethodException {
+        return new Route("GET", "/" + methodName, Controller.class.getMethod(methodName), null);
+    }
+
+    public static class Controller {
+
+        public Result list() {
+            return Results.ok();
+        }
+
+        public Result show() {
+            return Results.ok();
+        }
+
+        @ConcurrencyGroup("database")
+        public Result report() {
+            return Results.ok();
+        }
+
+        @ConcurrencyGroup("database")
+        public Result export() {
+            return Results.ok();
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ControllerExecutorTest {
+
+    private ControllerExecutor controllerExecutor;
+
+    @After
+    public void after() {
+        if (controllerExecutor != null) {
+            controllerExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void disabledByDefault() throws Exception {
+        controllerExecutor = new ControllerExecutor(properties("none", true));
+
+        assertThat(controllerExecutor.isEnabled(), is(false));
+        assertThat(controllerExecutor.isOffloaded(route("plain")), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownModeIsRejected() {
+        new ControllerExecutor(properties("fibers", true));
+    }
+
+    @Test
+    public void allRoutesExceptOptedOutAreOffloaded() throws Exception {
+        controllerExecutor = new ControllerExecutor(properties("pool", true));
+
+        assertThat(controllerExecutor.isEnabled(), is(true));
+        assertThat(controllerExecutor.isOffloaded(route("plain")), is(true));
+        assertThat(controllerExecutor.isOffloaded(route("optedOut")), is(false));
+        assertThat(controllerExecutor.isOffloaded(route("optedIn")), is(true));
+        assertThat(controllerExecutor.isOffloaded(
+                new Route(Route.HTTP_METHOD_WEBSOCKET, "/ws", Controller.class.getMethod("plain"), null)),
+                is(false));
+    }
+
+    @Test
+    public void onlyOptedInRoutesAreOffloaded() throws Exception {
+        controllerExecutor = new ControllerExecutor(properties("pool", false));
+
+        assertThat(controllerExecutor.isOffloaded(route("plain")), is(false));
+        assertThat(controllerExecutor.isOffloaded(route("optedOut")), is(false));
+        assertThat(controllerExecutor.isOffloaded(route("optedIn")), is(true));
+        assertThat(controllerExecutor.isOffloaded(
+                new Route("GET", "/", OffloadedController.class.getMethod("plain"), null)),
+                is(true));
+        assertThat(controllerExecutor.isOffloaded(
+                new Route("GET", "/", OffloadedController.class.getMethod("optedOut"), null)),
+                is(false));
+    }
+
+    @Test
+    public void tasksAreRejectedIfThePoolIsFull() throws Exception {
+        controllerExecutor = new ControllerExecutor(properties("pool", true));
+
+        assertTasksAreRejectedWhenFull();
+    }
+
+    @Test
+    public void tasksAreRejectedIfTooManyVirtualThreadsAreInFlight() throws Exception {
+        // falls back to the pool on runtimes without virtual threads
+        controllerExecutor = new ControllerExecutor(properties("virtual", true));
+
+        assertTasksAreRejectedWhenFull();
+    }
+
+    private void assertTasksAreRejectedWhenFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // occupies the only thread (or the only permit of virtual threads)
+            controllerExecutor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // the pool still queues one more task
+            boolean rejected = false;
+            for (int i = 0; i < 2 && !rejected; i++) {
+                try {
+                    controllerExecutor.execute(() -> await(release));
+                } catch (RejectedExecutionException e) {
+                    rejected = true;
+                }
+            }
+
+            assertTrue(rejected);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static NinjaProperties properties(String mode, boolean offloadAll) {
+        NinjaProperties ninjaProperties = mock(NinjaProperties.class);
+        when(ninjaProperties.getWithDefault(NinjaConstant.NINJA_CONTROLLER_EXECUTOR, "none"))
+                .thenReturn(mode);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_CONTROLLER_EXECUTOR_THREADS, 64))
+                .thenReturn(1);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_CONTROLLER_EXECUTOR_QUEUE_SIZE, 1000))
+                .thenReturn(1);
+        when(ninjaProperties.getBooleanWithDefault(NinjaConstant.NINJA_CONTROLLER_EXECUTOR_OFFLOAD_ALL, true))
+                .thenReturn(offloadAll);
+        return ninjaProperties;
+    }
+
+    private static Route route(String methodName) throws NoSuchMethodException {
+        return new Route("GET", "/" + methodName, Controller.class.getMethod(methodName), null);
+    }
+
+    public static class Controller {
+
+        public Result plain() {
+            return Results.ok();
+        }
+
+        @Offload
+        public Result optedIn() {
+            return Results.ok();
+        }
+
+        @Offload(false)
+        public Result optedOut() {
+            return Results.ok();
+        }
+
+    }
+
+    @Offload
+    public static class OffloadedController {
+
+        public Result plain() {
+            return Results.ok();
+        }
+
+        @Offload(false)
+        public Result optedOut() {
+            return Results.ok();
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ninja.exceptions.DeadlineExceededException;
+
+import org.junit.Test;
+
+public class DeadlineTest {
+
+    @Test
+    public void pendingDeadline() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        assertThat(deadline.getTimeout(), is(Duration.ofMinutes(1)));
+        assertThat(deadline.isExpired(), is(false));
+        assertTrue(deadline.getRemaining(TimeUnit.SECONDS) > 50);
+
+        deadline.check();
+    }
+
+    @Test(expected = DeadlineExceededException.class)
+    public void expiredDeadline() {
+        Deadline deadline = Deadline.after(Duration.ZERO);
+
+        assertThat(deadline.isExpired(), is(true));
+        assertThat(deadline.getRemaining(TimeUnit.NANOSECONDS), is(0L));
+
+        deadline.check();
+    }
+
+    @Test
+    public void tasksRunOnExpiry() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+
+        Deadline.after(Duration.ofMillis(10)).onExpiry(expired::countDown);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void asyncTasksRunOffTheTimer() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        Deadline.after(Duration.ofMillis(10)).onExpiryAsync(() -> {
+            threadName.set(Thread.currentThread().getName());
+            expired.countDown();
+        });
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("ninja-expired-deadline-"));
+    }
+
+    @Test
+    public void tasksCanBeCancelled() throws Exception {
+        CountDownLatch expired = new CountDownLatch(1);
+
+        Future<?> future = Deadline.after(Duration.ofMillis(50)).onExpiry(expired::countDown);
+        future.cancel(false);
+
+        assertThat(expired.await(200, TimeUnit.MILLISECONDS), is(false));
+    }
+
+}
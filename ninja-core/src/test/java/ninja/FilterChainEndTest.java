@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.inject.util.Providers;
+
+import ninja.exceptions.DeadlineExceededException;
+import ninja.params.ControllerMethodInvoker;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FilterChainEndTest {
+
+    @Mock
+    ControllerMethodInvoker controllerMethodInvoker;
+
+    @Mock
+    Context context;
+
+    @Mock
+    Ninja ninja;
+
+    Object controller = new Object();
+
+    FilterChainEnd filterChainEnd;
+
+    @Before
+    public void setUp() {
+        filterChainEnd = new FilterChainEnd(
+                Providers.of(controller),
+                controllerMethodInvoker,
+                Providers.of(ninja));
+    }
+
+    @Test
+    public void resultIsReturned() {
+        Result result = Results.ok();
+        when(controllerMethodInvoker.invoke(controller, context)).thenReturn(result);
+
+        assertThat(filterChainEnd.next(context), sameInstance(result));
+        verify(context, never()).handleAsync();
+    }
+
+    @Test
+    public void completedStageIsReturnedDirectly() {
+        Result result = Results.ok();
+        when(controllerMethodInvoker.invoke(controller, context))
+                .thenReturn(CompletableFuture.completedFuture(result));
+
+        assertThat(filterChainEnd.next(context), sameInstance(result));
+        verify(context, never()).handleAsync();
+    }
+
+    @Test
+    public void failedStageIsThrownDirectly() {
+        IllegalStateException exception = new IllegalStateException();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        future.completeExceptionally(exception);
+        when(controllerMethodInvoker.invoke(controller, context)).thenReturn(future);
+
+        try {
+            filterChainEnd.next(context);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e, sameInstance(exception));
+        }
+    }
+
+    @Test
+    public void pendingStageIsReturnedAsync() {
+        Result result = Results.ok();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        when(controllerMethodInvoker.invoke(controller, context)).thenReturn(future);
+
+        assertThat(filterChainEnd.next(context), instanceOf(AsyncResult.class));
+        verify(context).handleAsync();
+        verify(context, never()).returnResultAsync(result);
+
+        future.complete(result);
+
+        verify(context).returnResultAsync(result);
+    }
+
+    @Test
+    public void exceptionOfPendingStageIsHandledByNinja() {
+        Result errorResult = Results.internalServerError();
+        IllegalStateException exception = new IllegalStateException();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        when(controllerMethodInvoker.invoke(controller, context)).thenReturn(future);
+        when(ninja.onException(context, exception)).thenReturn(errorResult);
+
+        filterChainEnd.next(context);
+
+        future.completeExceptionally(exception);
+
+        verify(ninja).onException(context, exception);
+        verify(ninja).renderErrorResultAndCatchAndLogExceptions(errorResult, context);
+    }
+
+    @Test
+    public void blockingContainerReturnsResultOfStage() {
+        Result result = Results.ok();
+        when(controllerMethodInvoker.invoke(controller, context))
+                .thenReturn(new CompletableFuture<Result>());
+        when(context.controllerReturned()).thenReturn(result);
+
+        assertThat(filterChainEnd.next(context), sameInstance(result));
+    }
+
+    @Test
+    public void pendingStageIsCancelledWhenDeadlineExpires() throws Exception {
+        Result errorResult = Results.serviceUnavailable();
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        when(controllerMethodInvoker.invoke(controller, context)).thenReturn(future);
+        when(context.getDeadline()).thenReturn(Optional.of(Deadline.after(Duration.ofMillis(10))));
+        when(ninja.onException(eq(context), any(DeadlineExceededException.class))).thenReturn(errorResult);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch rendered = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            rendered.countDown();
+            return null;
+        }).when(ninja).renderErrorResultAndCatchAndLogExceptions(errorResult, context);
+
+        filterChainEnd.next(context);
+
+        assertThat(rendered.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(future.isCancelled(), is(true));
+        // not on the timer shared by all requests
+        assertThat(threadName.get().startsWith("ninja-expired-deadline-"), is(true));
+        verify(context, never()).returnResultAsync(any(Result.class));
+    }
+
+}
@@ -18,9 +18,11 @@ package ninja;
 
 import ninja.diagnostics.DiagnosticError;
 import ninja.exceptions.BadRequestException;
+import ninja.exceptions.DeadlineExceededException;
 import ninja.exceptions.ForbiddenRequestException;
 import ninja.exceptions.InternalServerErrorException;
 import ninja.exceptions.RequestNotFoundException;
+import ninja.exceptions.ServiceUnavailableException;
 import ninja.i18n.Messages;
 import ninja.lifecycle.LifecycleService;
 import ninja.utils.Message;
@@ -34,16 +36,21 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -71,8 +78,13 @@ public class NinjaDefaultTest {
     @Mock
     private NinjaProperties ninjaProperties;
 
+    @Mock
+    private ControllerExecutor controllerExecutor;
+
     private Route route;
 
+    private RouteMatch routeMatch;
+
     @Captor
     private ArgumentCaptor<Result> resultCaptor;
 
@@ -87,6 +99,7 @@ public class NinjaDefaultTest {
         ninjaDefault.router = router;
         ninjaDefault.messages = messages;
         ninjaDefault.ninjaProperties = ninjaProperties;
+        ninjaDefault.controllerExecutor = controllerExecutor;
 
         // Just a dummy to make logging work without
         // Null pointer exceptions.
@@ -97,7 +110,8 @@ public class NinjaDefaultTest {
 
         Mockito.when(contextImpl.getMethod()).thenReturn("httpMethod");
         Mockito.when(contextImpl.getRequestPath()).thenReturn("requestPath");
-        Mockito.when(router.getRouteFor(ArgumentMatchers.eq("httpMethod"), ArgumentMatchers.eq("requestPath"))).thenReturn(route);
+        routeMatch = new RouteMatch(route, new String[0]);
+        Mockito.when(router.getRouteMatchFor(ArgumentMatchers.eq("httpMethod"), ArgumentMatchers.eq("requestPath"))).thenReturn(routeMatch);
 
     }
 
@@ -112,7 +126,7 @@ public class NinjaDefaultTest {
 
         ninjaDefault.onRouteRequest(contextImpl);
 
-        verify(contextImpl).setRoute(route);
+        verify(contextImpl).setRouteMatch(routeMatch);
         verify(resultHandler).handleResult(result, contextImpl);
 
         verify(ninjaDefault, Mockito.never()).getInternalServerErrorResult(any(Context.class), any(Exception.class), any(Result.class));
@@ -256,7 +270,7 @@ public class NinjaDefaultTest {
         // This simulates that a route has not been found
         // subsequently the onNotFound method should be called.
         Mockito.when(
-                router.getRouteFor(
+                router.getRouteMatchFor(
                         ArgumentMatchers.anyString(),
                         ArgumentMatchers.anyString()))
                 .thenReturn(null);
@@ -273,7 +287,7 @@ public class NinjaDefaultTest {
         // This simulates that a route has not been found
         // subsequently the onNotFound method should be called.
         Mockito.when(
-                router.getRouteFor(
+                router.getRouteMatchFor(
                         ArgumentMatchers.anyString(),
                         ArgumentMatchers.anyString()))
                 .thenReturn(null);
@@ -373,6 +387,212 @@ public class NinjaDefaultTest {
 
     }
 
+    @Test
+    public void testOnExceptionServiceUnavailable() {
+
+        ServiceUnavailableException serviceUnavailableException = new ServiceUnavailableException();
+
+        Result result = ninjaDefault.onException(contextImpl, serviceUnavailableException);
+
+        verify(ninjaDefault).getServiceUnavailableResult(contextImpl, serviceUnavailableException);
+        assertThat(result.getStatusCode(), equalTo(Result.SC_503_SERVICE_UNAVAILABLE));
+
+    }
+
+    @Test
+    public void testOnRouteRequestOnControllerExecutor() {
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(route.getFilterChain()).thenReturn(filterChain);
+        Mockito.when(controllerExecutor.isOffloaded(route)).thenReturn(true);
+
+        Result result = Mockito.mock(Result.class);
+        Mockito.when(filterChain.next(contextImpl)).thenReturn(result);
+
+        // run the task right away
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(controllerExecutor).execute(any(Runnable.class));
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        InOrder inOrder = Mockito.inOrder(contextImpl, filterChain);
+        inOrder.verify(contextImpl).handleAsync();
+        inOrder.verify(filterChain).next(contextImpl);
+        inOrder.verify(contextImpl).returnResultAsync(result);
+        inOrder.verify(contextImpl).cleanup();
+
+        verify(resultHandler, Mockito.never()).handleResult(any(Result.class), any(Context.class));
+
+    }
+
+    @Test
+    public void testOnRouteRequestWhenControllerExecutorIsFull() {
+
+        Mockito.when(controllerExecutor.isOffloaded(route)).thenReturn(true);
+        Mockito.when(contextImpl.isAsync()).thenReturn(true);
+        doThrow(new RejectedExecutionException("full"))
+                .when(controllerExecutor).execute(any(Runnable.class));
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        verify(ninjaDefault).getServiceUnavailableResult(
+                ArgumentMatchers.eq(contextImpl), any(ServiceUnavailableException.class));
+        verify(contextImpl).returnResultAsync(resultCaptor.capture());
+        verify(contextImpl).cleanup();
+
+        assertThat(resultCaptor.getValue().getStatusCode(), equalTo(Result.SC_503_SERVICE_UNAVAILABLE));
+
+    }
+
+    @Test
+    public void testOnRouteRequestWhenConcurrencyLimitIsReached() {
+
+        ConcurrencyLimiter concurrencyLimiter = Mockito.mock(ConcurrencyLimiter.class);
+        ninjaDefault.concurrencyLimiter = concurrencyLimiter;
+        Mockito.when(concurrencyLimiter.tryAcquire(route)).thenReturn(null);
+        Mockito.when(ninjaProperties.getIntegerWithDefault(
+                NinjaConstant.NINJA_SERVICE_UNAVAILABLE_RETRY_AFTER, 1)).thenReturn(5);
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        verify(route, Mockito.never()).getFilterChain();
+        verify(resultHandler).handleResult(resultCaptor.capture(), ArgumentMatchers.eq(contextImpl));
+        verify(contextImpl).cleanup();
+
+        assertThat(resultCaptor.getValue().getStatusCode(), equalTo(Result.SC_503_SERVICE_UNAVAILABLE));
+        assertThat(resultCaptor.getValue().getHeaders().get(Result.RETRY_AFTER), equalTo("5"));
+
+    }
+
+    @Test
+    public void testOnRouteRequestReleasesPermit() {
+
+        ConcurrencyLimiter concurrencyLimiter = Mockito.mock(ConcurrencyLimiter.class);
+        ConcurrencyLimiter.Permit permit = Mockito.mock(ConcurrencyLimiter.Permit.class);
+        ninjaDefault.concurrencyLimiter = concurrencyLimiter;
+        Mockito.when(concurrencyLimiter.tryAcquire(route)).thenReturn(permit);
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(route.getFilterChain()).thenReturn(filterChain);
+        Mockito.when(filterChain.next(contextImpl)).thenThrow(new RuntimeException("not important"));
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        verify(permit).release();
+
+    }
+
+    @Test
+    public void testOnRouteRequestReleasesPermitOfAsyncResultOnceReturned() {
+
+        ConcurrencyLimiter concurrencyLimiter = Mockito.mock(ConcurrencyLimiter.class);
+        ConcurrencyLimiter.Permit permit = Mockito.mock(ConcurrencyLimiter.Permit.class);
+        ninjaDefault.concurrencyLimiter = concurrencyLimiter;
+        Mockito.when(concurrencyLimiter.tryAcquire(route)).thenReturn(permit);
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(route.getFilterChain()).thenReturn(filterChain);
+        Mockito.when(filterChain.next(contextImpl)).thenReturn(Results.async());
+
+        ArgumentCaptor<Runnable> callbackCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        // still in flight until the result has been returned
+        verify(contextImpl).onAsyncResultReturned(callbackCaptor.capture());
+        verify(permit, Mockito.never()).release();
+        verify(contextImpl, Mockito.never()).cleanup();
+
+        callbackCaptor.getValue().run();
+
+        verify(permit).release();
+        verify(contextImpl).cleanup();
+
+    }
+
+    @Test
+    public void testOnRouteRequestWhenDeadlineExpired() {
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(route.getFilterChain()).thenReturn(filterChain);
+        Result result = Results.ok();
+        Mockito.when(filterChain.next(contextImpl)).thenReturn(result);
+        Deadline deadline = Deadline.after(Duration.ZERO);
+        Mockito.when(contextImpl.getDeadline()).thenReturn(Optional.of(deadline));
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        // the work is done: send the late result instead of a 503
+        verify(resultHandler).handleResult(result, contextImpl);
+        verify(ninjaDefault).onDeadlineMissed(contextImpl, deadline);
+        verify(ninjaDefault, Mockito.never()).getServiceUnavailableResult(
+                ArgumentMatchers.eq(contextImpl), any(DeadlineExceededException.class));
+
+    }
+
+    @Test
+    public void testOnRouteRequestOnControllerExecutorWhenDeadlineExpires() {
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(controllerExecutor.isOffloaded(route)).thenReturn(true);
+        Mockito.when(contextImpl.isAsync()).thenReturn(true);
+        Mockito.when(contextImpl.getDeadline()).thenReturn(Optional.of(Deadline.after(Duration.ofMillis(10))));
+
+        ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        verify(controllerExecutor).execute(taskCaptor.capture());
+
+        // still queued when the deadline expires
+        verify(contextImpl, Mockito.timeout(5000)).returnResultAsync(resultCaptor.capture());
+        assertThat(resultCaptor.getValue().getStatusCode(), equalTo(Result.SC_503_SERVICE_UNAVAILABLE));
+
+        verify(contextImpl, Mockito.timeout(5000)).cleanup();
+
+        taskCaptor.getValue().run();
+
+        verify(filterChain, Mockito.never()).next(contextImpl);
+        verify(contextImpl).returnResultAsync(any(Result.class));
+        verify(contextImpl).cleanup();
+
+    }
+
+    @Test
+    public void testOnRouteRequestOnControllerExecutorAnswersRunningTaskAfterDeadline() throws Exception {
+
+        FilterChain filterChain = Mockito.mock(FilterChain.class);
+        Mockito.when(route.getFilterChain()).thenReturn(filterChain);
+        Mockito.when(controllerExecutor.isOffloaded(route)).thenReturn(true);
+        Mockito.when(contextImpl.getDeadline()).thenReturn(Optional.of(Deadline.after(Duration.ofMillis(200))));
+
+        // the controller is still running when the deadline expires
+        Result result = Results.ok();
+        Mockito.when(filterChain.next(contextImpl)).thenAnswer(invocation -> {
+            Thread.sleep(400);
+            return result;
+        });
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(controllerExecutor).execute(any(Runnable.class));
+
+        ninjaDefault.onRouteRequest(contextImpl);
+
+        // give a timer that fired anyway the chance to answer twice
+        Thread.sleep(100);
+
+        verify(contextImpl).returnResultAsync(result);
+        verify(contextImpl).cleanup();
+        verify(ninjaDefault).onDeadlineMissed(ArgumentMatchers.eq(contextImpl), any(Deadline.class));
+        verify(ninjaDefault, Mockito.never()).getServiceUnavailableResult(
+                ArgumentMatchers.eq(contextImpl), any(DeadlineExceededException.class));
+
+    }
+
     @Test
     public void testThatGetInternalServerErrorContentNegotiation() {
         Result result = ninjaDefault.getInternalServerErrorResult(contextImpl, new Exception("not important"), null);
@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class ReverseRouteTemplateTest {
+
+    @Test
+    public void literalsAndParameters() {
+        String uri = "/user/{email}/entries/{id: [0-9]+}.json";
+        ReverseRouteTemplate template
+            = new ReverseRouteTemplate(uri, RouteParameter.parse(uri));
+
+        assertThat(template.hasParameters(), is(true));
+        assertThat(template.getParameterCount(), is(2));
+        assertThat(template.getParameterName(1), is("id"));
+        assertThat(template.getLiteralsLength(), is("/user//entries/.json".length()));
+
+        StringBuilder buffer = new StringBuilder();
+        String missing = template.appendTo(buffer, new String[] {"me@me.com", "1"});
+
+        assertThat(missing, nullValue());
+        assertThat(buffer.toString(), is("/user/me@me.com/entries/1.json"));
+    }
+
+    @Test
+    public void missingParameterIsReported() {
+        String uri = "/user/{email}/{id}";
+        ReverseRouteTemplate template
+            = new ReverseRouteTemplate(uri, RouteParameter.parse(uri));
+
+        assertThat(
+            template.appendTo(new StringBuilder(), new String[] {"a", null}),
+            is("id"));
+    }
+
+    @Test
+    public void constantIsReused() {
+        String uri = "/home";
+        ReverseRouteTemplate template
+            = new ReverseRouteTemplate(uri, RouteParameter.parse(uri));
+
+        assertThat(template.hasParameters(), is(false));
+        assertThat(template.constant(null), sameInstance(uri));
+        assertThat(template.constant(""), sameInstance(uri));
+
+        String withContextPath = template.constant("/app");
+
+        assertThat(withContextPath, is("/app/home"));
+        assertThat(template.constant("/app"), sameInstance(withContextPath));
+    }
+
+}
@@ -101,6 +101,22 @@ public class ReverseRouterTest {
         assertThat(route, is("/context/home"));
     }
     
+    @Test
+    public void simpleWithChangingContext() {
+        when(ninjaProperties.getContextPath()).thenReturn("/context");
+
+        assertThat(reverseRouter.with(TestController::home).build(), is("/context/home"));
+        assertThat(reverseRouter.with(TestController::home).build(), is("/context/home"));
+
+        when(ninjaProperties.getContextPath()).thenReturn("/other");
+
+        assertThat(reverseRouter.with(TestController::home).build(), is("/other/home"));
+
+        when(ninjaProperties.getContextPath()).thenReturn("");
+
+        assertThat(reverseRouter.with(TestController::home).build(), is("/home"));
+    }
+    
     @Test
     public void simpleWithQuery() {
         String route = reverseRouter.with(TestController::home)
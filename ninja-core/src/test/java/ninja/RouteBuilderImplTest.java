@@ -23,7 +23,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -369,11 +372,62 @@ public class RouteBuilderImplTest {
         assertThat(route.getControllerClass(), is(MockController.class));
     }
 
+    @Test
+    public void routeWithoutTimeout() {
+        routeBuilder.GET().route("/index");
+
+        assertThat(buildRoute(routeBuilder).getTimeout(), is(Optional.empty()));
+    }
+
+    @Test
+    public void routeWithTimeoutAnnotation() {
+        routeBuilder.GET().route("/slow").with(TimedController.class, "slow");
+
+        Route route = routeBuilder.buildRoute(injector);
+
+        assertThat(route.getTimeout(), is(Optional.of(Duration.ofMillis(500))));
+
+        routeBuilder = new RouteBuilderImpl(ninjaProperties, ninjaBaseDirectoryResolver);
+        routeBuilder.GET().route("/default").with(TimedController.class, "classDefault");
+
+        route = routeBuilder.buildRoute(injector);
+
+        assertThat(route.getTimeout(), is(Optional.of(Duration.ofSeconds(5))));
+    }
+
+    @Test
+    public void routeWithTimeoutOfBuilder() {
+        routeBuilder.GET().route("/slow").timeout(Duration.ofSeconds(1)).with(TimedController::slow);
+
+        Route route = routeBuilder.buildRoute(injector);
+
+        assertThat(route.getTimeout(), is(Optional.of(Duration.ofSeconds(1))));
+    }
+
+    @Test
+    public void routeBuildersWithoutTimeoutsIgnoreIt() {
+        // a route builder implemented before deadlines existed
+        RouteBuilder legacyRouteBuilder = mock(RouteBuilder.class, Mockito.CALLS_REAL_METHODS);
+
+        assertThat(legacyRouteBuilder.timeout(Duration.ofSeconds(1)), sameInstance(legacyRouteBuilder));
+    }
+
     private Route buildRoute(RouteBuilderImpl builder) {
         builder.with(MockController.class, "execute");
         return builder.buildRoute(injector);
     }
 
+    @Timeout(5)
+    public static class TimedController {
+        @Timeout(value = 500, unit = TimeUnit.MILLISECONDS)
+        public Result slow() {
+            return null;
+        }
+        public Result classDefault() {
+            return null;
+        }
+    }
+
     public static class MockController {
         public Result execute() {
             return null;
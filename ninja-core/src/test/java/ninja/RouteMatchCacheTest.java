@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+public class RouteMatchCacheTest {
+
+    private final Route route = new Route("GET", "/item/{id}", null, null);
+
+    @Test
+    public void sizeIsRoundedUpToPowerOfTwo() {
+        assertThat(new RouteMatchCache(1).getSize(), is(1));
+        assertThat(new RouteMatchCache(1000).getSize(), is(1024));
+        assertThat(new RouteMatchCache(1024).getSize(), is(1024));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeMustBePositive() {
+        new RouteMatchCache(0);
+    }
+
+    @Test
+    public void getAndPut() {
+        RouteMatchCache cache = new RouteMatchCache(16);
+        RouteMatch routeMatch = new RouteMatch(route, new String[] {"1"});
+
+        assertThat(cache.get("GET", "/item/1"), nullValue());
+
+        cache.put("GET", "/item/1", routeMatch);
+
+        assertThat(cache.get("GET", "/item/1"), sameInstance(routeMatch));
+        assertThat(cache.get("POST", "/item/1"), nullValue());
+        assertThat(cache.get("GET", "/item/2"), nullValue());
+
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(3L));
+    }
+
+    @Test
+    public void entriesAreReplacedWhenSlotIsTaken() {
+        // a single slot: every pair competes for it
+        RouteMatchCache cache = new RouteMatchCache(1);
+        RouteMatch first = new RouteMatch(route, new String[] {"1"});
+        RouteMatch second = new RouteMatch(route, new String[] {"2"});
+
+        cache.put("GET", "/item/1", first);
+        cache.put("GET", "/item/2", second);
+
+        assertThat(cache.get("GET", "/item/1"), nullValue());
+        assertThat(cache.get("GET", "/item/2"), sameInstance(second));
+    }
+
+    @Test
+    public void longUrisAndMissingMatchesAreNotCached() {
+        RouteMatchCache cache = new RouteMatchCache(16);
+        String longUri = "/item/" + Strings.repeat("x", RouteMatchCache.MAX_CACHEABLE_URI_LENGTH);
+
+        cache.put("GET", longUri, new RouteMatch(route, new String[] {"x"}));
+        cache.put("GET", "/item/1", null);
+
+        assertThat(cache.get("GET", longUri), nullValue());
+        assertThat(cache.get("GET", "/item/1"), nullValue());
+    }
+
+}
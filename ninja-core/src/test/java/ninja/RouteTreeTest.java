@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class RouteTreeTest {
+
+    private static final List<String> URIS = Arrays.asList(
+            "/",
+            "",
+            "/index",
+            "/index/",
+            "/user/123",
+            "/user/abc",
+            "/user/123/email",
+            "/user//email",
+            "/user/me@me.com/10000",
+            "/u1/entries/100",
+            "/assets/css/main.css",
+            "/assets/",
+            "/robots.txt",
+            "/robotsXtxt",
+            "/foobar",
+            "/foo",
+            "/foo/",
+            "/users/mike",
+            "/mike",
+            "/a/b",
+            "/c",
+            "/deep/1/2/3/4",
+            "/nothing/here");
+
+    @Test
+    public void findReturnsSameRouteAsLinearScan() {
+        List<Route> routes = new ArrayList<>();
+        routes.add(route("GET", "/"));
+        routes.add(route("GET", "/index"));
+        routes.add(route("GET", "/user/{id: [0-9]+}"));
+        routes.add(route("GET", "/user/{name}"));
+        routes.add(route("GET", "/user/{name}/email"));
+        routes.add(route("GET", "/user/{email}/{id: .*}"));
+        routes.add(route("GET", "/u{userId: .*}/entries/{entryId: .*}"));
+        routes.add(route("GET", "/assets/{fileName: .*}"));
+        routes.add(route("GET", "/robots.txt"));
+        routes.add(route("GET", "/foo/*bar"));
+        routes.add(route("GET", "/foo/?"));
+        routes.add(route("GET", "(/users)?/{user}"));
+        routes.add(route("GET", "/a/b|/c"));
+        routes.add(route("GET", "/deep/{a}/{b}/{c}/{d}"));
+        routes.add(route("GET", "/deep/1/2/3/4"));
+        routes.add(route("GET", "/.*"));
+        routes.add(route("POST", "/index"));
+
+        RouteTree routeTree = new RouteTree(routes);
+
+        for (String uri : URIS) {
+            Route expected = linearScan(routes, "GET", uri);
+            assertThat(uri, routeTree.find("GET", uri), sameInstance(expected));
+            assertThat(uri, routeTree.find("POST", uri), sameInstance(linearScan(routes, "POST", uri)));
+
+            RouteMatch routeMatch = routeTree.match("GET", uri);
+            if (expected == null) {
+                assertThat(uri, routeMatch, nullValue());
+            } else {
+                assertThat(uri, routeMatch.getRoute(), sameInstance(expected));
+                assertThat(uri, routeMatch.getPathParametersEncoded(), is(expected.getPathParametersEncoded(uri)));
+            }
+        }
+    }
+
+    @Test
+    public void findRespectsDeclarationOrder() {
+        Route param = route("GET", "/user/{name}");
+        Route fixed = route("GET", "/user/me");
+
+        RouteTree routeTree = new RouteTree(Arrays.asList(param, fixed));
+
+        assertThat(routeTree.find("GET", "/user/me"), sameInstance(param));
+
+        routeTree = new RouteTree(Arrays.asList(fixed, param));
+
+        assertThat(routeTree.find("GET", "/user/me"), sameInstance(fixed));
+        assertThat(routeTree.find("GET", "/user/you"), sameInstance(param));
+    }
+
+    @Test
+    public void matchCapturesPathParameters() {
+        Route route = route("GET", "/user/{name}/posts/{postId}");
+        Route regexRoute = route("GET", "/files/{dir}/{file: .*}");
+
+        RouteTree routeTree = new RouteTree(Arrays.asList(route, regexRoute));
+
+        RouteMatch routeMatch = routeTree.match("GET", "/user/john/posts/42");
+
+        assertThat(routeMatch.getRoute(), sameInstance(route));
+        assertThat(routeMatch.getPathParameterCount(), is(2));
+        assertThat(routeMatch.getPathParameterEncoded("name"), is("john"));
+        assertThat(routeMatch.getPathParameterEncoded("postId"), is("42"));
+        assertThat(routeMatch.getPathParameterEncoded(1), is("42"));
+        assertThat(routeMatch.getPathParameterEncoded("unknown"), nullValue());
+
+        routeMatch = routeTree.match("GET", "/files/docs/a/b.txt");
+
+        assertThat(routeMatch.getRoute(), sameInstance(regexRoute));
+        assertThat(routeMatch.getPathParameterEncoded("dir"), is("docs"));
+        assertThat(routeMatch.getPathParameterEncoded("file"), is("a/b.txt"));
+    }
+
+    @Test
+    public void findIsCaseInsensitiveForHttpMethod() {
+        Route route = route("PROPFIND", "/dav");
+
+        RouteTree routeTree = new RouteTree(Arrays.asList(route));
+
+        assertThat(routeTree.find("propfind", "/dav"), sameInstance(route));
+        assertThat(routeTree.find("GET", "/dav"), nullValue());
+        assertThat(routeTree.find(null, "/dav"), nullValue());
+    }
+
+    @Test
+    public void splitIntoSegments() {
+        assertThat(RouteTree.splitIntoSegments("/"), is(Arrays.asList("")));
+        assertThat(RouteTree.splitIntoSegments("/a/"), is(Arrays.asList("a", "")));
+        assertThat(
+                RouteTree.splitIntoSegments("/user/{path: a/b}/email"),
+                is(Arrays.asList("user", "{path: a/b}", "email")));
+    }
+
+    @Test
+    public void isParameterSegment() {
+        assertThat(RouteTree.isParameterSegment("{id}"), is(true));
+        assertThat(RouteTree.isParameterSegment("{id: .*}"), is(false));
+        assertThat(RouteTree.isParameterSegment("u{id}"), is(false));
+        assertThat(RouteTree.isParameterSegment("{a}{b}"), is(false));
+    }
+
+    private static Route route(String httpMethod, String uri) {
+        return new Route(httpMethod, uri, null, null);
+    }
+
+    private static Route linearScan(List<Route> routes, String httpMethod, String uri) {
+        for (Route route : routes) {
+            if (route.matches(httpMethod, uri)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+}
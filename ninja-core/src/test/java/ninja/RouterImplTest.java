@@ -40,6 +40,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.aMapWithSize;
 import static org.junit.Assert.fail;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -130,6 +131,21 @@ public class RouterImplTest {
         assertThat(route.getUri(), is("/websocket"));
     }
     
+    @Test
+    public void getRouteMatchForOfRoutersWithoutMatchesFallsBackToGetRouteFor() {
+        Route route = router.getRouteFor("GET", "/user/me@example.com/5");
+        
+        // a router implemented before route matches existed
+        Router legacyRouter = mock(Router.class, Mockito.CALLS_REAL_METHODS);
+        Mockito.doReturn(route).when(legacyRouter).getRouteFor("GET", "/user/me@example.com/5");
+        
+        RouteMatch routeMatch = legacyRouter.getRouteMatchFor("GET", "/user/me@example.com/5");
+        
+        assertThat(routeMatch.getRoute(), is(route));
+        assertThat(routeMatch.getPathParameterEncoded("email"), is("me@example.com"));
+        assertThat(routeMatch.getPathParameterEncoded("id"), is("5"));
+    }
+    
     @Test
     public void getPathParametersEncodedWithNoPathParams() {
         Route route = router.getRouteFor("GET", "/testroute");
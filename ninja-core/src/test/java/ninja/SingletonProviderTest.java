@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.inject.Binding;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import org.junit.Test;
+
+public class SingletonProviderTest {
+
+    private final Injector injector = Guice.createInjector();
+
+    @Test
+    public void singletonsAreResolvedOnce() {
+        Provider<SingletonFilter> provider = SingletonProvider.of(injector, SingletonFilter.class);
+
+        assertThat(provider, instanceOf(SingletonProvider.class));
+        assertThat(provider.get(), notNullValue());
+        assertThat(provider.get(), sameInstance(provider.get()));
+        assertThat(provider.get(), sameInstance(injector.getInstance(SingletonFilter.class)));
+    }
+
+    @Test
+    public void singletonsAreNotResolvedAtStartup() {
+        @SuppressWarnings("unchecked")
+        Provider<SingletonFilter> guiceProvider = mock(Provider.class);
+        @SuppressWarnings("unchecked")
+        Binding<SingletonFilter> binding = (Binding<SingletonFilter>) injector.getBinding(SingletonFilter.class);
+        Injector mockInjector = mock(Injector.class);
+        when(mockInjector.getProvider(SingletonFilter.class)).thenReturn(guiceProvider);
+        when(mockInjector.getBinding(SingletonFilter.class)).thenReturn(binding);
+        when(guiceProvider.get()).thenReturn(new SingletonFilter());
+
+        Provider<SingletonFilter> provider = SingletonProvider.of(mockInjector, SingletonFilter.class);
+
+        verify(guiceProvider, times(0)).get();
+
+        provider.get();
+        provider.get();
+
+        verify(guiceProvider, times(1)).get();
+    }
+
+    @Test
+    public void otherScopesAreLeftToGuice() {
+        Provider<PrototypeFilter> provider = SingletonProvider.of(injector, PrototypeFilter.class);
+
+        assertThat(provider, not(instanceOf(SingletonProvider.class)));
+        assertThat(provider.get(), not(sameInstance(provider.get())));
+    }
+
+    @Singleton
+    public static class SingletonFilter implements Filter {
+
+        @Override
+        public Result filter(FilterChain filterChain, Context context) {
+            return filterChain.next(context);
+        }
+
+    }
+
+    public static class PrototypeFilter implements Filter {
+
+        @Override
+        public Result filter(FilterChain filterChain, Context context) {
+            return filterChain.next(context);
+        }
+
+    }
+
+}
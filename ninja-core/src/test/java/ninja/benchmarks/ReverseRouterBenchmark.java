@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import ninja.ReverseRouter;
+import ninja.Route;
+import ninja.RouteParameter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reverse routing via the precompiled templates of the routes with
+ * the former implementation that parsed the route parameters on every call.
+ *
+ * Run it with:
+ *
+ * mvn test-compile exec:java -Dexec.mainClass=ninja.benchmarks.ReverseRouterBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReverseRouterBenchmark {
+
+    private static final String CONTEXT_PATH = "/app";
+
+    private final Route constantRoute
+        = new Route("GET", "/catalog/categories", null, null);
+
+    private final Route parameterRoute
+        = new Route("GET", "/catalog/{category}/items/{id: [0-9]+}", null, null);
+
+    @Benchmark
+    public String constantRouteTemplate() {
+        return new ReverseRouter.Builder(CONTEXT_PATH, constantRoute)
+            .build();
+    }
+
+    @Benchmark
+    public String constantRouteLegacy() {
+        return new LegacyBuilder(CONTEXT_PATH, constantRoute)
+            .build();
+    }
+
+    @Benchmark
+    public String parameterRouteTemplate() {
+        return new ReverseRouter.Builder(CONTEXT_PATH, parameterRoute)
+            .rawPathParam("category", "books")
+            .rawPathParam("id", 4711)
+            .build();
+    }
+
+    @Benchmark
+    public String parameterRouteLegacy() {
+        return new LegacyBuilder(CONTEXT_PATH, parameterRoute)
+            .rawPathParam("category", "books")
+            .rawPathParam("id", 4711)
+            .build();
+    }
+
+    /**
+     * ReverseRouter.Builder before routes carried a template (scheme, host
+     * and query parameters omitted).
+     */
+    private static class LegacyBuilder {
+
+        private final String contextPath;
+        private final Route route;
+        private Map<String, String> pathParams;
+
+        LegacyBuilder(String contextPath, Route route) {
+            this.contextPath = contextPath;
+            this.route = route;
+        }
+
+        LegacyBuilder rawPathParam(String name, Object value) {
+            if (!route.getParameters().containsKey(name)) {
+                throw new IllegalArgumentException(name);
+            }
+            if (pathParams == null) {
+                pathParams = new LinkedHashMap<>();
+            }
+            pathParams.put(name, value.toString());
+            return this;
+        }
+
+        String build() {
+            int expectedParamSize = route.getParameters().size();
+            int actualParamSize = (pathParams != null ? pathParams.size() : 0);
+            if (expectedParamSize != actualParamSize) {
+                throw new IllegalArgumentException(route.getUri());
+            }
+
+            String rawUri = route.getUri();
+
+            StringBuilder buffer = new StringBuilder(rawUri.length());
+
+            if (contextPath != null && contextPath.length() > 0) {
+                buffer.append(contextPath);
+            }
+
+            int lastIndex = 0;
+
+            if (pathParams != null) {
+                for (RouteParameter rp : route.getParameters().values()) {
+                    String value = pathParams.get(rp.getName());
+
+                    buffer.append(rawUri.substring(lastIndex, rp.getIndex()));
+                    buffer.append(value);
+                    lastIndex = rp.getIndex() + rp.getToken().length();
+                }
+            }
+
+            if (lastIndex < rawUri.length()) {
+                buffer.append(rawUri.substring(lastIndex));
+            }
+
+            return buffer.toString();
+        }
+
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(ReverseRouterBenchmark.class.getSimpleName())
+            .build();
+
+        new Runner(options).run();
+    }
+
+}
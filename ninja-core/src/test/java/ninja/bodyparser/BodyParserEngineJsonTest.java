@@ -32,12 +32,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Iterator;
 import java.util.TimeZone;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Unit tests for the Json body parser.
@@ -230,6 +235,75 @@ public class BodyParserEngineJsonTest {
         assertTrue(testForm.lastSeen == null);
     }
 
+    @Test
+    public void testObjectReaderIsCachedPerType() throws IOException {
+        final ObjectMapper jsonObjMapper = new ObjectMapper();
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(jsonObjMapper);
+
+        Mockito.when(context.getInputStream()).thenReturn(
+                new ByteArrayInputStream("{\"firstName\":\"John\"}".getBytes()),
+                new ByteArrayInputStream("{\"firstName\":\"Jane\"}".getBytes()));
+
+        assertThat(bodyParserEngineJson.invoke(context, SimpleTestForm.class).firstName, equalTo("John"));
+        assertThat(bodyParserEngineJson.invoke(context, SimpleTestForm.class).firstName, equalTo("Jane"));
+        assertTrue(bodyParserEngineJson.getObjectReader(SimpleTestForm.class)
+                == bodyParserEngineJson.getObjectReader(SimpleTestForm.class));
+    }
+
+    @Test
+    public void testJsonArrayAsStream() throws IOException {
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "[{\"firstName\":\"John\"}, {\"firstName\":\"Jane\"}]".getBytes()));
+
+        try (Stream<SimpleTestForm> stream = bodyParserEngineJson.invokeAsStream(context, SimpleTestForm.class)) {
+            assertThat(stream.map(form -> form.firstName).collect(Collectors.toList()),
+                    equalTo(Arrays.asList("John", "Jane")));
+        }
+    }
+
+    @Test
+    public void testNewlineDelimitedJsonAsStream() throws IOException {
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineNdjson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "{\"firstName\":\"John\"}\n{\"firstName\":\"Jane\"}\n{\"firstName\":\"Jim\"}\n".getBytes()));
+
+        try (Stream<SimpleTestForm> stream = bodyParserEngineJson.invokeAsStream(context, SimpleTestForm.class)) {
+            assertThat(stream.map(form -> form.firstName).collect(Collectors.toList()),
+                    equalTo(Arrays.asList("John", "Jane", "Jim")));
+        }
+        assertThat(bodyParserEngineJson.getContentType(), equalTo("application/x-ndjson"));
+    }
+
+    @Test
+    public void testEmptyBodyAsStream() throws IOException {
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        assertThat(bodyParserEngineJson.invokeAsStream(context, SimpleTestForm.class).count(), equalTo(0L));
+    }
+
+    @Test
+    public void testMalformedElementInStreamIsBadRequest() throws IOException {
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "[{\"firstName\":\"John\"}, {\"firstName\": ]".getBytes()));
+
+        Iterator<SimpleTestForm> iterator = bodyParserEngineJson.invokeAsStream(context, SimpleTestForm.class).iterator();
+
+        assertThat(iterator.next().firstName, equalTo("John"));
+        try {
+            iterator.next();
+            fail("BadRequestException expected");
+        } catch (BadRequestException e) {
+            // expected
+        }
+    }
+
     /**
      * Simple form used during unit tests.
      *
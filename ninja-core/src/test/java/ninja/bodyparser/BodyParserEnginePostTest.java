@@ -348,6 +348,52 @@ public class BodyParserEnginePostTest {
         assertFalse(validation.hasViolations());
     }
     
+    @Test
+    public void testBodyParserWithDeeplyNestedInnerObjects() {
+        Map<String, String[]> map = new HashMap<>();
+        map.put("inner.object1.string", new String [] {"deep"});
+        map.put("inner.object2.string", new String [] {""});
+        map.put("name", new String [] {"outer"});
+        
+        Mockito.when(context.getParameters()).thenReturn(map);
+        Mockito.when(context.getValidation()).thenReturn(validation);
+
+        // do
+        TestObjectWithNestedInnerObjects testObject = bodyParserEnginePost.invoke(context, TestObjectWithNestedInnerObjects.class);
+        
+        // and test:
+        assertThat(testObject.name, equalTo("outer"));
+        assertNotNull(testObject.inner);
+        assertThat(testObject.inner.object1.string, equalTo("deep"));
+        assertNull(testObject.inner.object2);
+        
+        assertFalse(validation.hasViolations());
+    }
+    
+    @Test
+    public void testBodyParserWithRawCollection() {
+        Map<String, String[]> map = new HashMap<>();
+        map.put("rawList", new String [] {"a", "b"});
+        map.put("string", new String [] {"aString"});
+        
+        Mockito.when(context.getParameters()).thenReturn(map);
+
+        // do
+        TestObjectWithRawCollection testObject = bodyParserEnginePost.invoke(context, TestObjectWithRawCollection.class);
+        
+        // and test:
+        assertNull(testObject.rawList);
+        assertThat(testObject.string, equalTo("aString"));
+    }
+    
+    @Test
+    public void testBindingPlanIsComputedOncePerClass() {
+        BodyParserEnginePost.BindingPlan bindingPlan = bodyParserEnginePost.getBindingPlan(TestObject.class);
+        
+        assertThat(bindingPlan.getFieldCount(), equalTo(TestObject.class.getDeclaredFields().length));
+        assertTrue(bindingPlan == bodyParserEnginePost.getBindingPlan(TestObject.class));
+    }
+    
     private <T> void assertViolation(String fieldName, String violationMessage) {
         assertTrue(validation.hasViolation(fieldName));
         assertFalse(validation.getViolations().isEmpty());
@@ -420,4 +466,19 @@ public class BodyParserEnginePostTest {
 
     }
     
+    public static class TestObjectWithNestedInnerObjects {
+        
+        public String name;
+        public TestObjectWithInnerObjects inner;
+
+    }
+    
+    public static class TestObjectWithRawCollection {
+        
+        @SuppressWarnings("rawtypes")
+        public List rawList;
+        public String string;
+
+    }
+    
 }
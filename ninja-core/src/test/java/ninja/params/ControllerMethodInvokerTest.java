@@ -48,6 +48,7 @@ import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
+import java.io.IOException;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -105,6 +106,32 @@ public class ControllerMethodInvokerTest {
         verify(mockController).noParameter();
     }
 
+    @Test
+    public void runtimeExceptionOfControllerShouldBeRethrown() throws Exception {
+        IllegalStateException exception = new IllegalStateException();
+        when(mockController.noParameter()).thenThrow(exception);
+        try {
+            create("noParameter").invoke(mockController, context);
+            fail();
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+    }
+
+    @Test
+    public void checkedExceptionOfControllerShouldBeWrapped() throws Exception {
+        IOException exception = new IOException();
+        when(mockController.noParameter()).thenAnswer(invocation -> {
+            throw exception;
+        });
+        try {
+            create("noParameter").invoke(mockController, context);
+            fail();
+        } catch (RuntimeException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
     @Test
     public void contextShouldBePassed() throws Exception {
         create("context").invoke(mockController, context);
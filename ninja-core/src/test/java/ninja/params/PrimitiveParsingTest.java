@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.params;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+import ninja.validation.ConstraintViolation;
+import ninja.validation.Validation;
+
+public class PrimitiveParsingTest {
+
+    private static final List<String> NUMBERS = Arrays.asList(
+            "0", "000", "7", "+7", "-7", "123456789", "-123456789",
+            "2147483647", "2147483648", "-2147483648", "-2147483649",
+            "999999999999999999", "9223372036854775807", "9223372036854775808",
+            "-9223372036854775808", "-9223372036854775809",
+            "١٢", "+", "-", "--1", "1-", "1.0", "1e3", " 1", "0x1F", "abc");
+
+    private static final List<String> UUIDS = Arrays.asList(
+            "fe45481f-ed31-40e4-9bca-9cec383302c2",
+            "FE45481F-ED31-40E4-9BCA-9CEC383302C2",
+            "00000000-0000-0000-0000-000000000000",
+            "ffffffff-ffff-ffff-ffff-ffffffffffff",
+            "fe45481f-ed31-40e4-9bca-9cec383302cg",
+            "fe45481fged31-40e4-9bca-9cec383302c2",
+            "1-2-3-4-5");
+
+    @Test
+    public void integersAreParsedLikeTheJdkDoes() {
+        for (String number : NUMBERS) {
+            Integer expected;
+            try {
+                expected = Integer.parseInt(number);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+
+            Integer actual = new ParamParsers.IntegerParamParser()
+                    .parseParameter("param1", number, mock(Validation.class));
+
+            assertThat(number, actual, is(expected));
+        }
+    }
+
+    @Test
+    public void longsAreParsedLikeTheJdkDoes() {
+        for (String number : NUMBERS) {
+            Long expected;
+            try {
+                expected = Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                expected = null;
+            }
+
+            Long actual = new ParamParsers.LongParamParser()
+                    .parseParameter("param1", number, mock(Validation.class));
+
+            assertThat(number, actual, is(expected));
+        }
+    }
+
+    @Test
+    public void uuidsAreParsedLikeTheJdkDoes() {
+        for (String uuid : UUIDS) {
+            UUID expected;
+            try {
+                expected = UUID.fromString(uuid);
+            } catch (IllegalArgumentException e) {
+                expected = null;
+            }
+
+            UUID actual = new ParamParsers.UUIDParamParser()
+                    .parseParameter("param1", uuid, mock(Validation.class));
+
+            assertThat(uuid, actual, is(expected));
+        }
+    }
+
+    @Test
+    public void invalidNumbersAreReported() {
+        Validation validation = mock(Validation.class);
+
+        assertThat(new ParamParsers.PrimitiveIntegerParamParser()
+                .parseParameter("param1", "2147483648", validation), is(0));
+
+        verify(validation).addViolation(ArgumentMatchers.any(ConstraintViolation.class));
+    }
+
+    @Test
+    public void isSmallAsciiInteger() {
+        assertThat(PrimitiveParsing.isSmallAsciiInteger("123456789", PrimitiveParsing.MAX_SAFE_INT_DIGITS), is(true));
+        assertThat(PrimitiveParsing.isSmallAsciiInteger("-123456789", PrimitiveParsing.MAX_SAFE_INT_DIGITS), is(true));
+        assertThat(PrimitiveParsing.isSmallAsciiInteger("1234567890", PrimitiveParsing.MAX_SAFE_INT_DIGITS), is(false));
+        assertThat(PrimitiveParsing.isSmallAsciiInteger("١", PrimitiveParsing.MAX_SAFE_INT_DIGITS), is(false));
+        assertThat(PrimitiveParsing.isSmallAsciiInteger("-", PrimitiveParsing.MAX_SAFE_INT_DIGITS), is(false));
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
+import ninja.Context;
+import ninja.Result;
+import ninja.Results;
+import ninja.Route;
+import ninja.exceptions.RenderingException;
+import ninja.template.compiled.HelloTemplate;
+import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseStreams;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TemplateEngineCompiledTest {
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private Route route;
+
+    @Mock
+    private ResponseStreams responseStreams;
+
+    @Mock
+    private NinjaProperties ninjaProperties;
+
+    private final TemplateEngineHelper templateEngineHelper = new TemplateEngineHelper();
+
+    private TemplateEngineCompiled templateEngineCompiled;
+
+    @Before
+    public void before() {
+        when(ninjaProperties.getWithDefault(TemplateEngineCompiled.COMPILED_TEMPLATES_CONFIGURATION_FILE_SUFFIX, ".jtpl.html"))
+                .thenReturn(".jtpl.html");
+
+        templateEngineCompiled = new TemplateEngineCompiled(templateEngineHelper, ninjaProperties);
+    }
+
+    @Test
+    public void rendersCompiledTemplateWithContentLength() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(context.getRoute()).thenReturn(route);
+        when(context.finalizeHeaders(any(Result.class))).thenReturn(responseStreams);
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        Result result = Results.html()
+                .template("/ninja/template/compiled/hello.jtpl.html")
+                .render("name", "<Bob>");
+
+        templateEngineCompiled.invoke(context, result);
+
+        assertThat(outputStream.toString("UTF-8"), equalTo("<h1>Hello &lt;Bob&gt;!</h1>"));
+        assertThat(result.getHeaders().get(Result.CONTENT_LENGTH), equalTo("27"));
+    }
+
+    @Test
+    public void compiledTemplatesAreLoadedOnce() {
+        Result result = Results.html();
+
+        assertThat(templateEngineCompiled.getCompiledTemplate("ninja/template/compiled/hello.jtpl.html", result),
+                instanceOf(HelloTemplate.class));
+        assertThat(templateEngineCompiled.getCompiledTemplate("ninja/template/compiled/hello.jtpl.html", result),
+                sameInstance(templateEngineCompiled.getCompiledTemplate("ninja/template/compiled/hello.jtpl.html", result)));
+    }
+
+    @Test
+    public void wrongModelIsReported() {
+        when(context.getRoute()).thenReturn(route);
+
+        try {
+            templateEngineCompiled.invoke(context, Results.html()
+                    .template("ninja/template/compiled/hello.jtpl.html")
+                    .render(new Object()));
+            fail("exception expected");
+        } catch (RenderingException e) {
+            assertThat(e.getMessage(), equalTo("Template renders java.util.Map but got java.lang.Object"));
+        }
+
+        verify(context, never()).finalizeHeaders(any(Result.class));
+    }
+
+    @Test(expected = RenderingException.class)
+    public void missingCompiledTemplateIsReported() {
+        when(context.getRoute()).thenReturn(route);
+
+        templateEngineCompiled.invoke(context, Results.html().template("views/missing.jtpl.html"));
+    }
+
+    @Test
+    public void isOnlyDefaultForHtmlIfConfigured() {
+        assertThat(templateEngineCompiled.isDefaultForContentType(), equalTo(false));
+        assertThat(templateEngineCompiled.getSuffixOfTemplatingEngine(), equalTo(".jtpl.html"));
+
+        when(ninjaProperties.getBooleanWithDefault(TemplateEngineCompiled.COMPILED_TEMPLATES_CONFIGURATION_DEFAULT, false))
+                .thenReturn(true);
+
+        assertThat(new TemplateEngineCompiled(templateEngineHelper, ninjaProperties).isDefaultForContentType(),
+                equalTo(true));
+    }
+
+}
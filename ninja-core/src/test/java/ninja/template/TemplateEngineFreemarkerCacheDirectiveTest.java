@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ninja.Context;
+import ninja.cache.Cache;
+import ninja.session.Session;
+import ninja.template.directives.TemplateEngineFreemarkerCacheDirective;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateMethodModelEx;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TemplateEngineFreemarkerCacheDirectiveTest {
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private Cache cache;
+
+    private final Map<String, Object> cacheContent = new HashMap<>();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final StringTemplateLoader templateLoader = new StringTemplateLoader();
+
+    private Configuration configuration;
+
+    @Before
+    public void before() {
+        configuration = new Configuration(Configuration.VERSION_2_3_29);
+        configuration.setTemplateLoader(templateLoader);
+    }
+
+    private void mockCache() {
+        when(cache.get(anyString())).then(invocation -> cacheContent.get(invocation.getArgument(0)));
+        doAnswer(invocation -> cacheContent.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(cache).set(anyString(), any(), anyInt());
+    }
+
+    private String render(String template, String lang, boolean enabled) throws Exception {
+        templateLoader.putTemplate("test", template);
+
+        Map<String, Object> dataModel = new HashMap<>();
+        dataModel.put("cache", new TemplateEngineFreemarkerCacheDirective(() -> cache, context, enabled));
+        dataModel.put("next", (TemplateMethodModelEx) arguments -> counter.incrementAndGet());
+        if (lang != null) {
+            dataModel.put("lang", lang);
+        }
+
+        StringWriter writer = new StringWriter();
+        configuration.getTemplate("test").process(dataModel, writer);
+        return writer.toString();
+    }
+
+    @Test
+    public void bodyIsRenderedOnceAndThenServedFromCache() throws Exception {
+        mockCache();
+        String template = "<p><@cache key=\"nav\" ttl=\"10m\">${next()}</@cache></p>";
+
+        assertThat(render(template, null, true), equalTo("<p>1</p>"));
+        assertThat(render(template, null, true), equalTo("<p>1</p>"));
+
+        verify(cache, times(1)).set("ninja.fragment:nav", "1", 600);
+    }
+
+    @Test
+    public void ttlCanBeSeconds() throws Exception {
+        mockCache();
+
+        render("<@cache key=\"nav\" ttl=30>x</@cache>", null, true);
+
+        verify(cache).set("ninja.fragment:nav", "x", 30);
+    }
+
+    @Test
+    public void keyVariesByLanguageAndSession() throws Exception {
+        mockCache();
+        when(context.getSession()).thenReturn(session);
+        when(session.get(Session.ID_KEY)).thenReturn("abc");
+        String template = "<@cache key=\"nav\" ttl=\"1h\" vary=\"lang, session\">${next()}</@cache>";
+
+        assertThat(render(template, "de", true), equalTo("1"));
+        assertThat(render(template, "en", true), equalTo("2"));
+        assertThat(render(template, "de", true), equalTo("1"));
+
+        assertThat(cacheContent.keySet(), hasItems(
+                "ninja.fragment:nav:lang=de:session=abc",
+                "ninja.fragment:nav:lang=en:session=abc"));
+    }
+
+    @Test
+    public void anonymousVisitorsShareFragmentWithoutStartingSession() throws Exception {
+        mockCache();
+        when(context.getSession()).thenReturn(session);
+        when(session.isEmpty()).thenReturn(true);
+        String template = "<@cache key=\"nav\" ttl=\"1h\" vary=\"session\">${next()}</@cache>";
+
+        assertThat(render(template, null, true), equalTo("1"));
+        assertThat(render(template, null, true), equalTo("1"));
+
+        assertThat(cacheContent.keySet(), hasItems("ninja.fragment:nav:session=anonymous"));
+        verify(session, never()).getId();
+    }
+
+    @Test
+    public void sessionWithoutIdIsNotCached() throws Exception {
+        when(context.getSession()).thenReturn(session);
+        when(session.isEmpty()).thenReturn(false);
+        String template = "<@cache key=\"nav\" ttl=\"1h\" vary=\"session\">${next()}</@cache>";
+
+        assertThat(render(template, null, true), equalTo("1"));
+        assertThat(render(template, null, true), equalTo("2"));
+
+        verifyNoInteractions(cache);
+        verify(session, never()).getId();
+    }
+
+    @Test
+    public void bodyIsRenderedEveryTimeIfDisabled() throws Exception {
+        String template = "<@cache key=\"nav\" ttl=\"10m\">${next()}</@cache>";
+
+        assertThat(render(template, null, false), equalTo("1"));
+        assertThat(render(template, null, false), equalTo("2"));
+
+        verifyNoInteractions(cache);
+    }
+
+    @Test(expected = TemplateException.class)
+    public void keyIsRequired() throws Exception {
+        render("<@cache ttl=\"10m\">x</@cache>", null, true);
+    }
+
+    @Test(expected = TemplateException.class)
+    public void invalidTtlIsRejected() throws Exception {
+        render("<@cache key=\"nav\" ttl=\"forever\">x</@cache>", null, true);
+    }
+
+    @Test(expected = TemplateException.class)
+    public void unknownVaryIsRejected() throws Exception {
+        render("<@cache key=\"nav\" ttl=\"10m\" vary=\"user\">x</@cache>", null, true);
+    }
+
+    @Test
+    public void brokenBodyIsNotCached() throws Exception {
+        when(cache.get(anyString())).thenReturn(null);
+
+        try {
+            render("<@cache key=\"nav\" ttl=\"10m\">${missing}</@cache>", null, true);
+        } catch (TemplateException e) {
+            // expected
+        }
+
+        verify(cache, times(0)).set(eq("ninja.fragment:nav"), any(), anyInt());
+    }
+
+}
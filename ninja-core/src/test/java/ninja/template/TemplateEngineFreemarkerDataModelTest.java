@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import ninja.Context;
+import ninja.Result;
+import ninja.Results;
+import ninja.i18n.Lang;
+import ninja.i18n.Messages;
+import ninja.session.FlashScope;
+import ninja.session.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import freemarker.template.Configuration;
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateScalarModel;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TemplateEngineFreemarkerDataModelTest {
+
+    @Mock
+    private Context context;
+
+    @Mock
+    private Lang lang;
+
+    @Mock
+    private Messages messages;
+
+    @Mock
+    private FlashScope flashScope;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private TemplateEngineFreemarker templateEngine;
+
+    private final ObjectWrapper objectWrapper
+            = new Configuration(Configuration.VERSION_2_3_29).getObjectWrapper();
+
+    private final Result result = Results.html();
+
+    private Map<String, Object> renderedValues;
+
+    private TemplateEngineFreemarkerDataModel dataModel;
+
+    @Before
+    public void before() {
+        when(templateEngine.getLang()).thenReturn(lang);
+        when(templateEngine.getMessages()).thenReturn(messages);
+
+        renderedValues = new HashMap<>();
+        dataModel = new TemplateEngineFreemarkerDataModel(
+                renderedValues, context, result, templateEngine, objectWrapper);
+    }
+
+    @Test
+    public void ninjaValuesAreOnlyCreatedOnAccess() throws Exception {
+        renderedValues.put("title", "Start");
+
+        assertThat(((TemplateScalarModel) dataModel.get("title")).getAsString(), equalTo("Start"));
+        assertThat(dataModel.get("unknown"), nullValue());
+
+        verifyNoInteractions(lang, messages, context);
+    }
+
+    @Test
+    public void languageIsResolvedOncePerRender() throws Exception {
+        when(lang.getLanguage(any(Context.class), any(Optional.class))).thenReturn(Optional.of("de"));
+        when(lang.getLocaleFromStringOrDefault(Optional.of("de"))).thenReturn(Locale.GERMAN);
+
+        assertThat(((TemplateScalarModel) dataModel.get("lang")).getAsString(), equalTo("de"));
+        assertThat(dataModel.get("prettyTime"), instanceOf(TemplateEngineFreemarkerPrettyTimeMethod.class));
+        // the same model is returned on every access
+        assertThat(dataModel.get("prettyTime"), sameInstance(dataModel.get("prettyTime")));
+
+        verify(lang, times(1)).getLanguage(any(Context.class), any(Optional.class));
+    }
+
+    @Test
+    public void flashScopeIsTranslatedOnAccess() throws Exception {
+        Map<String, String> flashData = new HashMap<>();
+        flashData.put("success", "flash.saved");
+        flashData.put("error", "untranslated");
+        when(context.getFlashScope()).thenReturn(flashScope);
+        when(flashScope.getCurrentFlashCookieData()).thenReturn(flashData);
+        when(messages.get("flash.saved", context, Optional.of(result))).thenReturn(Optional.of("Saved"));
+        when(messages.get("untranslated", context, Optional.of(result))).thenReturn(Optional.empty());
+
+        TemplateHashModel flash = (TemplateHashModel) dataModel.get("flash");
+
+        assertThat(((TemplateScalarModel) flash.get("success")).getAsString(), equalTo("Saved"));
+        assertThat(((TemplateScalarModel) flash.get("error")).getAsString(), equalTo("untranslated"));
+    }
+
+    @Test
+    public void keysContainRenderedAndNinjaValues() throws Exception {
+        renderedValues.put("title", "Start");
+        when(lang.getLanguage(any(Context.class), any(Optional.class))).thenReturn(Optional.empty());
+        when(context.getSession()).thenReturn(session);
+        when(session.isEmpty()).thenReturn(true);
+        when(context.getFlashScope()).thenReturn(flashScope);
+        when(flashScope.getCurrentFlashCookieData()).thenReturn(new HashMap<>());
+        when(context.getContextPath()).thenReturn("");
+
+        List<String> keys = new ArrayList<>();
+        TemplateModelIterator iterator = dataModel.keys().iterator();
+        while (iterator.hasNext()) {
+            keys.add(((TemplateScalarModel) iterator.next()).getAsString());
+        }
+
+        assertThat(keys, hasItems("title", "contextPath", "i18n", "flash"));
+        assertThat(keys.contains("lang"), equalTo(false));
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package ninja.template;
 
+import freemarker.cache.MruCacheStorage;
 import freemarker.template.Configuration;
 import ninja.Context;
 import ninja.Result;
@@ -38,21 +39,32 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.slf4j.Logger;
 
 import javax.inject.Singleton;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static ninja.template.TemplateEngineFreemarker.FREEMARKER_CONFIGURATION_CACHE_SOFT_SIZE;
+import static ninja.template.TemplateEngineFreemarker.FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE;
 import static ninja.template.TemplateEngineFreemarker.FREEMARKER_CONFIGURATION_FILE_SUFFIX;
+import static ninja.template.TemplateEngineFreemarker.FREEMARKER_CONFIGURATION_PRECOMPILE;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -97,15 +109,32 @@ public class TemplateEngineFreemarkerTest {
 
     private TemplateEngineFreemarker templateEngineFreemarker;
 
-    private Writer writer;
+    private ByteArrayOutputStream outputStream;
+
+    private ResponseStreams responseStreams;
 
     @Before
     public final void before() throws Exception {
         //Setup that allows to to execute invoke(...) in a very minimal version.
         when(ninjaProperties.getWithDefault(FREEMARKER_CONFIGURATION_FILE_SUFFIX, ".ftl.html")).thenReturn(".ftl.html");
+        when(ninjaProperties.getIntegerWithDefault(anyString(), anyInt())).then(invocation -> invocation.getArgument(1));
        
-        templateEngineFreemarker
-                = new TemplateEngineFreemarker(
+        templateEngineFreemarker = createTemplateEngineFreemarker();
+
+        
+        // ${lang}, ${flash} etc. are only looked up if a template uses them
+        when(context.getRoute()).thenReturn(route);
+
+        when(templateEngineHelper.getTemplateForResult(any(Route.class), any(Result.class), Mockito.anyString())).thenReturn("views/template.ftl.html");
+
+        outputStream = new ByteArrayOutputStream();
+        responseStreams = mock(ResponseStreams.class);
+        when(context.finalizeHeaders(any(Result.class))).thenReturn(responseStreams);
+        
+    }
+
+    private TemplateEngineFreemarker createTemplateEngineFreemarker() throws Exception {
+        return new TemplateEngineFreemarker(
                         messages,
                         lang,
                         logger,
@@ -115,29 +144,6 @@ public class TemplateEngineFreemarkerTest {
                         templateEngineFreemarkerAssetsAtMethod,
                         templateEngineFreemarkerWebJarsAtMethod,
                         ninjaProperties);
-
-        
-        when(lang.getLanguage(any(Context.class), any(Optional.class))).thenReturn(Optional.<String>empty());
-
-        Session session = Mockito.mock(Session.class);
-        when(session.isEmpty()).thenReturn(true);
-        when(context.getSession()).thenReturn(session);
-        when(context.getRoute()).thenReturn(route);
-        when(lang.getLocaleFromStringOrDefault(any(Optional.class))).thenReturn(Locale.ENGLISH);
-
-        FlashScope flashScope = Mockito.mock(FlashScope.class);
-        Map<String, String> flashScopeData = new HashMap<>();
-        when(flashScope.getCurrentFlashCookieData()).thenReturn(flashScopeData);
-        when(context.getFlashScope()).thenReturn(flashScope);
-
-        when(templateEngineHelper.getTemplateForResult(any(Route.class), any(Result.class), Mockito.anyString())).thenReturn("views/template.ftl.html");
-
-        writer = new StringWriter();
-        ResponseStreams responseStreams = mock(ResponseStreams.class);
-        when(context.finalizeHeaders(any(Result.class))).thenReturn(responseStreams);
-        when(responseStreams.getWriter()).thenReturn(writer);
-        
-        
     }
 
     @Test
@@ -147,16 +153,50 @@ public class TemplateEngineFreemarkerTest {
     }
 
     @Test
-    public void testBasicInvocation() {
+    public void testBasicInvocation() throws Exception {
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+        
         templateEngineFreemarker.invoke(context, Results.ok());
         verify(ninjaProperties).getWithDefault(TemplateEngineFreemarker.FREEMARKER_CONFIGURATION_FILE_SUFFIX, ".ftl.html");
         assertThat(templateEngineFreemarker.getSuffixOfTemplatingEngine(), equalTo(".ftl.html"));
         verify(templateEngineHelper).getTemplateForResult(eq(route), any(Result.class), eq(".ftl.html"));
+        assertThat(outputStream.toString("UTF-8"), equalTo("Just a plain template for testing..."));
+    }
+    
+    @Test
+    public void testThatUtf8IsWrittenWithContentLength() throws Exception {
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+        when(templateEngineHelper.getTemplateForResult(any(Route.class), any(Result.class), Mockito.anyString())).thenReturn("views/text.ftl.html");
+        
+        String text = "K\u00e4se \u20ac \ud83d\ude00";
+        Result result = Results.ok().render("text", text);
+        
+        templateEngineFreemarker.invoke(context, result);
+        
+        byte[] expected = ("<p>" + text + "</p>").getBytes(StandardCharsets.UTF_8);
+        assertThat(outputStream.toByteArray(), equalTo(expected));
+        assertThat(result.getHeaders().get(Result.CONTENT_LENGTH), equalTo(String.valueOf(expected.length)));
+        verify(responseStreams, never()).getWriter();
+    }
+    
+    @Test
+    public void testThatOtherCharsetsUseWriter() throws Exception {
+        StringWriter writer = new StringWriter();
+        when(responseStreams.getWriter()).thenReturn(writer);
+        
+        Result result = Results.ok().charset("ISO-8859-1");
+        
+        templateEngineFreemarker.invoke(context, result);
+        
         assertThat(writer.toString(), equalTo("Just a plain template for testing..."));
+        assertThat(result.getHeaders().containsKey(Result.CONTENT_LENGTH), equalTo(false));
+        verify(responseStreams, never()).getOutputStream();
     }
     
     @Test
-    public void testThatConfigurationCanBeRetrieved() {
+    public void testThatConfigurationCanBeRetrieved() throws Exception {
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+        
         templateEngineFreemarker.invoke(context, Results.ok());
         assertThat(templateEngineFreemarker.getConfiguration(), CoreMatchers.notNullValue(Configuration.class));
     }
@@ -182,4 +222,69 @@ public class TemplateEngineFreemarkerTest {
         when(templateEngineHelper.getTemplateForResult(any(Route.class), any(Result.class), Mockito.anyString())).thenReturn("views/broken.ftl.html");
         templateEngineFreemarker.invoke(context, Results.ok());
     }
+
+    @Test
+    public void testThatCacheSizesCanBeConfigured() throws Exception {
+        when(ninjaProperties.getIntegerWithDefault(FREEMARKER_CONFIGURATION_CACHE_STRONG_SIZE, 20)).thenReturn(50);
+        when(ninjaProperties.getIntegerWithDefault(FREEMARKER_CONFIGURATION_CACHE_SOFT_SIZE, Integer.MAX_VALUE)).thenReturn(100);
+        
+        MruCacheStorage cacheStorage = (MruCacheStorage) createTemplateEngineFreemarker().getConfiguration().getCacheStorage();
+        
+        assertThat(cacheStorage.getStrongSizeLimit(), equalTo(50));
+        assertThat(cacheStorage.getSoftSizeLimit(), equalTo(100));
+    }
+    
+    @Test
+    public void testThatTemplatesAreFoundOnClasspath() throws Exception {
+        List<String> templates = TemplateEngineFreemarker.findTemplates(getClass().getClassLoader(), ".ftl.html");
+        
+        assertThat(templates, hasItems("views/template.ftl.html", "views/text.ftl.html"));
+        assertThat(templates, not(hasItem("views/nothing.ftl")));
+    }
+    
+    @Test
+    public void testThatPrecompileParsesTemplatesAndReportsFailures() {
+        when(ninjaProperties.getBooleanWithDefault(FREEMARKER_CONFIGURATION_PRECOMPILE, false)).thenReturn(true);
+        
+        templateEngineFreemarker.precompileTemplates();
+        
+        MruCacheStorage cacheStorage = (MruCacheStorage) templateEngineFreemarker.getConfiguration().getCacheStorage();
+        assertThat(cacheStorage.getStrongSize() > 0, equalTo(true));
+        verify(logger).error(eq("Unable to precompile Freemarker template {}: {}"), eq("views/unparsable.ftl.html"), anyString());
+    }
+    
+    @Test
+    public void testThatPrecompileIsDisabledByDefault() {
+        templateEngineFreemarker.precompileTemplates();
+        
+        MruCacheStorage cacheStorage = (MruCacheStorage) templateEngineFreemarker.getConfiguration().getCacheStorage();
+        assertThat(cacheStorage.getStrongSize(), equalTo(0));
+    }
+
+    @Test
+    public void testThatNinjaValuesAreAvailableInTemplates() throws Exception {
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+        when(templateEngineHelper.getTemplateForResult(any(Route.class), any(Result.class), Mockito.anyString())).thenReturn("views/ninja.ftl.html");
+        when(lang.getLanguage(any(Context.class), any(Optional.class))).thenReturn(Optional.of("de"));
+        when(context.getContextPath()).thenReturn("/app");
+        
+        Session session = Mockito.mock(Session.class);
+        when(session.isEmpty()).thenReturn(false);
+        when(session.getData()).thenReturn(Collections.singletonMap("user", "bob"));
+        when(context.getSession()).thenReturn(session);
+        
+        FlashScope flashScope = Mockito.mock(FlashScope.class);
+        Map<String, String> flashScopeData = new HashMap<>();
+        flashScopeData.put("success", "flash.saved");
+        when(flashScope.getCurrentFlashCookieData()).thenReturn(flashScopeData);
+        when(context.getFlashScope()).thenReturn(flashScope);
+        when(messages.get(eq("flash.saved"), eq(context), any(Optional.class))).thenReturn(Optional.of("Gespeichert"));
+        
+        // rendered values must not hide the ones of Ninja
+        Result result = Results.ok().render("lang", "en").render("title", "Start");
+        
+        templateEngineFreemarker.invoke(context, result);
+        
+        assertThat(outputStream.toString("UTF-8"), equalTo("de|/app|bob|Gespeichert|Start"));
+    }
 }
@@ -20,6 +20,9 @@ import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ninja.Context;
 import ninja.Result;
+import ninja.exceptions.RenderingException;
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
 import ninja.utils.ResponseStreams;
 import org.junit.Before;
 import org.junit.Test;
@@ -29,9 +32,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -71,6 +81,81 @@ public class TemplateEngineJsonTest {
         verify(context).finalizeHeaders(result);
     }
 
+    @Test
+    public void testContentLengthIsSet() {
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+        jsonEngine.invoke(context, result);
+
+        String json = new String(outputStream.toByteArray(), UTF_8);
+        assertThat(json, equalTo("{\"field1\":\"field_one\",\"field2\":\"field_two\"}"));
+
+        verify(result).addHeader(Result.CONTENT_LENGTH, String.valueOf(json.length()));
+    }
+
+    @Test
+    public void testObjectWritersAreReused() {
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+
+        assertThat(
+                jsonEngine.getObjectWriter(TestObject.class, View.Public.class),
+                sameInstance(jsonEngine.getObjectWriter(TestObject.class, View.Public.class)));
+        assertFalse(jsonEngine.getObjectWriter(TestObject.class, null)
+                == jsonEngine.getObjectWriter(TestObject.class, View.Public.class));
+    }
+
+    @Test
+    public void testSerializationErrorIsThrownBeforeHeadersAreSent() {
+        when(result.getRenderable()).thenReturn(new FailingObject());
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+
+        try {
+            jsonEngine.invoke(context, result);
+            fail("exception expected");
+        } catch (RenderingException e) {
+            // expected
+        }
+
+        verify(context, never()).finalizeHeaders(any(Result.class));
+    }
+
+    @Test
+    public void testCacheableJsonIsSerializedOnce() {
+        CacheableObject cacheable = new CacheableObject("cached");
+        when(result.getRenderable()).thenReturn(cacheable);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper, cacheSize(10));
+        jsonEngine.invoke(context, result);
+        jsonEngine.invoke(context, result);
+        // equal instances share their json
+        when(result.getRenderable()).thenReturn(new CacheableObject("cached"));
+        jsonEngine.invoke(context, result);
+
+        assertThat(cacheable.serializations, equalTo(1));
+        assertThat(
+                new String(outputStream.toByteArray(), UTF_8),
+                equalTo("{\"value\":\"cached\"}{\"value\":\"cached\"}{\"value\":\"cached\"}"));
+        verify(result, times(3)).addHeader(Result.CONTENT_LENGTH, "18");
+    }
+
+    @Test
+    public void testCacheableJsonIsNotCachedIfDisabled() {
+        CacheableObject cacheable = new CacheableObject("cached");
+        when(result.getRenderable()).thenReturn(cacheable);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper, cacheSize(0));
+        jsonEngine.invoke(context, result);
+        jsonEngine.invoke(context, result);
+
+        assertThat(cacheable.serializations, equalTo(2));
+    }
+
+    private static NinjaProperties cacheSize(int cacheSize) {
+        NinjaProperties ninjaProperties = mock(NinjaProperties.class);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_JSON_CACHE_SIZE, 0))
+                .thenReturn(cacheSize);
+        return ninjaProperties;
+    }
 
     private static class TestObject {
 
@@ -82,6 +167,41 @@ public class TemplateEngineJsonTest {
     }
 
 
+    @CacheableJson
+    private static class CacheableObject {
+
+        private final String value;
+        private int serializations;
+
+        CacheableObject(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            serializations++;
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CacheableObject && ((CacheableObject) obj).value.equals(value);
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+
+
+    private static class FailingObject {
+
+        public String getValue() {
+            throw new IllegalStateException("boom");
+        }
+    }
+
+
     private static class View {
         public static class Public {}
         public static class Private {}
@@ -27,6 +27,7 @@ import java.util.List;
 import ninja.ContentTypes;
 import ninja.Context;
 import ninja.Result;
+import ninja.Results;
 import ninja.Router;
 import ninja.RouterImpl;
 import ninja.i18n.Lang;
@@ -94,6 +95,23 @@ public class TemplateEngineManagerImplTest {
                 ContentTypes.TEXT_HTML), instanceOf(OverrideHtmlTemplateEngine2.class));
     }
 
+    @Test
+    public void testCompiledRunsNextToFreemarker() {
+        TemplateEngineManager templateEngineManager = createTemplateEngineManager(TemplateEngineCompiled.class);
+        
+        assertThat(templateEngineManager.getTemplateEngineForContentType(
+                ContentTypes.TEXT_HTML), instanceOf(TemplateEngineFreemarker.class));
+        assertThat(templateEngineManager.getTemplateEngineForResult(
+                Results.html()), instanceOf(TemplateEngineFreemarker.class));
+        assertThat(templateEngineManager.getTemplateEngineForResult(
+                Results.html().template("views/index.jtpl.html")), instanceOf(TemplateEngineCompiled.class));
+        assertThat(templateEngineManager.getTemplateEngineForResult(
+                Results.html().template("views/index.ftl.html")), instanceOf(TemplateEngineFreemarker.class));
+        // the suffix only selects engines of the content type of the result
+        assertThat(templateEngineManager.getTemplateEngineForResult(
+                Results.json().template("views/index.jtpl.html")), instanceOf(TemplateEngineJson.class));
+    }
+
     @Test
     public void testContentTypes() {
         List<String> types = Lists.newArrayList(createTemplateEngineManager().getContentTypes());
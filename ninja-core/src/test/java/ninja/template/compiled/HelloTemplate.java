@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+// Generated from ninja/template/compiled/hello.jtpl.html. Do not edit.
+package ninja.template.compiled;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public final class HelloTemplate implements ninja.template.compiled.CompiledTemplate<java.util.Map<String, Object>> {
+
+    private static final byte[] CHUNK_0 = ninja.template.compiled.CompiledTemplateWriter.encode("<h1>Hello ");
+    private static final byte[] CHUNK_1 = ninja.template.compiled.CompiledTemplateWriter.encode("!</h1>");
+
+    @Override
+    public Class<java.util.Map<String, Object>> getModelType() {
+        return (Class) java.util.Map.class;
+    }
+
+    @Override
+    public void render(ninja.Context context, java.util.Map<String, Object> model, ninja.template.compiled.CompiledTemplateWriter out) throws java.io.IOException {
+        out.write(CHUNK_0);
+        out.writeEscaped(model.get("name")); // line 1
+        out.write(CHUNK_1);
+    }
+
+}
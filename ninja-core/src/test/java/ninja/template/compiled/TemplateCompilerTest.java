@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.template.compiled;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import ninja.Context;
+import ninja.utils.ResponseBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.base.Strings;
+
+public class TemplateCompilerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final TemplateCompiler templateCompiler = new TemplateCompiler(".jtpl.html");
+
+    @Test
+    public void classNameIsDerivedFromTemplateName() {
+        assertThat(templateCompiler.getClassName("/views/ApplicationController/index.jtpl.html"),
+                equalTo("views.ApplicationController.IndexTemplate"));
+        assertThat(templateCompiler.getClassName("views/my-module/2fa.jtpl.html"),
+                equalTo("views.my_module._2faTemplate"));
+        assertThat(templateCompiler.getClassName("views/new/layout.jtpl.html"),
+                equalTo("views.new_.LayoutTemplate"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void classNameNeedsSuffix() {
+        templateCompiler.getClassName("views/index.ftl.html");
+    }
+
+    @Test
+    public void javaLiteralsAreEscaped() {
+        assertThat(TemplateCompiler.toJavaLiteral("a\"b\\c\ndä"),
+                equalTo("\"a\\\"b\\\\c\\nd\\u00e4\""));
+    }
+
+    @Test
+    public void invalidTemplatesAreReported() {
+        assertError("<p>", "Missing {{@model ...}}", 1);
+        assertError("{{@model String}}\n{{ model", "Unclosed tag", 2);
+        assertError("{{@model String}}\n\n{{-- comment", "Unclosed comment", 3);
+        assertError("{{@model String}}{{@model String}}", "Duplicate {{@model ...}}", 1);
+        assertError("{{@model String}}\n{{#if true}}", "Unclosed {{#if}}", 2);
+        assertError("{{@model String}}{{#for String s : model.split(\",\")}}{{/if}}", "{{/if}} without {{#if}}", 1);
+        assertError("{{@model String}}{{#else}}", "{{#else}} without {{#if}}", 1);
+        assertError("{{@model String}}{{#include x}}", "Unknown tag {{#include x}}", 1);
+        assertError("{{@model String}}{{ }}", "Empty tag", 1);
+    }
+
+    private void assertError(String source, String message, int lineNumber) {
+        try {
+            templateCompiler.compile("views/test.jtpl.html", source);
+            fail("exception expected for " + source);
+        } catch (TemplateCompilerException e) {
+            assertThat(e.getMessage(), containsString(message));
+            assertThat(e.getLineNumber(), equalTo(lineNumber));
+            assertThat(e.getTemplateName(), equalTo("views/test.jtpl.html"));
+        }
+    }
+
+    @Test
+    public void compiledTemplateRenders() throws Exception {
+        String largeText = Strings.repeat("x", TemplateCompiler.MAX_LITERAL_LENGTH + 10);
+        String source = "{{@model java.util.List<String>}}{{@import java.util.Locale}}\n"
+                + "{{-- not rendered --}}<h1>{{ context.getContextPath() }}</h1>\n"
+                + "<ul>{{#for String item : model}}<li>{{ item.toUpperCase(Locale.ROOT) }}</li>{{/for}}</ul>\n"
+                + "{{#if model.isEmpty()}}empty{{#elseif model.size() == 1}}one{{#else}}{{ model.size() }}{{/if}}\n"
+                + "{{! \"<b>raw</b>\" }} \"Käse\" {{ null }}" + largeText;
+
+        CompiledTemplate<List<String>> compiledTemplate = compile("views/test.jtpl.html", source);
+
+        Context context = mock(Context.class);
+        when(context.getContextPath()).thenReturn("/app");
+
+        assertThat(compiledTemplate.getModelType().getName(), equalTo("java.util.List"));
+        assertThat(render(compiledTemplate, context, Arrays.asList("a", "<b>")),
+                equalTo("\n<h1>/app</h1>\n"
+                        + "<ul><li>A</li><li>&lt;B&gt;</li></ul>\n"
+                        + "2\n"
+                        + "<b>raw</b> \"Käse\" " + largeText));
+        assertThat(render(compiledTemplate, context, Arrays.asList()), containsString("\nempty\n"));
+    }
+
+    private String render(CompiledTemplate<List<String>> compiledTemplate,
+                          Context context,
+                          List<String> model) throws Exception {
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        try {
+            compiledTemplate.render(context, model, new CompiledTemplateWriter(buffer));
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompiledTemplate<T> compile(String templateName, String source) throws Exception {
+        String className = templateCompiler.getClassName(templateName);
+        File sourceDir = temporaryFolder.newFolder("src");
+        File classesDir = temporaryFolder.newFolder("classes");
+
+        Path sourceFile = sourceDir.toPath().resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, templateCompiler.compile(templateName, source).getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler javaCompiler = ToolProvider.getSystemJavaCompiler();
+        int exitCode = javaCompiler.run(null, null, null,
+                "-classpath", System.getProperty("java.class.path"),
+                "-encoding", "UTF-8",
+                "-d", classesDir.getAbsolutePath(),
+                sourceFile.toString());
+        assertThat("javac exit code", exitCode, equalTo(0));
+
+        URLClassLoader classLoader = new URLClassLoader(
+                new URL[] {classesDir.toURI().toURL()}, getClass().getClassLoader());
+
+        return (CompiledTemplate<T>) classLoader.loadClass(className).getDeclaredConstructor().newInstance();
+    }
+
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.io.ByteStreams;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FileItemTransferTest {
+
+    private static final byte[] DATA = "abcdefghijklmnopqrstuvwxyz".getBytes();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    NinjaProperties ninjaProperties;
+
+    @Mock
+    FileItemStream fileItemStream;
+
+    File tmpFolder;
+
+    @Before
+    public void setUp() throws IOException {
+        tmpFolder = temporaryFolder.newFolder("tmp");
+
+        when(ninjaProperties.get(NinjaConstant.UPLOADS_TEMP_FOLDER)).thenReturn(tmpFolder.getAbsolutePath());
+        when(fileItemStream.openStream()).thenReturn(new ByteArrayInputStream(DATA));
+    }
+
+    @Test
+    public void diskFileItemIsMovedToTarget() throws IOException {
+        FileItem fileItem = new DiskFileItemProvider(ninjaProperties).create(fileItemStream);
+        File tmpFile = fileItem.getFile();
+        Path target = temporaryFolder.getRoot().toPath().resolve("stored.txt");
+
+        fileItem.transferTo(target);
+
+        assertFalse(tmpFile.exists());
+        assertArrayEquals(DATA, Files.readAllBytes(target));
+        // item is still readable from its new location
+        assertThat(fileItem.getFile(), is(target.toFile()));
+        assertArrayEquals(DATA, toByteArray(fileItem.getInputStream()));
+
+        // a second transfer copies, it does not move the stored file away
+        Path copy = temporaryFolder.getRoot().toPath().resolve("copy.txt");
+        fileItem.transferTo(copy);
+
+        assertArrayEquals(DATA, Files.readAllBytes(copy));
+        assertTrue(Files.exists(target));
+
+        fileItem.cleanup();
+
+        assertTrue(Files.exists(target));
+    }
+
+    @Test
+    public void diskFileItemToChannel() throws IOException {
+        FileItem fileItem = new DiskFileItemProvider(ninjaProperties).create(fileItemStream);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(fileItem.transferTo(Channels.newChannel(out)), is((long) DATA.length));
+        assertArrayEquals(DATA, out.toByteArray());
+
+        fileItem.cleanup();
+    }
+
+    @Test
+    public void memoryFileItemToPathAndChannel() throws IOException {
+        FileItem fileItem = new MemoryFileItemProvider().create(fileItemStream);
+        Path target = temporaryFolder.getRoot().toPath().resolve("stored.txt");
+        Files.write(target, "longer content that must be replaced".getBytes());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        fileItem.transferTo(target);
+
+        assertArrayEquals(DATA, Files.readAllBytes(target));
+        assertThat(fileItem.transferTo(Channels.newChannel(out)), is((long) DATA.length));
+        assertArrayEquals(DATA, out.toByteArray());
+    }
+
+    @Test
+    public void hybridMemoryFileItemToPathAndChannel() throws IOException {
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MEMORY_THRESHOLD, 64 * 1024)).thenReturn(100);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_SIZE, 8 * 1024)).thenReturn(10);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_POOL_SIZE, 256)).thenReturn(0);
+
+        FileItem fileItem = new HybridFileItemProvider(ninjaProperties).create(fileItemStream);
+        Path target = temporaryFolder.getRoot().toPath().resolve("stored.txt");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        fileItem.transferTo(target);
+
+        assertArrayEquals(DATA, Files.readAllBytes(target));
+        assertThat(fileItem.transferTo(Channels.newChannel(out)), is((long) DATA.length));
+        assertArrayEquals(DATA, out.toByteArray());
+        assertThat(tmpFolder.list().length, is(0));
+
+        fileItem.cleanup();
+    }
+
+    @Test
+    public void defaultTransferUsesInputStream() throws IOException {
+        FileItem fileItem = new FileItem() {
+            @Override
+            public String getFileName() {
+                return "data.txt";
+            }
+            @Override
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(DATA);
+            }
+            @Override
+            public File getFile() {
+                return null;
+            }
+            @Override
+            public String getContentType() {
+                return null;
+            }
+            @Override
+            public FileItemHeaders getHeaders() {
+                return null;
+            }
+            @Override
+            public void cleanup() {
+            }
+        };
+        Path target = temporaryFolder.getRoot().toPath().resolve("stored.txt");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        fileItem.transferTo(target);
+
+        assertArrayEquals(DATA, Files.readAllBytes(target));
+        assertThat(fileItem.transferTo(Channels.newChannel(out)), is((long) DATA.length));
+        assertArrayEquals(DATA, out.toByteArray());
+    }
+
+    @Test
+    public void copyReplacesExistingTarget() throws IOException {
+        Path source = temporaryFolder.newFile("source.txt").toPath();
+        Path target = temporaryFolder.newFile("target.txt").toPath();
+        Files.write(source, DATA);
+        Files.write(target, "longer content that must be replaced".getBytes());
+
+        FileTransfers.copy(source, target);
+
+        assertArrayEquals(DATA, Files.readAllBytes(target));
+        assertTrue(Files.exists(source));
+    }
+
+    private static byte[] toByteArray(InputStream is) throws IOException {
+        try (InputStream in = is) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+}
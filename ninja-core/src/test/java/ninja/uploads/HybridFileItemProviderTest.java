@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.uploads;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+
+import ninja.utils.NinjaConstant;
+import ninja.utils.NinjaProperties;
+
+import org.apache.commons.fileupload.FileItemStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.common.io.ByteStreams;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HybridFileItemProviderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    NinjaProperties ninjaProperties;
+
+    @Mock
+    FileItemStream fileItemStream;
+
+    HybridFileItemProvider provider;
+
+    @Before
+    public void setUp() {
+        when(ninjaProperties.get(NinjaConstant.UPLOADS_TEMP_FOLDER))
+            .thenReturn(temporaryFolder.getRoot().getAbsolutePath());
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MEMORY_THRESHOLD, 64 * 1024))
+            .thenReturn(100);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_SIZE, 8 * 1024))
+            .thenReturn(32);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_BUFFER_POOL_SIZE, 256))
+            .thenReturn(8);
+
+        provider = new HybridFileItemProvider(ninjaProperties);
+    }
+
+    @Test
+    public void smallFileIsKeptInMemory() throws IOException {
+        byte[] data = upload(100);
+
+        FileItem fileItem = provider.create(fileItemStream);
+
+        assertThat(fileItem.getFileName(), is("upload.bin"));
+        assertArrayEquals(data, read(fileItem.getInputStream()));
+        assertThat(temporaryFolder.getRoot().list().length, is(0));
+
+        // file is written on demand
+        File file = fileItem.getFile();
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+
+        fileItem.cleanup();
+
+        assertFalse(file.exists());
+        assertThat(provider.getBufferPool().getPooledCount(), is(4));
+    }
+
+    @Test
+    public void buffersOfOpenStreamsAreReturnedOnceClosed() throws IOException {
+        byte[] data = upload(100);
+
+        FileItem fileItem = provider.create(fileItemStream);
+
+        InputStream is = fileItem.getInputStream();
+
+        // e.g. the request ended while a CompletionStage still reads the file
+        fileItem.cleanup();
+
+        assertThat(provider.getBufferPool().getPooledCount(), is(0));
+        assertArrayEquals(data, read(is));
+        assertThat(provider.getBufferPool().getPooledCount(), is(4));
+    }
+
+    @Test
+    public void largeFileSpillsToDisk() throws IOException {
+        byte[] data = upload(1000);
+
+        FileItem fileItem = provider.create(fileItemStream);
+
+        File file = fileItem.getFile();
+        assertTrue(file.exists());
+        assertThat(file.getParentFile(), is(temporaryFolder.getRoot()));
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertArrayEquals(data, read(fileItem.getInputStream()));
+        // buffers used before spilling went back to the pool
+        assertThat(provider.getBufferPool().getPooledCount(), is(4));
+
+        fileItem.cleanup();
+
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void fileJustAboveThresholdSpillsToDisk() throws IOException {
+        byte[] data = upload(101);
+
+        FileItem fileItem = provider.create(fileItemStream);
+
+        assertThat(temporaryFolder.getRoot().list().length, is(1));
+        assertArrayEquals(data, read(fileItem.getInputStream()));
+
+        fileItem.cleanup();
+    }
+
+    @Test
+    public void buffersAreReused() throws IOException {
+        upload(50);
+        provider.create(fileItemStream).cleanup();
+
+        upload(50);
+        provider.create(fileItemStream).cleanup();
+
+        assertThat(provider.getBufferPool().getPooledCount(), is(2));
+    }
+
+    private byte[] upload(int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+
+        when(fileItemStream.getName()).thenReturn("upload.bin");
+        when(fileItemStream.openStream()).thenReturn(new ByteArrayInputStream(data));
+
+        return data;
+    }
+
+    private static byte[] read(InputStream is) throws IOException {
+        try (InputStream in = is) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+}
@@ -156,6 +156,11 @@ public class AbstractContextImpl extends AbstractContext {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    @Override
+    public FileItemIterator getStreamingFileItemIterator() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     @Override
     public String getMethod() {
         throw new UnsupportedOperationException("Not supported yet.");
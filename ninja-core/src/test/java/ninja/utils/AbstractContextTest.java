@@ -23,8 +23,10 @@ import ninja.Cookie;
 import ninja.Result;
 import ninja.Results;
 import ninja.Route;
+import ninja.RouteMatch;
 import ninja.bodyparser.BodyParserEngine;
 import ninja.bodyparser.BodyParserEngineManager;
+import ninja.bodyparser.StreamingBodyParserEngine;
 import ninja.params.ParamParsers;
 import ninja.session.FlashScope;
 import ninja.session.Session;
@@ -39,6 +41,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.HashSet;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -49,6 +52,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -218,6 +222,21 @@ public class AbstractContextTest {
         assertEquals("blue/red?and+green€/", context.getPathParameter("parameter"));
     }
 
+    @Test
+    public void getPathParameterFromRouteMatch() {
+        AbstractContextImpl context = spy(abstractContext);
+
+        Route realRoute = new Route("GET", "/user/{id}/{name: .*}", null, null);
+
+        context.setRouteMatch(new RouteMatch(realRoute, new String[] {"1", "blue%2Fred"}));
+
+        assertEquals("1", context.getPathParameter("id"));
+        assertEquals("blue/red", context.getPathParameter("name"));
+        assertEquals("blue%2Fred", context.getPathParameterEncoded("name"));
+        assertEquals(null, context.getPathParameter("parameter_not_set"));
+        assertEquals(realRoute, context.getRoute());
+    }
+
     @Test
     public void getPathParameterAsInteger() {
     	  AbstractContextImpl context = spy(abstractContext);
@@ -528,4 +547,38 @@ public class AbstractContextTest {
 
         assertNull(o);
     }
+
+    @Test
+    public void testParseBodyAsStreamUsesStreamingBodyParserEngine() {
+        AbstractContextImpl context = spy(abstractContext);
+        StreamingBodyParserEngine streamingBodyParserEngine = mock(StreamingBodyParserEngine.class);
+
+        doReturn(ContentTypes.APPLICATION_NDJSON).when(context).getRequestContentType();
+
+        when(bodyParserEngineManager.getBodyParserEngineForContentType(ContentTypes.APPLICATION_NDJSON)).thenReturn(streamingBodyParserEngine);
+        when(streamingBodyParserEngine.invokeAsStream(context, Dummy.class)).thenReturn(Stream.of(new Dummy(), new Dummy()));
+
+        assertThat(context.parseBodyAsStream(Dummy.class).count(), is(2L));
+    }
+
+    @Test
+    public void testParseBodyAsStreamWrapsSingleBody() {
+        AbstractContextImpl context = spy(abstractContext);
+
+        doReturn(ContentTypes.APPLICATION_XML).when(context).getRequestContentType();
+
+        when(bodyParserEngineManager.getBodyParserEngineForContentType(ContentTypes.APPLICATION_XML)).thenReturn(bodyParserEngine);
+        when(bodyParserEngine.invoke(context, Dummy.class)).thenReturn(new Dummy());
+
+        assertThat(context.parseBodyAsStream(Dummy.class).count(), is(1L));
+    }
+
+    @Test
+    public void testParseBodyAsStreamWithUnknownContentTypeIsEmpty() {
+        AbstractContextImpl context = spy(abstractContext);
+
+        doReturn(null).when(context).getRequestContentType();
+
+        assertThat(context.parseBodyAsStream(Dummy.class).count(), is(0L));
+    }
 }
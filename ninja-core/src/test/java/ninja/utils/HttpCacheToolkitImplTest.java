@@ -174,6 +174,12 @@ public class HttpCacheToolkitImplTest {
         verify(result).addHeader(HttpHeaderConstants.CACHE_CONTROL, "no-cache");
         // IMPORTANT: etag added
         verify(result).addHeader(HttpHeaderConstants.ETAG, "\"1234\"");
+
+        // variants in other content codings get an etag of their own
+        reset(result);
+
+        httpCacheToolkit.addEtag(context, result, 1234L, "gzip");
+        verify(result).addHeader(HttpHeaderConstants.ETAG, "\"1234-gzip\"");
       
         
         ////////////////////////////////////////////////
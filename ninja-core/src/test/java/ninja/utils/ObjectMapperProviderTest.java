@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ObjectMapperProviderTest {
+
+    @Mock
+    NinjaProperties ninjaProperties;
+
+    @Test
+    public void afterburnerIsRegisteredByDefault() {
+        when(ninjaProperties.getWithDefault(NinjaConstant.NINJA_JACKSON_BYTECODE_MODULE, "afterburner"))
+            .thenReturn("afterburner");
+
+        ObjectMapper objectMapper = new ObjectMapperProvider(ninjaProperties).get();
+        XmlMapper xmlMapper = new XmlMapperProvider(ninjaProperties).get();
+
+        assertThat(objectMapper.getRegisteredModuleIds(), hasItem(new AfterburnerModule().getTypeId()));
+        assertThat(xmlMapper.getRegisteredModuleIds(), hasItem(new AfterburnerModule().getTypeId()));
+        assertThat(new ObjectMapperProvider().get().getRegisteredModuleIds(), hasItem(new AfterburnerModule().getTypeId()));
+    }
+
+    @Test
+    public void bytecodeModuleCanBeDisabled() {
+        when(ninjaProperties.getWithDefault(NinjaConstant.NINJA_JACKSON_BYTECODE_MODULE, "afterburner"))
+            .thenReturn("none");
+
+        ObjectMapper objectMapper = new ObjectMapperProvider(ninjaProperties).get();
+
+        assertThat(objectMapper.getRegisteredModuleIds(), not(hasItem(new AfterburnerModule().getTypeId())));
+    }
+
+    @Test
+    public void blackbirdFallsBackToAfterburnerIfNotOnClasspath() {
+        assertThat(ObjectMapperProvider.bytecodeModule("blackbird").get().getModuleName(),
+            equalTo(new AfterburnerModule().getModuleName()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownBytecodeModuleIsRejected() {
+        ObjectMapperProvider.bytecodeModule("turbo");
+    }
+
+}
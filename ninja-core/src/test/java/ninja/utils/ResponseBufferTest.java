@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.google.common.base.Strings;
+
+public class ResponseBufferTest {
+
+    @Test
+    public void utf8WriterEncodesLikeString() throws Exception {
+        String text = "plain äöü € 😀 end";
+
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        try {
+            Writer writer = buffer.getUtf8Writer();
+            // split the surrogate pair between two writes
+            writer.write(text, 0, 17);
+            writer.write(text.toCharArray(), 17, text.length() - 17);
+            writer.close();
+
+            assertThat(buffer.toByteArray(), equalTo(text.getBytes(StandardCharsets.UTF_8)));
+            assertThat(buffer.size(), is(text.getBytes(StandardCharsets.UTF_8).length));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void unpairedSurrogatesAreReplaced() throws Exception {
+        String text = "a\ud83db\ude00c\ud83d";
+
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        try {
+            Writer writer = buffer.getUtf8Writer();
+            writer.write(text);
+            writer.close();
+
+            assertThat(buffer.toByteArray(), equalTo(text.getBytes(StandardCharsets.UTF_8)));
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void bufferIsReusedByThread() throws Exception {
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        buffer.write(new byte[] {1, 2, 3}, 0, 3);
+
+        // still in use: a nested render gets its own buffer
+        ResponseBuffer nested = ResponseBuffer.acquire();
+        assertThat(nested, not(sameInstance(buffer)));
+        nested.release();
+
+        buffer.release();
+
+        ResponseBuffer reused = ResponseBuffer.acquire();
+        try {
+            assertThat(reused, sameInstance(buffer));
+            assertThat(reused.size(), is(0));
+        } finally {
+            reused.release();
+        }
+    }
+
+    @Test
+    public void largeBuffersAreNotRetained() throws Exception {
+        ResponseBuffer buffer = ResponseBuffer.acquire();
+        String large = Strings.repeat("x", ResponseBuffer.MAX_RETAINED_CAPACITY + 1);
+        buffer.getUtf8Writer().write(large);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        buffer.writeTo(outputStream);
+        assertThat(outputStream.size(), is(large.length()));
+
+        buffer.release();
+
+        ResponseBuffer reused = ResponseBuffer.acquire();
+        try {
+            // grows again from the initial capacity
+            reused.write(1);
+            assertThat(reused.size(), is(1));
+        } finally {
+            reused.release();
+        }
+    }
+
+}
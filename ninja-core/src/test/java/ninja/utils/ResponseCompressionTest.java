@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.utils;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import ninja.Context;
+import ninja.Result;
+import ninja.Results;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResponseCompressionTest {
+
+    @Mock
+    private NinjaProperties ninjaProperties;
+
+    @Mock
+    private Context context;
+
+    private ResponseCompression responseCompression;
+
+    @Before
+    public void before() {
+        when(ninjaProperties.getBooleanWithDefault(NinjaConstant.NINJA_COMPRESSION, false)).thenReturn(true);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_COMPRESSION_MIN_SIZE, 1024)).thenReturn(1024);
+
+        responseCompression = new ResponseCompression(ninjaProperties);
+    }
+
+    @Test
+    public void negotiate() {
+        assertThat(ResponseCompression.negotiate(null), nullValue());
+        assertThat(ResponseCompression.negotiate(""), nullValue());
+        assertThat(ResponseCompression.negotiate("br"), nullValue());
+        assertThat(ResponseCompression.negotiate("gzip, deflate, br"), is("gzip"));
+        assertThat(ResponseCompression.negotiate("deflate"), is("deflate"));
+        assertThat(ResponseCompression.negotiate("gzip;q=0.5, deflate"), is("deflate"));
+        assertThat(ResponseCompression.negotiate("gzip;q=0, deflate;q=0"), nullValue());
+        assertThat(ResponseCompression.negotiate("x-gzip"), is("gzip"));
+        assertThat(ResponseCompression.negotiate("*"), is("gzip"));
+        assertThat(ResponseCompression.negotiate("gzip;q=0, *"), is("deflate"));
+        assertThat(ResponseCompression.negotiate("GZIP; Q=0.8"), is("gzip"));
+    }
+
+    @Test
+    public void selectEncodingAddsVary() {
+        when(context.getHeader("Accept-Encoding")).thenReturn("gzip");
+
+        Result result = Results.html();
+
+        assertThat(responseCompression.selectEncoding(context, result), is("gzip"));
+        assertThat(result.getHeaders().get("Vary"), is("Accept-Encoding"));
+
+        when(context.getHeader("Accept-Encoding")).thenReturn(null);
+
+        result = Results.json().addHeader("Vary", "Origin");
+
+        assertThat(responseCompression.selectEncoding(context, result), nullValue());
+        assertThat(result.getHeaders().get("Vary"), is("Origin, Accept-Encoding"));
+    }
+
+    @Test
+    public void addVaryKeepsExistingFields() {
+        Result result = Results.ok().addHeader("Vary", "accept-encoding");
+        ResponseCompression.addVary(result);
+        assertThat(result.getHeaders().get("Vary"), is("accept-encoding"));
+
+        result = Results.ok().addHeader("Vary", "*");
+        ResponseCompression.addVary(result);
+        assertThat(result.getHeaders().get("Vary"), is("*"));
+    }
+
+    @Test
+    public void onlyCompressibleResultsAreCompressed() {
+        assertThat(responseCompression.isCompressible(context, Results.html()), is(true));
+        assertThat(responseCompression.isCompressible(context, Results.ok().contentType("image/png")), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.ok()), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.html().status(Result.SC_304_NOT_MODIFIED)), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.noContent().contentType("text/html")), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.html().addHeader("Content-Encoding", "br")), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.html().addHeader(Result.CONTENT_LENGTH, "1023")), is(false));
+        assertThat(responseCompression.isCompressible(context, Results.html().addHeader(Result.CONTENT_LENGTH, "1024")), is(true));
+
+        when(context.getAttribute(ResponseCompression.DISABLED_ATTRIBUTE)).thenReturn(Boolean.TRUE);
+
+        assertThat(responseCompression.isCompressible(context, Results.html()), is(false));
+    }
+
+    @Test
+    public void contentTypesAreConfigurable() {
+        when(ninjaProperties.getStringArray(NinjaConstant.NINJA_COMPRESSION_CONTENT_TYPES))
+                .thenReturn(new String[] {"text/*", " Application/Json "});
+
+        responseCompression = new ResponseCompression(ninjaProperties);
+
+        assertThat(responseCompression.isCompressibleContentType("text/csv; charset=utf-8"), is(true));
+        assertThat(responseCompression.isCompressibleContentType("application/json"), is(true));
+        assertThat(responseCompression.isCompressibleContentType("application/xml"), is(false));
+        assertThat(responseCompression.isCompressibleContentType(null), is(false));
+    }
+
+    @Test
+    public void disabledByDefault() {
+        when(ninjaProperties.getBooleanWithDefault(NinjaConstant.NINJA_COMPRESSION, false)).thenReturn(false);
+
+        responseCompression = new ResponseCompression(ninjaProperties);
+
+        assertThat(responseCompression.selectEncoding(context, Results.html()), nullValue());
+        assertThat(responseCompression.getMinSize(), equalTo(1024));
+    }
+
+}
@@ -82,6 +82,8 @@ public class ResultHandlerTest {
             .thenReturn(templateEngine);
         when(templateEngineManager.getTemplateEngineForContentType(Result.TEXT_HTML))
             .thenReturn(templateEngineHtml);
+        when(templateEngineManager.getTemplateEngineForResult(any(Result.class)))
+            .thenCallRealMethod();
     }
 
     /**
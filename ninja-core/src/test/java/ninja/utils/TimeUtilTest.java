@@ -46,6 +46,7 @@ public class TimeUtilTest {
         assertEquals(60, parseDuration("1min"));
         assertEquals(60 * 59, parseDuration("59mn"));
         assertEquals(60 * 59, parseDuration("59min"));
+        assertEquals(60 * 10, parseDuration("10m"));
     }
 
     @Test
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.jaxy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import ninja.utils.NinjaMode;
+
+/**
+ * An annotated controller method as seen by the {@link JaxyRoutesProcessor}.
+ * The paths already combine the {@link Path} values of the controller class
+ * hierarchy with the ones of the method.
+ */
+public class JaxyRouteDefinition {
+
+    private final String controllerClassName;
+    private final String methodName;
+    private final String httpMethod;
+    private final boolean customHttpMethod;
+    private final int order;
+    private final String requires;
+    private final Set<NinjaMode> modes;
+    private final List<String> paths;
+
+    /**
+     * @param controllerClassName The binary name of the controller class
+     * @param methodName The name of the controller method
+     * @param httpMethod The http method of the route
+     * @param customHttpMethod True if the method is annotated with a custom
+     *      {@link HttpMethod} annotation only
+     * @param order The value of {@link Order} or Integer.MAX_VALUE
+     * @param requires The value of {@link Requires} or null
+     * @param modes The {@link RuntimeMode}s of the method (may be empty)
+     * @param paths The full paths of the route
+     */
+    public JaxyRouteDefinition(
+            String controllerClassName,
+            String methodName,
+            String httpMethod,
+            boolean customHttpMethod,
+            int order,
+            String requires,
+            NinjaMode[] modes,
+            String... paths) {
+        this.controllerClassName = controllerClassName;
+        this.methodName = methodName;
+        this.httpMethod = httpMethod;
+        this.customHttpMethod = customHttpMethod;
+        this.order = order;
+        this.requires = requires;
+        this.modes = modes.length == 0
+                ? Collections.<NinjaMode>emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(Arrays.asList(modes)));
+        this.paths = Collections.unmodifiableList(Arrays.asList(paths));
+    }
+
+    public String getControllerClassName() {
+        return controllerClassName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public boolean isCustomHttpMethod() {
+        return customHttpMethod;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public String getRequires() {
+        return requires;
+    }
+
+    public Set<NinjaMode> getModes() {
+        return modes;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    @Override
+    public String toString() {
+        return controllerClassName + "." + methodName;
+    }
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.jaxy;
+
+import java.util.List;
+
+/**
+ * A table of annotated controller methods that was generated at compile time
+ * by the {@link JaxyRoutesProcessor}.
+ *
+ * Implementations are registered as a {@link java.util.ServiceLoader} service.
+ * If {@link JaxyRoutes} finds one it registers the routes of the table and
+ * does not scan the classpath.
+ */
+public interface JaxyRouteTable {
+
+    /**
+     * @return All annotated controller methods in registration order
+     */
+    List<JaxyRouteDefinition> getRouteDefinitions();
+
+}
@@ -26,6 +26,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.ServiceLoader;
 import java.util.Set;
 
 import org.reflections.Reflections;
@@ -56,6 +57,8 @@ import ninja.utils.NinjaProperties;
 public class JaxyRoutes implements ApplicationRoutes {
 
     final static String NINJA_CUSTOM_HTTP_METHODS = "ninja.jaxy.custom_http_methods";
+
+    final static String NINJA_ROUTE_TABLE = "ninja.jaxy.route_table";
     
     final static Logger logger = LoggerFactory.getLogger(JaxyRoutes.class);
 
@@ -83,13 +86,22 @@ public class JaxyRoutes implements ApplicationRoutes {
 
     /**
      * Scans, identifies, and registers annotated controller methods for the
-     * current runtime settings.
+     * current runtime settings. If a {@link JaxyRouteTable} was generated at
+     * compile time its methods are registered and nothing is scanned.
      *
      * @param router
      */
     @Override
     public void init(Router router) {
         this.router = router;
+
+        List<TableEntry> tableEntries = loadRouteTables();
+
+        if (!tableEntries.isEmpty() && isUpToDate(tableEntries)) {
+            registerTableEntries(tableEntries);
+            return;
+        }
+
         configureReflections();
 
         controllers = Maps.newHashMap();
@@ -100,6 +112,110 @@ public class JaxyRoutes implements ApplicationRoutes {
         registerMethods();
     }
 
+    /**
+     * Loads the route tables generated by the {@link JaxyRoutesProcessor}.
+     * Can be switched off with ninja.jaxy.route_table=false, e.g. when an
+     * incremental build of the IDE left an incomplete table behind.
+     *
+     * @return The entries of all tables or an empty list if there are none
+     */
+    private List<TableEntry> loadRouteTables() {
+        List<TableEntry> tableEntries = new ArrayList<>();
+
+        if (!ninjaProperties.getBooleanWithDefault(NINJA_ROUTE_TABLE, true)) {
+            return tableEntries;
+        }
+
+        for (JaxyRouteTable routeTable : ServiceLoader.load(JaxyRouteTable.class)) {
+            logger.info("Using jaxy route table {}", routeTable.getClass().getName());
+
+            for (JaxyRouteDefinition definition : routeTable.getRouteDefinitions()) {
+                tableEntries.add(new TableEntry(definition, routeTable.getClass().getClassLoader()));
+            }
+        }
+
+        return tableEntries;
+    }
+
+    /**
+     * Checks that the controller methods of the route tables still exist. A
+     * table left behind by an earlier build may name controllers or methods
+     * that were removed since.
+     *
+     * @return True if all methods of the tables were found
+     */
+    private boolean isUpToDate(List<TableEntry> tableEntries) {
+        for (TableEntry tableEntry : tableEntries) {
+            if (!tableEntry.isUpToDate()) {
+                logger.warn("Jaxy route table is out of date, {} not found. Scanning for controllers instead."
+                        + " Rebuild the application to regenerate the table.", tableEntry.definition);
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Registers the allowed methods of the route tables the same way
+     * {@link #registerMethods()} registers the scanned methods.
+     */
+    private void registerTableEntries(List<TableEntry> tableEntries) {
+        String controllersPackage = getControllersPackage();
+        boolean enableCustomHttpMethods = ninjaProperties.getBooleanWithDefault(NINJA_CUSTOM_HTTP_METHODS, false);
+
+        List<TableEntry> allowedEntries = new ArrayList<>();
+
+        for (TableEntry tableEntry : tableEntries) {
+            JaxyRouteDefinition definition = tableEntry.definition;
+
+            if (definition.getControllerClassName().startsWith(controllersPackage)
+                    && (enableCustomHttpMethods || !definition.isCustomHttpMethod())
+                    && allowDefinition(definition)) {
+                allowedEntries.add(tableEntry);
+            }
+        }
+
+        // tables are sorted already, this only merges several of them
+        Collections.sort(allowedEntries, new Comparator<TableEntry>() {
+
+            @Override
+            public int compare(TableEntry e1, TableEntry e2) {
+                int o1 = e1.definition.getOrder();
+                int o2 = e2.definition.getOrder();
+
+                if (o1 == o2) {
+                    return e1.definition.toString().compareTo(e2.definition.toString());
+                }
+
+                return o1 < o2 ? -1 : 1;
+            }
+        });
+
+        for (TableEntry tableEntry : allowedEntries) {
+            JaxyRouteDefinition definition = tableEntry.definition;
+            Class<?> controllerClass = tableEntry.loadControllerClass();
+
+            for (String fullPath : definition.getPaths()) {
+                router.METHOD(definition.getHttpMethod()).route(fullPath)
+                        .with(controllerClass, definition.getMethodName());
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #allowMethod(Method)} for a method of a route table.
+     */
+    private boolean allowDefinition(JaxyRouteDefinition definition) {
+        if (definition.getRequires() != null
+                && ninjaProperties.get(definition.getRequires()) == null) {
+            return false;
+        }
+
+        return definition.getModes().isEmpty()
+                || definition.getModes().contains(runtimeMode);
+    }
+
     /**
      * Takes all methods and registers them at the controller using the path: Class:@Path + Method:@Path.
      * If no @Path Annotation is present at the method just the Class:@Path is used.
@@ -238,16 +354,22 @@ public class JaxyRoutes implements ApplicationRoutes {
      * Configures the set of packages to scan for annotated controller methods.
      */
     private void configureReflections() {
+        reflections = new Reflections(
+                getControllersPackage(),
+                new MethodAnnotationsScanner());
+    }
+
+    /**
+     * @return The package of the controllers, with or without the base
+     *      package of the application
+     */
+    private String getControllersPackage() {
         Optional<String> basePackage = Optional.ofNullable(ninjaProperties.get(NinjaConstant.APPLICATION_MODULES_BASE_PACKAGE));
-        
+
         if (basePackage.isPresent()) {
-            reflections = new Reflections(
-                    basePackage.get() + "." + NinjaConstant.CONTROLLERS_DIR, 
-                    new MethodAnnotationsScanner());
+            return basePackage.get() + "." + NinjaConstant.CONTROLLERS_DIR;
         } else {
-            reflections = new Reflections(
-                    NinjaConstant.CONTROLLERS_DIR, 
-                    new MethodAnnotationsScanner()); 
+            return NinjaConstant.CONTROLLERS_DIR;
         }
     }
 
@@ -358,4 +480,60 @@ public class JaxyRoutes implements ApplicationRoutes {
         return HttpMethod.GET;
     }
 
+    static private class TableEntry {
+
+        private final JaxyRouteDefinition definition;
+        private final ClassLoader classLoader;
+
+        TableEntry(JaxyRouteDefinition definition, ClassLoader classLoader) {
+            this.definition = definition;
+            this.classLoader = classLoader;
+        }
+
+        Class<?> loadControllerClass() {
+            try {
+                return Class.forName(definition.getControllerClassName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(
+                        "Controller of jaxy route table not found: " + definition
+                        + ". Rebuild the application to regenerate the table.", e);
+            }
+        }
+
+        /**
+         * @return True if the controller still declares the annotated method
+         */
+        boolean isUpToDate() {
+            Class<?> controllerClass;
+            try {
+                controllerClass = Class.forName(definition.getControllerClassName(), false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+
+            for (Method method : controllerClass.getDeclaredMethods()) {
+                if (method.getName().equals(definition.getMethodName()) && isAnnotated(method)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static boolean isAnnotated(Method method) {
+            if (method.isAnnotationPresent(Path.class)) {
+                return true;
+            }
+
+            for (Annotation annotation : method.getAnnotations()) {
+                if (annotation.annotationType().isAnnotationPresent(HttpMethod.class)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
 }
@@ -0,0 +1,535 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.jaxy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes the annotated controller methods of a
+ * compilation into a {@link JaxyRouteTable}, so that {@link JaxyRoutes} does
+ * not have to scan the classpath at startup.
+ *
+ * The table contains every method annotated with {@link Path} or an
+ * {@link HttpMethod} annotation. Paths, http methods, {@link Order},
+ * {@link Requires} and {@link RuntimeMode}s are resolved here. Whether a
+ * route is registered is still decided at runtime, because that depends
+ * on the properties and the mode of the application.
+ *
+ * The generated class is named <code>GeneratedJaxyRouteTable</code> and put
+ * into the common package of all controllers. Use the processor option
+ * <code>-Aninja.jaxy.route_table=com.example.MyRouteTable</code> to choose
+ * another name. Tables of test sources are named
+ * <code>GeneratedJaxyTestRouteTable</code> instead, so that they do not
+ * shadow the table of the application. Test sources are recognized by their
+ * output folder (<code>test-classes</code> or <code>.../test</code>), or
+ * with <code>-Aninja.jaxy.test_sources=true</code>.
+ *
+ * The controllers of a table are recorded next to it. Incremental builds that
+ * only pass the changed classes to the processor reuse the controllers of the
+ * previous table that were not recompiled, so the table stays complete.
+ */
+public class JaxyRoutesProcessor extends AbstractProcessor {
+
+    static final String ROUTE_TABLE_OPTION = "ninja.jaxy.route_table";
+
+    static final String TEST_SOURCES_OPTION = "ninja.jaxy.test_sources";
+
+    static final String DEFAULT_CLASS_NAME = "GeneratedJaxyRouteTable";
+
+    static final String DEFAULT_TEST_CLASS_NAME = "GeneratedJaxyTestRouteTable";
+
+    static final String CONTROLLERS_RESOURCE = "META-INF/ninja/jaxy-controllers";
+
+    static final String DEFAULT_PACKAGE_NAME = "ninja.jaxy.generated";
+
+    private static final String PATH = Path.class.getCanonicalName();
+    private static final String HTTP_METHOD = HttpMethod.class.getCanonicalName();
+    private static final String ORDER = Order.class.getCanonicalName();
+    private static final String REQUIRES = Requires.class.getCanonicalName();
+    private static final String RUNTIME_MODE = RuntimeMode.class.getCanonicalName();
+
+    private final List<Definition> definitions = new ArrayList<>();
+    // binary names of the controllers in the table
+    private final Set<String> controllerNames = new TreeSet<>();
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // custom http method annotations are not known in advance
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return new HashSet<>(Arrays.asList(ROUTE_TABLE_OPTION, TEST_SOURCES_OPTION));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver() || generated) {
+            return false;
+        }
+
+        Set<String> compiledNames = new HashSet<>();
+
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            collectDefinitions(typeElement, compiledNames);
+        }
+
+        // controllers of the previous table that were not compiled this time
+        for (String controllerName : readPreviousControllerNames()) {
+            if (!compiledNames.contains(controllerName)) {
+                TypeElement typeElement = processingEnv.getElementUtils()
+                        .getTypeElement(controllerName.replace('$', '.'));
+
+                // deleted since
+                if (typeElement != null) {
+                    collectDefinitions(typeElement);
+                }
+            }
+        }
+
+        if (definitions.isEmpty()) {
+            return false;
+        }
+
+        // same order as JaxyRoutes sorts the scanned methods
+        Collections.sort(definitions, new Comparator<Definition>() {
+
+            @Override
+            public int compare(Definition d1, Definition d2) {
+                if (d1.order != d2.order) {
+                    return d1.order < d2.order ? -1 : 1;
+                }
+                return (d1.className + "." + d1.methodName)
+                        .compareTo(d2.className + "." + d2.methodName);
+            }
+        });
+
+        try {
+            writeRouteTable();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Unable to write jaxy route table: " + e.getMessage());
+        }
+
+        generated = true;
+
+        return false;
+    }
+
+    private void collectDefinitions(TypeElement typeElement, Set<String> compiledNames) {
+        compiledNames.add(binaryName(typeElement));
+
+        collectDefinitions(typeElement);
+
+        for (TypeElement nested : ElementFilter.typesIn(typeElement.getEnclosedElements())) {
+            collectDefinitions(nested, compiledNames);
+        }
+    }
+
+    private void collectDefinitions(TypeElement typeElement) {
+        for (ExecutableElement method : ElementFilter.methodsIn(typeElement.getEnclosedElements())) {
+            Definition definition = toDefinition(typeElement, method);
+            if (definition != null) {
+                definitions.add(definition);
+                controllerNames.add(definition.className);
+            }
+        }
+    }
+
+    private String binaryName(TypeElement typeElement) {
+        return processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+    }
+
+    /**
+     * @return The controllers recorded with the table of a previous
+     *      compilation into the same output folder (may be empty)
+     */
+    private Set<String> readPreviousControllerNames() {
+        Set<String> names = new TreeSet<>();
+
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(
+                    StandardLocation.CLASS_OUTPUT, "", CONTROLLERS_RESOURCE);
+
+            try (BufferedReader reader = new BufferedReader(resource.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        names.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // no previous table (or the filer cannot read it)
+        }
+
+        return names;
+    }
+
+    /**
+     * @return True if test sources are compiled, either as told by the
+     *      processor option or guessed from the output folder
+     */
+    private boolean isTestCompilation() {
+        String testSources = processingEnv.getOptions().get(TEST_SOURCES_OPTION);
+        if (testSources != null) {
+            return Boolean.parseBoolean(testSources);
+        }
+
+        try {
+            String path = processingEnv.getFiler().getResource(
+                    StandardLocation.CLASS_OUTPUT, "", CONTROLLERS_RESOURCE).toUri().getPath();
+
+            if (path == null || !path.endsWith("/" + CONTROLLERS_RESOURCE)) {
+                return false;
+            }
+
+            // maven: target/test-classes, gradle: build/classes/java/test
+            String outputFolder = path.substring(0, path.length() - CONTROLLERS_RESOURCE.length() - 1);
+            return outputFolder.endsWith("/test-classes") || outputFolder.endsWith("/test");
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Definition toDefinition(TypeElement typeElement, ExecutableElement method) {
+        List<String> methodPaths = null;
+        String httpMethod = null;
+        boolean standardHttpMethod = false;
+        int order = Integer.MAX_VALUE;
+        String requires = null;
+        Set<String> modes = new LinkedHashSet<>();
+
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+
+            if (PATH.equals(annotationName)) {
+                methodPaths = stringValues(annotation);
+            } else if (ORDER.equals(annotationName)) {
+                order = (Integer) value(annotation).getValue();
+            } else if (REQUIRES.equals(annotationName)) {
+                requires = (String) value(annotation).getValue();
+            }
+
+            for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+                String metaAnnotationName = ((TypeElement) metaAnnotation
+                        .getAnnotationType().asElement()).getQualifiedName().toString();
+
+                if (HTTP_METHOD.equals(metaAnnotationName)) {
+                    if (httpMethod == null) {
+                        httpMethod = (String) value(metaAnnotation).getValue();
+                    }
+                    standardHttpMethod |= isJaxyAnnotation(annotationType);
+                } else if (RUNTIME_MODE.equals(metaAnnotationName)) {
+                    modes.add(value(metaAnnotation).getValue().toString());
+                }
+            }
+        }
+
+        if (methodPaths == null && httpMethod == null) {
+            return null;
+        }
+
+        Definition definition = new Definition();
+        definition.className = binaryName(typeElement);
+        definition.packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+        definition.methodName = method.getSimpleName().toString();
+        definition.httpMethod = httpMethod != null ? httpMethod : HttpMethod.GET;
+        definition.customHttpMethod = methodPaths == null && !standardHttpMethod;
+        definition.order = order;
+        definition.requires = requires;
+        definition.modes = modes;
+
+        if (methodPaths == null) {
+            methodPaths = Collections.singletonList("/");
+        }
+
+        for (String controllerPath : collectPaths(typeElement)) {
+            for (String methodPath : methodPaths) {
+                definition.paths.add(controllerPath + methodPath);
+            }
+        }
+
+        return definition;
+    }
+
+    /**
+     * Same as the reflection based JaxyRoutes#collectPaths, but on the
+     * superclasses of the type element.
+     */
+    private Set<String> collectPaths(TypeElement typeElement) {
+        Set<String> parentPaths = Collections.emptySet();
+        TypeMirror superclass = typeElement.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            parentPaths = collectPaths((TypeElement) ((DeclaredType) superclass).asElement());
+        }
+
+        List<String> controllerPaths = null;
+        for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+            if (PATH.equals(((TypeElement) annotation.getAnnotationType().asElement())
+                    .getQualifiedName().toString())) {
+                controllerPaths = stringValues(annotation);
+            }
+        }
+
+        if (controllerPaths == null) {
+            return parentPaths;
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+
+        if (parentPaths.isEmpty()) {
+            paths.addAll(controllerPaths);
+        } else {
+            for (String parentPath : parentPaths) {
+                for (String path : controllerPaths) {
+                    paths.add(parentPath + path);
+                }
+            }
+        }
+
+        return paths;
+    }
+
+    private boolean isJaxyAnnotation(TypeElement annotationType) {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(annotationType);
+        return HttpMethod.class.getPackage().getName()
+                .equals(packageElement.getQualifiedName().toString());
+    }
+
+    private static AnnotationValue value(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalStateException("No value for " + annotation);
+    }
+
+    private static List<String> stringValues(AnnotationMirror annotation) {
+        List<String> values = new ArrayList<>();
+        Object value = value(annotation).getValue();
+
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                values.add((String) ((AnnotationValue) element).getValue());
+            }
+        } else {
+            // single element arrays may be written without braces
+            values.add((String) value);
+        }
+
+        return values;
+    }
+
+    private void writeRouteTable() throws IOException {
+        String className = processingEnv.getOptions().get(ROUTE_TABLE_OPTION);
+        if (className == null) {
+            String packageName = commonPackageName();
+            className = (packageName.isEmpty() ? DEFAULT_PACKAGE_NAME : packageName)
+                    + "." + (isTestCompilation() ? DEFAULT_TEST_CLASS_NAME : DEFAULT_CLASS_NAME);
+        }
+
+        int lastDot = className.lastIndexOf('.');
+        String packageName = lastDot > 0 ? className.substring(0, lastDot) : null;
+        String simpleName = className.substring(lastDot + 1);
+
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(className);
+
+        try (Writer writer = sourceFile.openWriter()) {
+            if (packageName != null) {
+                writer.write("package " + packageName + ";\n\n");
+            }
+            writer.write("import java.util.Arrays;\n");
+            writer.write("import java.util.List;\n\n");
+            writer.write("import ninja.jaxy.JaxyRouteDefinition;\n");
+            writer.write("import ninja.jaxy.JaxyRouteTable;\n");
+            writer.write("import ninja.utils.NinjaMode;\n\n");
+            writer.write("/**\n * Generated by " + getClass().getName() + ". Do not edit.\n */\n");
+            writer.write("public final class " + simpleName + " implements JaxyRouteTable {\n\n");
+            writer.write("    private static final List<JaxyRouteDefinition> ROUTE_DEFINITIONS = Arrays.asList(");
+
+            for (int i = 0; i < definitions.size(); i++) {
+                writer.write(i == 0 ? "\n" : ",\n");
+                writeDefinition(writer, definitions.get(i));
+            }
+
+            writer.write(");\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public List<JaxyRouteDefinition> getRouteDefinitions() {\n");
+            writer.write("        return ROUTE_DEFINITIONS;\n");
+            writer.write("    }\n\n");
+            writer.write("}\n");
+        }
+
+        FileObject serviceFile = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT,
+                "",
+                "META-INF/services/" + JaxyRouteTable.class.getName());
+
+        try (Writer writer = serviceFile.openWriter()) {
+            writer.write(className + "\n");
+        }
+
+        FileObject controllersFile = processingEnv.getFiler().createResource(
+                StandardLocation.CLASS_OUTPUT,
+                "",
+                CONTROLLERS_RESOURCE);
+
+        try (Writer writer = controllersFile.openWriter()) {
+            for (String controllerName : controllerNames) {
+                writer.write(controllerName + "\n");
+            }
+        }
+    }
+
+    private void writeDefinition(Writer writer, Definition definition) throws IOException {
+        StringBuilder modes = new StringBuilder();
+        for (String mode : definition.modes) {
+            if (modes.length() > 0) {
+                modes.append(", ");
+            }
+            modes.append("NinjaMode.").append(mode);
+        }
+
+        StringBuilder paths = new StringBuilder();
+        for (String path : definition.paths) {
+            paths.append(", ").append(literal(path));
+        }
+
+        writer.write("        new JaxyRouteDefinition("
+                + literal(definition.className) + ", "
+                + literal(definition.methodName) + ", "
+                + literal(definition.httpMethod) + ", "
+                + definition.customHttpMethod + ", "
+                + (definition.order == Integer.MAX_VALUE ? "Integer.MAX_VALUE" : definition.order) + ", "
+                + literal(definition.requires) + ", "
+                + "new NinjaMode[] {" + modes + "}"
+                + paths + ")");
+    }
+
+    private String commonPackageName() {
+        String common = null;
+
+        for (Definition definition : definitions) {
+            if (common == null) {
+                common = definition.packageName;
+            }
+            while (!common.isEmpty()
+                    && !definition.packageName.equals(common)
+                    && !definition.packageName.startsWith(common + ".")) {
+                int lastDot = common.lastIndexOf('.');
+                common = lastDot > 0 ? common.substring(0, lastDot) : "";
+            }
+        }
+
+        return common;
+    }
+
+    static String literal(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder literal = new StringBuilder(value.length() + 2);
+        literal.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    static private class Definition {
+
+        private String className;
+        private String packageName;
+        private String methodName;
+        private String httpMethod;
+        private boolean customHttpMethod;
+        private int order;
+        private String requires;
+        private Set<String> modes;
+        private final List<String> paths = new ArrayList<>();
+
+    }
+
+}
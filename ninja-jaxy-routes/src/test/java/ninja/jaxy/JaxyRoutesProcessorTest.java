@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.jaxy;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JaxyRoutesProcessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void incrementalCompileKeepsControllersOfPreviousTable() throws IOException {
+        File output = temporaryFolder.newFolder("classes");
+
+        compile(output,
+                controller("AController", "/a"),
+                controller("BController", "/b"));
+
+        // only one controller changed
+        compile(output, controller("BController", "/bb"));
+
+        String table = generatedSource(output, "GeneratedJaxyRouteTable");
+
+        assertThat(table, containsString("\"/a/get\""));
+        assertThat(table, containsString("\"/bb/get\""));
+        assertThat(table, not(containsString("\"/b/get\"")));
+        assertThat(read(output, JaxyRoutesProcessor.CONTROLLERS_RESOURCE),
+                equalTo("controllers.AController\ncontrollers.BController\n"));
+    }
+
+    @Test
+    public void deletedControllersAreDroppedFromTable() throws IOException {
+        File output = temporaryFolder.newFolder("classes");
+
+        compile(output,
+                controller("AController", "/a"),
+                controller("BController", "/b"));
+
+        new File(output, "controllers/AController.class").delete();
+
+        compile(output, controller("BController", "/b"));
+
+        assertThat(read(output, JaxyRoutesProcessor.CONTROLLERS_RESOURCE),
+                equalTo("controllers.BController\n"));
+    }
+
+    @Test
+    public void tableOfTestSourcesDoesNotShadowTableOfApplication() throws IOException {
+        File output = temporaryFolder.newFolder("test-classes");
+
+        compile(output, controller("AController", "/a"));
+
+        assertThat(read(output, "META-INF/services/" + JaxyRouteTable.class.getName()),
+                equalTo("controllers." + JaxyRoutesProcessor.DEFAULT_TEST_CLASS_NAME + "\n"));
+    }
+
+    private File controller(String name, String path) throws IOException {
+        File source = new File(temporaryFolder.getRoot(), "src/" + name + "/controllers/" + name + ".java");
+        source.getParentFile().mkdirs();
+
+        String code = "package controllers;\n"
+                + "@ninja.jaxy.Path(\"" + path + "\")\n"
+                + "public class " + name + " {\n"
+                + "    @ninja.jaxy.Path(\"/get\") @ninja.jaxy.GET\n"
+                + "    public ninja.Result get() { return null; }\n"
+                + "}\n";
+        Files.write(source.toPath(), code.getBytes(StandardCharsets.UTF_8));
+
+        return source;
+    }
+
+    private void compile(File output, File... sources) throws IOException {
+        File generatedSources = new File(output.getParentFile(), output.getName() + "-generated");
+        generatedSources.mkdirs();
+
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "-implicit:none",
+                "-processor", JaxyRoutesProcessor.class.getName(),
+                "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output,
+                "-d", output.getPath(),
+                "-s", generatedSources.getPath()));
+
+        for (File source : sources) {
+            arguments.add(source.getPath());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertThat(compiler.run(null, null, null, arguments.toArray(new String[0])), is(0));
+    }
+
+    private String generatedSource(File output, String simpleName) throws IOException {
+        File source = new File(output.getParentFile(),
+                output.getName() + "-generated/controllers/" + simpleName + ".java");
+        assertTrue(source.exists());
+        return new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String read(File output, String resource) throws IOException {
+        return new String(Files.readAllBytes(new File(output, resource).toPath()), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.jaxy;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+
+import ninja.Route;
+import ninja.RouteBuilderImpl;
+import ninja.RouterImpl;
+import ninja.utils.NinjaBaseDirectoryResolver;
+import ninja.utils.NinjaMode;
+import ninja.utils.NinjaProperties;
+import ninja.utils.NinjaPropertiesImpl;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JaxyRoutesTest {
+
+    @Mock
+    Injector injector;
+
+    @Test
+    public void routeTableIsGeneratedForTestSources() {
+        assertThat(ServiceLoader.load(JaxyRouteTable.class).iterator().hasNext(),
+                CoreMatchers.is(true));
+    }
+
+    @Test
+    public void routeTableRegistersSameRoutesAsScanning() {
+        for (NinjaMode mode : NinjaMode.values()) {
+            List<String> fromTable = routes(mode, true);
+            List<String> fromScanning = routes(mode, false);
+
+            assertFalse(fromTable.isEmpty());
+            assertThat(mode.name(), fromTable, CoreMatchers.equalTo(fromScanning));
+        }
+    }
+
+    @Test
+    public void literal() {
+        assertThat(JaxyRoutesProcessor.literal(null), CoreMatchers.equalTo("null"));
+        assertThat(JaxyRoutesProcessor.literal("/a/{id: \\d+}"),
+                CoreMatchers.equalTo("\"/a/{id: \\\\d+}\""));
+        assertThat(JaxyRoutesProcessor.literal("\"ä\n"),
+                CoreMatchers.equalTo("\"\\\"\\u00e4\\n\""));
+    }
+
+    private List<String> routes(NinjaMode mode, boolean useRouteTable) {
+        NinjaPropertiesImpl ninjaProperties = NinjaPropertiesImpl.builder()
+                .withMode(mode)
+                .build();
+        ninjaProperties.setProperty("testkey", "true");
+        ninjaProperties.setProperty(JaxyRoutes.NINJA_ROUTE_TABLE, String.valueOf(useRouteTable));
+
+        NinjaBaseDirectoryResolver ninjaBaseDirectoryResolver
+                = new NinjaBaseDirectoryResolver(Mockito.mock(NinjaProperties.class));
+        Provider<RouteBuilderImpl> routeBuilderImplProvider = Mockito.mock(Provider.class);
+        when(routeBuilderImplProvider.get()).thenAnswer(
+                (invocation) -> new RouteBuilderImpl(ninjaProperties, ninjaBaseDirectoryResolver));
+        RouterImpl router = new RouterImpl(injector, ninjaProperties, null, routeBuilderImplProvider);
+
+        new JaxyRoutes(ninjaProperties).init(router);
+        router.compileRoutes();
+
+        List<String> routes = new ArrayList<>();
+        for (Route route : router.getRoutes()) {
+            routes.add(route.getHttpMethod() + " " + route.getUri()
+                    + " " + route.getControllerClass().getName() + "." + route.getControllerMethod().getName());
+        }
+        return routes;
+    }
+
+}
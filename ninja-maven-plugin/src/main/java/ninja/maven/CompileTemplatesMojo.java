@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ninja.template.TemplateEngineCompiled;
+import ninja.template.compiled.TemplateCompiler;
+import ninja.template.compiled.TemplateCompilerException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Compiles templates for {@link TemplateEngineCompiled} into Java sources.
+ * 
+ * Every template below the template directory becomes one class in the
+ * package of its directory. The generated sources are added to the compile
+ * source roots of the project, so typos in expressions and wrong model types
+ * fail the build instead of a request.
+ */
+@Mojo(name = "compile-templates",
+        defaultPhase = LifecyclePhase.GENERATE_SOURCES,
+        threadSafe = true)
+public class CompileTemplatesMojo extends AbstractMojo {
+    
+    @Parameter(defaultValue = "${project}", readonly = true)
+    protected MavenProject project;
+
+    /**
+     * Skip execution of this plugin.
+     */
+    @Parameter(property = "ninja.skip", defaultValue = "false", required = true)
+    protected boolean skip;
+    
+    /**
+     * Directory containing the templates. Ninja loads views from the
+     * classpath, so this is usually where the controllers live.
+     */
+    @Parameter(property = "ninja.templateDirectory", defaultValue = "${basedir}/src/main/java", required = true)
+    protected File templateDirectory;
+    
+    /**
+     * Directory the generated sources are written to.
+     */
+    @Parameter(property = "ninja.templateOutputDirectory", defaultValue = "${project.build.directory}/generated-sources/ninja-templates", required = true)
+    protected File outputDirectory;
+    
+    /**
+     * Suffix of the templates to compile. Must match
+     * <code>compiled_templates.suffix</code> in application.conf.
+     */
+    @Parameter(property = "ninja.templateSuffix", defaultValue = TemplateEngineCompiled.FILE_SUFFIX, required = true)
+    protected String suffix;
+    
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        
+        if (skip) {
+            getLog().info("Skip flag is on. Will not execute.");
+            return;
+        }
+        
+        if (!templateDirectory.isDirectory()) {
+            getLog().info("No template directory " + templateDirectory + ". Nothing to compile.");
+            return;
+        }
+        
+        int count = compileTemplates(templateDirectory.toPath(), outputDirectory.toPath());
+        
+        getLog().info("Compiled " + count + " template(s) to " + outputDirectory);
+        
+        project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+    }
+    
+    int compileTemplates(Path templateRoot, Path outputRoot)
+            throws MojoExecutionException, MojoFailureException {
+        
+        TemplateCompiler templateCompiler = new TemplateCompiler(suffix);
+        
+        List<Path> templates;
+        
+        try (Stream<Path> paths = Files.walk(templateRoot)) {
+            templates = paths
+                    .filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to scan " + templateRoot, e);
+        }
+        
+        // two templates may sanitize to the same class (e.g. "a-b" and "a_b")
+        Map<String, String> templateNamesByClassName = new HashMap<>();
+        
+        for (Path template : templates) {
+            
+            String templateName = templateRoot.relativize(template).toString()
+                    .replace(File.separatorChar, '/');
+            String className = templateCompiler.getClassName(templateName);
+            
+            String other = templateNamesByClassName.putIfAbsent(className, templateName);
+            
+            if (other != null) {
+                throw new MojoFailureException(
+                        "Templates " + other + " and " + templateName
+                        + " both compile to class " + className);
+            }
+            
+            Path javaFile = outputRoot.resolve(className.replace('.', File.separatorChar) + ".java");
+            
+            try {
+                String source = new String(Files.readAllBytes(template), StandardCharsets.UTF_8);
+                String java = templateCompiler.compile(templateName, source);
+                
+                Files.createDirectories(javaFile.getParent());
+                Files.write(javaFile, java.getBytes(StandardCharsets.UTF_8));
+            } catch (TemplateCompilerException e) {
+                throw new MojoFailureException(e.getMessage(), e);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Unable to compile template " + template, e);
+            }
+            
+            getLog().debug("Compiled " + templateName + " to " + className);
+        }
+        
+        return templates.size();
+    }
+    
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.maven;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CompileTemplatesMojoTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    @Mock
+    private MavenProject project;
+    
+    private CompileTemplatesMojo compileTemplatesMojo;
+    
+    @Before
+    public void before() throws IOException {
+        compileTemplatesMojo = new CompileTemplatesMojo();
+        compileTemplatesMojo.project = project;
+        compileTemplatesMojo.templateDirectory = temporaryFolder.newFolder("java");
+        compileTemplatesMojo.outputDirectory = new File(temporaryFolder.getRoot(), "generated");
+        compileTemplatesMojo.suffix = ".jtpl.html";
+    }
+    
+    @Test
+    public void templatesAreCompiledToSourceRoot() throws Exception {
+        writeTemplate("views/ApplicationController/index.jtpl.html",
+                "{{@model java.util.Map<String, Object>}}<p>{{ model.get(\"name\") }}</p>");
+        writeTemplate("views/layout/defaultLayout.ftl.html", "<p>${name}</p>");
+        
+        compileTemplatesMojo.execute();
+        
+        Path javaFile = compileTemplatesMojo.outputDirectory.toPath()
+                .resolve("views/ApplicationController/IndexTemplate.java");
+        
+        assertTrue(Files.exists(javaFile));
+        assertThat(
+                new String(Files.readAllBytes(javaFile), StandardCharsets.UTF_8),
+                containsString("public final class IndexTemplate"));
+        assertThat(
+                Files.exists(compileTemplatesMojo.outputDirectory.toPath().resolve("views/layout")),
+                is(false));
+        
+        verify(project).addCompileSourceRoot(compileTemplatesMojo.outputDirectory.getAbsolutePath());
+    }
+    
+    @Test
+    public void syntaxErrorsFailTheBuild() throws Exception {
+        writeTemplate("views/broken.jtpl.html",
+                "{{@model java.util.Map<String, Object>}}\n{{#if true}}");
+        
+        try {
+            compileTemplatesMojo.execute();
+            fail("exception expected");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), containsString("views/broken.jtpl.html:2"));
+        }
+    }
+    
+    @Test
+    public void templatesWithSameClassNameFailTheBuild() throws Exception {
+        writeTemplate("views/my-page.jtpl.html", "{{@model Object}}a");
+        writeTemplate("views/my_page.jtpl.html", "{{@model Object}}b");
+        
+        try {
+            compileTemplatesMojo.execute();
+            fail("exception expected");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), containsString("views.My_pageTemplate"));
+        }
+    }
+    
+    private void writeTemplate(String templateName, String source) throws IOException {
+        Path template = compileTemplatesMojo.templateDirectory.toPath().resolve(templateName);
+        Files.createDirectories(template.getParent());
+        Files.write(template, source.getBytes(StandardCharsets.UTF_8));
+    }
+    
+}
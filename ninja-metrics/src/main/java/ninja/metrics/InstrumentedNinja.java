@@ -16,13 +16,23 @@
 
 package ninja.metrics;
 
+import java.util.Optional;
+
+import ninja.AdaptiveConcurrencyLimit;
+import ninja.ConcurrencyLimiter;
 import ninja.Context;
+import ninja.Deadline;
 import ninja.NinjaDefault;
 import ninja.Result;
 import ninja.Route;
+import ninja.RouteMatch;
+import ninja.RouteMatchCache;
+import ninja.RouterImpl;
 import ninja.exceptions.BadRequestException;
+import ninja.exceptions.ServiceUnavailableException;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.google.inject.Inject;
@@ -47,8 +57,12 @@ public class InstrumentedNinja extends NinjaDefault {
 
     protected Meter internalServerErrors;
 
+    protected Meter serviceUnavailable;
+
     protected Meter routesNotFound;
 
+    protected Meter missedDeadlines;
+
     @Override
     public void onFrameworkStart() {
 
@@ -58,11 +72,64 @@ public class InstrumentedNinja extends NinjaDefault {
         activeRequests = metrics.counter(MetricsService.COUNTER_ACTIVE_REQUESTS);
         badRequests = metrics.meter(MetricsService.METER_BAD_REQUESTS);
         internalServerErrors = metrics.meter(MetricsService.METER_INTERNAL_SERVER_ERRORS);
+        serviceUnavailable = metrics.meter(MetricsService.METER_SERVICE_UNAVAILABLE);
         routesNotFound = metrics.meter(MetricsService.METER_ROUTES_NOT_FOUND);
+        missedDeadlines = metrics.meter(MetricsService.METER_MISSED_DEADLINES);
+
+        registerRouteMatchCacheGauges(metrics);
+        registerConcurrencyLimitGauges(metrics);
 
         super.onFrameworkStart();
     }
 
+    private void registerRouteMatchCacheGauges(MetricRegistry metrics) {
+
+        if (!(router instanceof RouterImpl)) {
+            return;
+        }
+
+        Optional<RouteMatchCache> routeMatchCache
+            = ((RouterImpl) router).getRouteMatchCache();
+
+        if (routeMatchCache.isPresent()) {
+
+            RouteMatchCache cache = routeMatchCache.get();
+
+            metrics.register(MetricsService.GAUGE_ROUTER_CACHE_HITS,
+                (Gauge<Long>) cache::getHitCount);
+            metrics.register(MetricsService.GAUGE_ROUTER_CACHE_MISSES,
+                (Gauge<Long>) cache::getMissCount);
+
+        }
+    }
+
+    private void registerConcurrencyLimitGauges(MetricRegistry metrics) {
+
+        if (concurrencyLimiter == null || !concurrencyLimiter.isEnabled()) {
+            return;
+        }
+
+        for (Route route : router.getRoutes()) {
+
+            AdaptiveConcurrencyLimit limit = concurrencyLimiter.getLimit(route);
+
+            String prefix = MetricsService.GAUGE_CONCURRENCY_LIMIT_PREFIX + limit.getName();
+
+            // routes of a group share their limit
+            if (metrics.getGauges().containsKey(prefix + ".limit")) {
+                continue;
+            }
+
+            metrics.register(prefix + ".limit",
+                (Gauge<Integer>) limit::getLimit);
+            metrics.register(prefix + ".inFlight",
+                (Gauge<Integer>) limit::getInFlight);
+            metrics.register(prefix + ".rejected",
+                (Gauge<Long>) limit::getRejectedCount);
+
+        }
+    }
+
     @Override
     @Timed
     public void onRouteRequest(Context.Impl context) {
@@ -71,35 +138,59 @@ public class InstrumentedNinja extends NinjaDefault {
 
         String httpMethod = context.getMethod();
 
-        Route route = router.getRouteFor(httpMethod, context.getRequestPath());
+        RouteMatch routeMatch = router.getRouteMatchFor(httpMethod, context.getRequestPath());
 
-        context.setRoute(route);
+        context.setRouteMatch(routeMatch);
 
-        if (route != null) {
+        if (routeMatch != null) {
+
+            Route route = routeMatch.getRoute();
 
             allRequestsMeter.mark();
 
-            try {
+            ConcurrencyLimiter.Permit permit = acquirePermitOrRejectRequest(context, route);
 
-                Result result = route.getFilterChain().next(context);
+            if (permit == null) {
 
-                resultHandler.handleResult(result, context);
+                activeRequests.dec();
+                return;
 
-            } catch (Exception exception) {
+            }
+
+            if (isOffloaded(route)) {
 
-                if (exception instanceof BadRequestException) {
+                // still active until the controller executor is done with it
+                executeFilterChainOnControllerExecutor(context, route, () -> {
+                    permit.release();
+                    activeRequests.dec();
+                });
+                return;
+
+            }
+
+            Result underlyingResult = null;
+
+            try {
 
-                    badRequests.mark();
+                underlyingResult = route.getFilterChain().next(context);
 
-                } else {
+                checkDeadline(context, underlyingResult);
 
-                    internalServerErrors.mark();
+                resultHandler.handleResult(underlyingResult, context);
 
-                }
+            } catch (Exception exception) {
 
                 Result result = onException(context, exception);
                 renderErrorResultAndCatchAndLogExceptions(result, context);
 
+            } finally {
+
+                // an async result is active until it has been returned
+                runWhenResultReturned(context, underlyingResult, () -> {
+                    permit.release();
+                    activeRequests.dec();
+                });
+
             }
 
         } else {
@@ -108,9 +199,37 @@ public class InstrumentedNinja extends NinjaDefault {
 
             Result result = getNotFoundResult(context);
             renderErrorResultAndCatchAndLogExceptions(result, context);
+
+            activeRequests.dec();
+        }
+    }
+
+    @Override
+    public Result onException(Context context, Exception exception, Result underlyingResult) {
+
+        if (exception instanceof BadRequestException) {
+
+            badRequests.mark();
+
+        } else if (exception instanceof ServiceUnavailableException) {
+
+            serviceUnavailable.mark();
+
+        } else {
+
+            internalServerErrors.mark();
+
         }
 
-        activeRequests.dec();
+        return super.onException(context, exception, underlyingResult);
+    }
+
+    @Override
+    protected void onDeadlineMissed(Context context, Deadline deadline) {
+
+        missedDeadlines.mark();
+
+        super.onDeadlineMissed(context, deadline);
     }
 
 }
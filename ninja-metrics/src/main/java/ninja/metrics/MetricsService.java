@@ -29,7 +29,12 @@ public interface MetricsService {
     String COUNTER_ACTIVE_REQUESTS = "ninja.requests.activeRequests";
     String METER_BAD_REQUESTS = "ninja.requests.badRequests";
     String METER_INTERNAL_SERVER_ERRORS = "ninja.requests.internalServerErrors";
+    String METER_SERVICE_UNAVAILABLE = "ninja.requests.serviceUnavailable";
     String METER_ROUTES_NOT_FOUND = "ninja.requests.routesNotFound";
+    String METER_MISSED_DEADLINES = "ninja.requests.missedDeadlines";
+    String GAUGE_ROUTER_CACHE_HITS = "ninja.router.cache.hits";
+    String GAUGE_ROUTER_CACHE_MISSES = "ninja.router.cache.misses";
+    String GAUGE_CONCURRENCY_LIMIT_PREFIX = "ninja.concurrencyLimit.";
 
     /**
      * Start the Ninja Metrics service.
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import ninja.utils.HttpHeaderConstants;
+import ninja.utils.ResponseCompression;
+
+/**
+ * Compresses a response once it grows beyond the minimum size.
+ * 
+ * The first bytes are held back until the minimum size is exceeded. Only then
+ * the Content-Encoding header is set and the response is compressed. Smaller
+ * responses are sent as is with their exact Content-Length.
+ * 
+ * An explicit flush while bytes are held back sends them uncompressed, and
+ * so is the rest of the response, so that streaming responses reach the
+ * client right away. The flush of a writer that is being closed is left to
+ * {@link #close()}.
+ * 
+ * Must be closed to complete the response.
+ */
+class CompressingOutputStream extends OutputStream {
+
+    private final HttpServletResponse httpServletResponse;
+    private final String contentEncoding;
+    private final byte[] buffer;
+    private int count;
+    // null as long as bytes are held back
+    private OutputStream outputStream;
+    private boolean closing;
+    private boolean closed;
+
+    CompressingOutputStream(HttpServletResponse httpServletResponse, String contentEncoding, int minSize) {
+        this.httpServletResponse = httpServletResponse;
+        this.contentEncoding = contentEncoding;
+        this.buffer = new byte[Math.max(minSize, 0)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        if (outputStream == null) {
+            if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+
+            startCompressing();
+        }
+
+        outputStream.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed || closing) {
+            return;
+        }
+
+        if (outputStream == null) {
+            startUncompressed();
+        }
+
+        outputStream.flush();
+    }
+
+    /**
+     * Called by a writer before it closes this stream. Writers flush right
+     * before they close, which must not give up the exact Content-Length of
+     * a small response.
+     */
+    void closing() {
+        closing = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        if (outputStream != null) {
+            outputStream.close();
+        } else {
+            httpServletResponse.setContentLength(count);
+
+            try (OutputStream outputStream = httpServletResponse.getOutputStream()) {
+                outputStream.write(buffer, 0, count);
+            }
+        }
+    }
+
+    private void startCompressing() throws IOException {
+        httpServletResponse.setHeader(HttpHeaderConstants.CONTENT_ENCODING, contentEncoding);
+
+        OutputStream responseStream = httpServletResponse.getOutputStream();
+
+        if (ResponseCompression.GZIP.equals(contentEncoding)) {
+            outputStream = new GZIPOutputStream(responseStream, true);
+        } else {
+            outputStream = new DeflaterOutputStream(responseStream, true);
+        }
+
+        writeBytesHeldBack();
+    }
+
+    private void startUncompressed() throws IOException {
+        outputStream = httpServletResponse.getOutputStream();
+
+        writeBytesHeldBack();
+    }
+
+    private void writeBytesHeldBack() throws IOException {
+        if (count > 0) {
+            outputStream.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+}
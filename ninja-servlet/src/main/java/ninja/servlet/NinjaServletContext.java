@@ -21,6 +21,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -47,9 +48,11 @@ import ninja.uploads.FileItem;
 import ninja.uploads.FileItemProvider;
 import ninja.uploads.FileProvider;
 import ninja.uploads.NoFileItemProvider;
+import ninja.uploads.StreamingUploads;
 import ninja.utils.HttpHeaderUtils;
 import ninja.utils.NinjaConstant;
 import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseCompression;
 import ninja.utils.ResponseStreams;
 import ninja.validation.Validation;
 
@@ -80,18 +83,27 @@ public class NinjaServletContext extends AbstractContext {
     static final private Logger logger = LoggerFactory.getLogger(NinjaServletContext.class);
     
     private final ResultHandler resultHandler;
+    private final ResponseCompression responseCompression;
     private ServletContext servletContext;
     private HttpServletRequest httpServletRequest;
     private HttpServletResponse httpServletResponse;
     
     private AsyncStrategy asyncStrategy;
     private final Object asyncLock = new Object();
+    private boolean asyncResultReturned = false;
+    private List<Runnable> asyncResultCallbacks;
 
     private boolean formFieldsProcessed = false;
     private Map<String, List<String>> formFieldsMap;
     private Map<String, List<FileItem>> fileFieldsMap;
+    // remaining parts of a multipart request if its files are streamed
+    private FileItemIterator streamingFileItemIterator;
 
-    @Inject
+    /**
+     * @deprecated Looks up the {@link ResponseCompression} via the injector,
+     *      use the constructor taking it instead.
+     */
+    @Deprecated
     public NinjaServletContext(
             BodyParserEngineManager bodyParserEngineManager,
             FlashScope flashScope,
@@ -102,6 +114,29 @@ public class NinjaServletContext extends AbstractContext {
             Injector injector,
             ParamParsers paramParsers) {
         
+        this(bodyParserEngineManager,
+             flashScope,
+             ninjaProperties,
+             resultHandler,
+             session,
+             validation,
+             injector,
+             paramParsers,
+             injector.getInstance(ResponseCompression.class));
+    }
+
+    @Inject
+    public NinjaServletContext(
+            BodyParserEngineManager bodyParserEngineManager,
+            FlashScope flashScope,
+            NinjaProperties ninjaProperties,
+            ResultHandler resultHandler,
+            Session session,
+            Validation validation,
+            Injector injector,
+            ParamParsers paramParsers,
+            ResponseCompression responseCompression) {
+        
         super(bodyParserEngineManager,
               flashScope,
               ninjaProperties,
@@ -111,6 +146,7 @@ public class NinjaServletContext extends AbstractContext {
               paramParsers);
         
         this.resultHandler = resultHandler;
+        this.responseCompression = responseCompression;
     }
 
     public void init(ServletContext servletContext,
@@ -326,12 +362,36 @@ public class NinjaServletContext extends AbstractContext {
 
     @Override
     public void returnResultAsync(Result result) {
+        List<Runnable> callbacks;
         synchronized (asyncLock) {
-            handleAsync();
-            asyncStrategy.returnResultAsync(result, this);
+            try {
+                handleAsync();
+                asyncStrategy.returnResultAsync(result, this);
+            } finally {
+                asyncResultReturned = true;
+                callbacks = asyncResultCallbacks;
+                asyncResultCallbacks = null;
+            }
+        }
+        if (callbacks != null) {
+            callbacks.forEach(Runnable::run);
         }
     }
     
+    @Override
+    public void onAsyncResultReturned(Runnable callback) {
+        synchronized (asyncLock) {
+            if (asyncStrategy != null && !asyncResultReturned) {
+                if (asyncResultCallbacks == null) {
+                    asyncResultCallbacks = new ArrayList<>();
+                }
+                asyncResultCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+    
     @Override
     public void handleAsync() {
         synchronized (asyncLock) {
@@ -371,8 +431,15 @@ public class NinjaServletContext extends AbstractContext {
         
         httpServletResponse.setStatus(result.getStatusCode());
 
+        // adds Vary before the headers are copied
+        String contentEncoding = responseCompression.selectEncoding(this, result);
+
         // copy headers
         for (Entry<String, String> header : result.getHeaders().entrySet()) {
+            // the length of a compressed response is not known up front
+            if (contentEncoding != null && header.getKey().equalsIgnoreCase(Result.CONTENT_LENGTH)) {
+                continue;
+            }
             httpServletResponse.addHeader(header.getKey(), header.getValue());
         }
 
@@ -393,7 +460,11 @@ public class NinjaServletContext extends AbstractContext {
 
         // possibly
         ResponseStreamsServlet responseStreamsServlet = new ResponseStreamsServlet();
-        responseStreamsServlet.init(httpServletResponse);
+        if (contentEncoding != null) {
+            responseStreamsServlet.init(httpServletResponse, contentEncoding, responseCompression.getMinSize());
+        } else {
+            responseStreamsServlet.init(httpServletResponse);
+        }
 
         return responseStreamsServlet;
     }
@@ -430,6 +501,12 @@ public class NinjaServletContext extends AbstractContext {
         return fileItemIterator;
     }
 
+    @Override
+    public FileItemIterator getStreamingFileItemIterator() {
+        if (!formFieldsProcessed) processFormFields();
+        return streamingFileItemIterator;
+    }
+
     private String performGetRequestPath() {
         // http://stackoverflow.com/questions/966077/java-reading-undecoded-url-from-servlet
 
@@ -512,25 +589,31 @@ public class NinjaServletContext extends AbstractContext {
         // if none injected, then we do not process form fields this way and let the user
         // call classic getFileItemIterator() by himself
         FileProvider fileProvider = null;
+        boolean streaming = false;
         if (route != null) {
-            if (fileProvider == null) {
-                fileProvider = route.getControllerMethod().getAnnotation(FileProvider.class);
-            }
-            if (fileProvider == null) {
+            Method method = route.getControllerMethod();
+            fileProvider = method.getAnnotation(FileProvider.class);
+            streaming = fileProvider == null && method.isAnnotationPresent(StreamingUploads.class);
+            if (fileProvider == null && !streaming) {
                 fileProvider = route.getControllerClass().getAnnotation(FileProvider.class);
+                streaming = fileProvider == null
+                        && route.getControllerClass().isAnnotationPresent(StreamingUploads.class);
             }
         }
         
-        // get file item provider from file provider or default one
+        // get file item provider from file provider or default one,
+        // streaming reads form fields up to the first file and leaves the rest to the controller
         FileItemProvider fileItemProvider = null;
-        if (fileProvider == null) {
-            fileItemProvider = injector.getInstance(FileItemProvider.class);
-        } else {
-            fileItemProvider = injector.getInstance(fileProvider.value());
+        if (!streaming) {
+            if (fileProvider == null) {
+                fileItemProvider = injector.getInstance(FileItemProvider.class);
+            } else {
+                fileItemProvider = injector.getInstance(fileProvider.value());
+            }
+            
+            if (fileItemProvider instanceof NoFileItemProvider) return;
         }
         
-        if (fileItemProvider instanceof NoFileItemProvider) return;
-        
         // Initialize maps and other constants
         ArrayListMultimap<String, String> formMap = ArrayListMultimap.create();
         ArrayListMultimap<String, FileItem> fileMap = ArrayListMultimap.create();
@@ -568,6 +651,11 @@ public class NinjaServletContext extends AbstractContext {
                     String value = Streams.asString(item.openStream(), charset);
                     formMap.put(item.getFieldName(), value);
 
+                } else if (streaming) {
+
+                    streamingFileItemIterator = new PendingFileItemIterator(item, fileItemIterator);
+                    break;
+
                 } else {
                     
                     // process file as input stream and save for later use in getParameterAsFile or getParameterAsInputStream
@@ -575,6 +663,11 @@ public class NinjaServletContext extends AbstractContext {
                     fileMap.put(item.getFieldName(), fileItem);
                 }
             }
+
+            if (streaming && streamingFileItemIterator == null) {
+                // no file at all, the iterator is exhausted
+                streamingFileItemIterator = fileItemIterator;
+            }
         } catch (FileUploadException | IOException e) {
             throw new RuntimeException("Failed to parse multipart request data", e);
         }
@@ -620,4 +713,36 @@ public class NinjaServletContext extends AbstractContext {
             }
         }
     }
+
+    /**
+     * Returns an item already taken from an iterator before the remaining
+     * items of that iterator.
+     */
+    private static class PendingFileItemIterator implements FileItemIterator {
+
+        private FileItemStream pendingItem;
+        private final FileItemIterator fileItemIterator;
+
+        PendingFileItemIterator(FileItemStream pendingItem, FileItemIterator fileItemIterator) {
+            this.pendingItem = pendingItem;
+            this.fileItemIterator = fileItemIterator;
+        }
+
+        @Override
+        public boolean hasNext() throws FileUploadException, IOException {
+            return pendingItem != null || fileItemIterator.hasNext();
+        }
+
+        @Override
+        public FileItemStream next() throws FileUploadException, IOException {
+            if (pendingItem == null) {
+                return fileItemIterator.next();
+            }
+
+            FileItemStream item = pendingItem;
+            pendingItem = null;
+            return item;
+        }
+
+    }
 }
@@ -18,6 +18,7 @@ package ninja.servlet;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 
 import javax.servlet.http.HttpServletResponse;
@@ -34,11 +35,33 @@ public class ResponseStreamsServlet implements ResponseStreams {
 
     private HttpServletResponse httpServletResponse;
 
+    private String contentEncoding;
+
+    private int minCompressionSize;
+
+    private CompressingOutputStream compressingOutputStream;
+
     public void init(HttpServletResponse httpServletResponse) {
         this.httpServletResponse = httpServletResponse;
 
     }
 
+    /**
+     * Compresses the response with the given encoding once it is larger
+     * than the minimum size. The streams must then be closed to complete
+     * the response.
+     *
+     * @param httpServletResponse The response
+     * @param contentEncoding gzip or deflate
+     * @param minCompressionSize Smaller responses are sent uncompressed
+     */
+    public void init(HttpServletResponse httpServletResponse, String contentEncoding, int minCompressionSize) {
+        this.httpServletResponse = httpServletResponse;
+        this.contentEncoding = contentEncoding;
+        this.minCompressionSize = minCompressionSize;
+
+    }
+
     /**
      * Get the output stream to write the response.
      *
@@ -48,6 +71,9 @@ public class ResponseStreamsServlet implements ResponseStreams {
      */
     @Override
     public OutputStream getOutputStream() throws IOException {
+        if (contentEncoding != null) {
+            return getCompressingOutputStream();
+        }
         return httpServletResponse.getOutputStream();
     }
 
@@ -60,7 +86,28 @@ public class ResponseStreamsServlet implements ResponseStreams {
      */
     @Override
     public Writer getWriter() throws IOException {
+        if (contentEncoding != null) {
+            CompressingOutputStream outputStream = getCompressingOutputStream();
+
+            return new OutputStreamWriter(outputStream, httpServletResponse.getCharacterEncoding()) {
+
+                @Override
+                public void close() throws IOException {
+                    outputStream.closing();
+                    super.close();
+                }
+
+            };
+        }
         return httpServletResponse.getWriter();
     }
 
+    private CompressingOutputStream getCompressingOutputStream() {
+        if (compressingOutputStream == null) {
+            compressingOutputStream = new CompressingOutputStream(
+                    httpServletResponse, contentEncoding, minCompressionSize);
+        }
+        return compressingOutputStream;
+    }
+
 }
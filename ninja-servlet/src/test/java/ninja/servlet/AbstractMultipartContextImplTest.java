@@ -31,6 +31,7 @@ import ninja.utils.NinjaMode;
 import ninja.utils.NinjaProperties;
 import ninja.utils.NinjaPropertiesImpl;
 import ninja.utils.ResultHandler;
+import ninja.utils.ResponseCompression;
 import ninja.validation.Validation;
 import org.apache.commons.fileupload.FileItemHeaders;
 import org.apache.commons.fileupload.FileItemIterator;
@@ -131,7 +132,8 @@ abstract class AbstractMultipartContextImplTest {
                 sessionCookie,
                 validation,
                 injector,
-                new ParamParsers(new HashSet<>())
+                new ParamParsers(new HashSet<>()),
+                injector.getInstance(ResponseCompression.class)
          )
         {
             public FileItemIterator getFileItemIterator() {
@@ -0,0 +1,33 @@
+/**
+ * Copyright (C) the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ninja.servlet;
+
+import ninja.uploads.HybridFileItemProvider;
+import org.junit.Before;
+
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+public class MultipartContextImplHybridTest extends AbstractMultipartContextImplTest {
+
+    @Before
+    public final void setUp() throws IOException, ServletException {
+        init(HybridFileItemProvider.class);
+    }
+
+}
\ No newline at end of file
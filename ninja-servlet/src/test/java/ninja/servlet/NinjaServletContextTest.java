@@ -17,25 +17,38 @@
 package ninja.servlet;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import javax.servlet.ReadListener;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -51,11 +64,19 @@ import ninja.params.ParamParser;
 import ninja.params.ParamParsers;
 import ninja.session.FlashScope;
 import ninja.session.Session;
+import ninja.uploads.FileItemProvider;
+import ninja.uploads.NoFileItemProvider;
+import ninja.uploads.StreamingUploads;
 import ninja.utils.NinjaConstant;
 import ninja.utils.NinjaProperties;
+import ninja.utils.ResponseCompression;
 import ninja.utils.ResultHandler;
 import ninja.validation.Validation;
 
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.util.Streams;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -63,7 +84,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
 import com.google.inject.Injector;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -114,7 +137,11 @@ public class NinjaServletContextTest {
         when(httpServletRequest.getContextPath()).thenReturn("");
         when(httpServletRequest.getRequestURI()).thenReturn("/");
 
-        context = new NinjaServletContext(
+        context = newContext(new ResponseCompression(ninjaProperties));
+    }
+
+    private NinjaServletContext newContext(ResponseCompression responseCompression) {
+        return new NinjaServletContext(
                 bodyParserEngineManager, 
                 flashCookie, 
                 ninjaProperties,
@@ -122,7 +149,8 @@ public class NinjaServletContextTest {
                 sessionCookie,
                 validation,
                 injector,
-                new ParamParsers(new HashSet<ParamParser>()));
+                new ParamParsers(new HashSet<ParamParser>()),
+                responseCompression);
     }
 
     @Test
@@ -526,6 +554,89 @@ public class NinjaServletContextTest {
         verify(httpServletResponse).setCharacterEncoding(NinjaConstant.UTF_8);
     }
 
+    @Test
+    public void testLargeResponsesAreCompressedIfEnabled() throws Exception {
+        ByteArrayOutputStream outputStream = mockCompression("gzip, deflate");
+
+        Result result = Results.html().addHeader(Result.CONTENT_LENGTH, "2048");
+        byte[] html = Strings.repeat("<p>compress me</p>", 100).getBytes(StandardCharsets.UTF_8);
+
+        try (OutputStream responseStream = context.finalizeHeaders(result).getOutputStream()) {
+            responseStream.write(html);
+        }
+
+        verify(httpServletResponse).addHeader("Vary", "Accept-Encoding");
+        verify(httpServletResponse).setHeader("Content-Encoding", "gzip");
+        verify(httpServletResponse, never()).addHeader(Result.CONTENT_LENGTH, "2048");
+
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertArrayEquals(html, ByteStreams.toByteArray(inputStream));
+        }
+    }
+
+    @Test
+    public void testSmallResponsesAreNotCompressed() throws Exception {
+        ByteArrayOutputStream outputStream = mockCompression("deflate");
+
+        try (Writer writer = context.finalizeHeaders(Results.html()).getWriter()) {
+            writer.write("<p>tiny</p>");
+        }
+
+        verify(httpServletResponse).addHeader("Vary", "Accept-Encoding");
+        verify(httpServletResponse, never()).setHeader(anyString(), anyString());
+        verify(httpServletResponse).setContentLength(11);
+        assertEquals("<p>tiny</p>", outputStream.toString("UTF-8"));
+    }
+
+    @Test
+    public void testFlushSendsBytesHeldBack() throws Exception {
+        ByteArrayOutputStream outputStream = mockCompression("deflate");
+
+        String html = Strings.repeat("<p>second</p>", 100);
+
+        try (Writer writer = context.finalizeHeaders(Results.html()).getWriter()) {
+            writer.write("<p>first</p>");
+            writer.flush();
+            // streaming responses must not wait for the minimum size
+            assertEquals("<p>first</p>", outputStream.toString("UTF-8"));
+            writer.write(html);
+        }
+
+        verify(httpServletResponse, never()).setHeader(anyString(), anyString());
+        verify(httpServletResponse, never()).setContentLength(anyInt());
+        assertEquals("<p>first</p>" + html, outputStream.toString("UTF-8"));
+    }
+
+    private ByteArrayOutputStream mockCompression(String acceptEncoding) throws IOException {
+        when(ninjaProperties.getBooleanWithDefault(NinjaConstant.NINJA_COMPRESSION, false)).thenReturn(true);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.NINJA_COMPRESSION_MIN_SIZE, 1024)).thenReturn(1024);
+        context = newContext(new ResponseCompression(ninjaProperties));
+        when(httpServletRequest.getHeader("Accept-Encoding")).thenReturn(acceptEncoding);
+        when(httpServletResponse.getCharacterEncoding()).thenReturn(NinjaConstant.UTF_8);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+
+            @Override
+            public void write(int b) {
+                outputStream.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        });
+
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+
+        return outputStream;
+    }
+
     @Test
     public void testGetRequestPathWorksAsExpectedWithContext() {
 
@@ -993,6 +1104,125 @@ public class NinjaServletContextTest {
         assertEquals("Joe owes €100.", context.getParameter("field1"));
     }
 
+    @Test
+    public void testStreamingFileItemIterator() throws Exception {
+        String body = "------Ninja\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n"
+                + "\r\n"
+                + "holiday\r\n"
+                + "------Ninja\r\n"
+                + "Content-Disposition: form-data; name=\"upload\"; filename=\"a.txt\"\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "\r\n"
+                + "abcdefghij\r\n"
+                + "------Ninja\r\n"
+                + "Content-Disposition: form-data; name=\"after\"\r\n"
+                + "\r\n"
+                + "late\r\n"
+                + "------Ninja--\r\n";
+        ServletInputStream sis = createHttpServletRequestInputStream(body.getBytes(NinjaConstant.UTF_8));
+
+        when(httpServletRequest.getContentType()).thenReturn("multipart/form-data; boundary=----Ninja");
+        when(httpServletRequest.getMethod()).thenReturn("POST");
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MAX_FILE_SIZE, -1)).thenReturn(1024);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MAX_TOTAL_SIZE, -1)).thenReturn(1024);
+        when(route.getControllerMethod()).thenReturn(StreamingMethodController.class.getMethod("upload"));
+
+        when(httpServletRequest.getInputStream()).thenReturn(sis);
+
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+        context.setRoute(route);
+
+        assertEquals("holiday", context.getParameter("title"));
+        assertNull(context.getParameterAsFileItem("upload"));
+
+        FileItemIterator fileItemIterator = context.getStreamingFileItemIterator();
+
+        assertTrue(fileItemIterator.hasNext());
+        FileItemStream file = fileItemIterator.next();
+        assertEquals("upload", file.getFieldName());
+        assertEquals("a.txt", file.getName());
+        assertEquals("abcdefghij", Streams.asString(file.openStream()));
+
+        assertTrue(fileItemIterator.hasNext());
+        FileItemStream field = fileItemIterator.next();
+        assertTrue(field.isFormField());
+        assertEquals("late", Streams.asString(field.openStream()));
+
+        assertFalse(fileItemIterator.hasNext());
+        // not read into the parameters
+        assertNull(context.getParameter("after"));
+    }
+
+    @Test(expected = FileUploadBase.FileUploadIOException.class)
+    public void testStreamingFileItemIteratorEnforcesMaxFileSize() throws Exception {
+        String body = "------Ninja\r\n"
+                + "Content-Disposition: form-data; name=\"upload\"; filename=\"a.txt\"\r\n"
+                + "\r\n"
+                + "abcdefghij\r\n"
+                + "------Ninja--\r\n";
+        ServletInputStream sis = createHttpServletRequestInputStream(body.getBytes(NinjaConstant.UTF_8));
+
+        when(httpServletRequest.getContentType()).thenReturn("multipart/form-data; boundary=----Ninja");
+        when(httpServletRequest.getMethod()).thenReturn("POST");
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MAX_FILE_SIZE, -1)).thenReturn(5);
+        when(ninjaProperties.getIntegerWithDefault(NinjaConstant.UPLOADS_MAX_TOTAL_SIZE, -1)).thenReturn(1024);
+        when(route.getControllerMethod()).thenReturn(StreamingClassController.class.getMethod("upload"));
+        doReturn(StreamingClassController.class).when(route).getControllerClass();
+
+        when(httpServletRequest.getInputStream()).thenReturn(sis);
+
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+        context.setRoute(route);
+
+        FileItemStream file = context.getStreamingFileItemIterator().next();
+
+        Streams.asString(file.openStream());
+    }
+
+    @Test
+    public void testStreamingFileItemIteratorIsNullWithoutStreamingUploads() {
+        when(httpServletRequest.getContentType()).thenReturn("multipart/form-data; boundary=----Ninja");
+        when(httpServletRequest.getMethod()).thenReturn("POST");
+        when(injector.getInstance(FileItemProvider.class)).thenReturn(new NoFileItemProvider());
+
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+
+        assertNull(context.getStreamingFileItemIterator());
+    }
+
+    @Test
+    public void testOnAsyncResultReturnedWaitsForAsyncResult() {
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+
+        AtomicInteger callbacks = new AtomicInteger();
+
+        context.handleAsync();
+        context.onAsyncResultReturned(callbacks::incrementAndGet);
+
+        assertEquals(0, callbacks.get());
+
+        context.returnResultAsync(Results.ok());
+
+        assertEquals(1, callbacks.get());
+
+        // already returned: runs right away
+        context.onAsyncResultReturned(callbacks::incrementAndGet);
+
+        assertEquals(2, callbacks.get());
+    }
+
+    @Test
+    public void testOnAsyncResultReturnedRunsRightAwayIfNotAsync() {
+        context.init(servletContext, httpServletRequest, httpServletResponse);
+
+        AtomicInteger callbacks = new AtomicInteger();
+
+        context.onAsyncResultReturned(callbacks::incrementAndGet);
+
+        assertEquals(1, callbacks.get());
+    }
+
     private ServletInputStream createHttpServletRequestInputStream(byte[] bytes) throws UnsupportedEncodingException {
         final ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
 
@@ -1008,4 +1238,23 @@ public class NinjaServletContextTest {
         };
         return sis;
     }
+
+    static private class StreamingMethodController {
+
+        @StreamingUploads
+        public Result upload() {
+            return null;
+        }
+
+    }
+
+    @StreamingUploads
+    static private class StreamingClassController {
+
+        public Result upload() {
+            return null;
+        }
+
+    }
+
 }
@@ -25,10 +25,13 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import ninja.ContentTypes;
 import ninja.Context;
 import ninja.Cookie;
+import ninja.Deadline;
 import ninja.Result;
 import ninja.Route;
 import ninja.params.ParamParser;
@@ -309,6 +312,16 @@ public class FakeContext implements Context {
         return classOfT.cast(body);
     }
 
+    @Override
+    public <T> Stream<T> parseBodyAsStream(Class<T> classOfT) {
+        if (body == null) {
+            return Stream.empty();
+        } else if (body instanceof Collection) {
+            return ((Collection<?>) body).stream().map(classOfT::cast);
+        }
+        return Stream.of(classOfT.cast(body));
+    }
+
     @Override
     public boolean isMultipart() {
         return false;
@@ -319,6 +332,11 @@ public class FakeContext implements Context {
         throw new UnsupportedOperationException("Not supported in fake context");
     }
 
+    @Override
+    public FileItemIterator getStreamingFileItemIterator() {
+        throw new UnsupportedOperationException("Not supported in fake context");
+    }
+
     @Override
     public boolean isAsync() {
         throw new UnsupportedOperationException("Not supported in fake context");
@@ -369,6 +387,11 @@ public class FakeContext implements Context {
         throw new UnsupportedOperationException("Not supported in fake context");
     }
 
+    @Override
+    public Optional<Deadline> getDeadline() {
+        return Optional.empty();
+    }
+
 	public FakeContext setRequestPath(String path) {
 		this.requestPath = path;
 		return this;